@@ -1,14 +1,17 @@
 package com.schedulemaster.app;
 
 import com.schedulemaster.misc.*;
+import com.schedulemaster.model.EncodedLectures;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureTime;
 import com.schedulemaster.model.User;
 import com.schedulemaster.util.SHA256;
 
 import java.io.*;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Client communicate with server. Default host is "aws.lalaalal.com".
@@ -20,7 +23,7 @@ public class Client extends Communicator {
     private static final int PORT = 5678;
 
     public Client() throws IOException {
-        super(new Socket(HOST, PORT));
+        super(SocketChannel.open(new InetSocketAddress(HOST, PORT)));
     }
 
     /**
@@ -72,11 +75,32 @@ public class Client extends Communicator {
      * @throws IOException If an I/O error occurs.
      */
     @SuppressWarnings("unchecked")
-    public LinkedList<Lecture> getLectures() throws IOException {
+    public ArrayList<Lecture> getLectures() throws IOException {
         Request request = new Request(Request.REQ_LECTURES, null);
         Response response = send(request);
 
-        return (LinkedList<Lecture>) response.data();
+        if (response.data() instanceof EncodedLectures encoded)
+            return encoded.decode();
+        return (ArrayList<Lecture>) response.data();
+    }
+
+    /**
+     * Get lectures not conflicting with time from server.
+     *
+     * @param time Used time.
+     * @return List of lectures, null if failed.
+     * @throws IOException If an I/O error occurs.
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<Lecture> getFittingLectures(LectureTime time) throws IOException {
+        Request request = new Request(Request.REQ_FITTING_LECTURES, time);
+        Response response = send(request);
+        if (response == null || response.status() != Status.SUCCEED)
+            return null;
+
+        if (response.data() instanceof EncodedLectures encoded)
+            return encoded.decode();
+        return (ArrayList<Lecture>) response.data();
     }
 
     /**
@@ -86,10 +110,17 @@ public class Client extends Communicator {
      * @throws IOException If an I/O error occurs.
      */
     public User getUserData() throws IOException {
-        Request request = new Request(Request.REQ_USER, null);
-        Response response = send(request);
+        return await(getUserDataAsync());
+    }
 
-        return (User) response.data();
+    /**
+     * Get user data from server without waiting.
+     *
+     * @return Future of user data.
+     */
+    public CompletableFuture<User> getUserDataAsync() {
+        Request request = new Request(Request.REQ_USER, null);
+        return sendAsync(request).thenApply(response -> (User) response.data());
     }
 
     /**
@@ -101,11 +132,23 @@ public class Client extends Communicator {
      * @throws IOException If an I/O error occurs.
      */
     public ResponseStatus lectureCommand(String command, Lecture lecture) throws IOException {
+        return await(lectureCommandAsync(command, lecture));
+    }
+
+    /**
+     * Do lectures command without waiting. Commands sent back to back are handled by server in order.
+     *
+     * @param command Lecture command.
+     * @param lecture Lecture to be handled.
+     * @return Future of ResponseStatus of command.
+     */
+    public CompletableFuture<ResponseStatus> lectureCommandAsync(String command, Lecture lecture) {
         Request request = new Request(command, lecture);
-        Response response = send(request);
-        if (response == null)
-            return new ResponseStatus(false, "");
-        return new ResponseStatus(response.status() == Status.SUCCEED, response.data().toString());
+        return sendAsync(request).thenApply(response -> {
+            if (response == null)
+                return new ResponseStatus(false, "");
+            return new ResponseStatus(response.status() == Status.SUCCEED, response.data().toString());
+        });
     }
 
     /**
@@ -115,7 +158,7 @@ public class Client extends Communicator {
      * @return True if succeeded.
      * @throws IOException If an I/O error occurs.
      */
-    public boolean sendPriorities(Hash<String, Integer> priorities) throws IOException {
+    public boolean sendPriorities(ObjectIntHash<String> priorities) throws IOException {
         Request request = new Request(Request.SET_PRIORITIES, priorities);
         Response response = send(request);
 
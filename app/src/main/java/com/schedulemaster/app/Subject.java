@@ -1,7 +1,9 @@
 package com.schedulemaster.app;
 
 import com.schedulemaster.app.observers.Observer;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.model.Lecture;
 
 public class Subject {
     private final LinkedList<Observer> observers = new LinkedList<>();
@@ -16,4 +18,10 @@ public class Subject {
             observer.update();
         }
     }
+
+    public void notice(ArrayList<Lecture> changedLectures) {
+        for (Observer observer : observers) {
+            observer.update(changedLectures);
+        }
+    }
 }
@@ -3,9 +3,12 @@ package com.schedulemaster.app.controller;
 import com.schedulemaster.app.Client;
 import com.schedulemaster.app.Subject;
 import com.schedulemaster.app.view.MainFrame;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.SortedIndex;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureBook;
+import com.schedulemaster.model.LectureQuery;
+import com.schedulemaster.model.LectureTime;
 
 import java.io.IOException;
 import java.util.ResourceBundle;
@@ -27,7 +30,7 @@ public class LectureController extends Subject {
             public String toString() {
                 return ResourceBundle.getBundle(MainFrame.RESOURCE_BUNDLE_NAME).getString("lecture_name");
             }
-        }, Grade
+        }, Grade, Score, StartTime, Time
     }
 
     private final LectureBook lectureBook;
@@ -40,18 +43,71 @@ public class LectureController extends Subject {
         lectureBook.addIndex(AttributeName.Professor.name(), Lecture::getProfessor);
         lectureBook.addIndex(AttributeName.Major.name(), Lecture::getMajor);
         lectureBook.addIndex(AttributeName.Name.name(), Lecture::getName);
+        lectureBook.addJamoIndex(AttributeName.Professor.name(), Lecture::getProfessor);
+        lectureBook.addTextIndex(AttributeName.Major.name(), Lecture::getMajor);
+        lectureBook.addJamoIndex(AttributeName.Name.name(), Lecture::getName);
+        lectureBook.addRangeIndex(AttributeName.Grade.name(), SortedIndex.KeySelector.of(Lecture::getGrade));
+        lectureBook.addRangeIndex(AttributeName.Score.name(), SortedIndex.KeySelector.of(Lecture::getScore));
+        lectureBook.addRangeIndex(AttributeName.StartTime.name(), lecture -> lecture.time.getStartMinutes());
+        lectureBook.addIntervalIndex(AttributeName.Time.name(), lecture -> lecture.time.getIntervals());
     }
 
     public void refresh() throws IOException {
-        LinkedList<Lecture> lectures = client.getLectures();
-        lectureBook.setLectures(lectures);
-        notice();
+        ArrayList<Lecture> lectures = client.getLectures();
+        ArrayList<Lecture> changedLectures = lectureBook.updateLectures(lectures);
+        // entire lectures are replaced if lecture numbers are changed
+        if (changedLectures == lectures)
+            notice();
+        else
+            notice(changedLectures);
     }
 
-    public LinkedList<Lecture> findByAttributeName(AttributeName attributeName, String value) {
+    public ArrayList<Lecture> findByAttributeName(AttributeName attributeName, String value) {
         return lectureBook.findLectures(attributeName.name(), value);
     }
 
+    /**
+     * Find lectures whose attribute contains text. Attribute should have text index.
+     */
+    public ArrayList<Lecture> searchByAttributeName(AttributeName attributeName, String text) {
+        return lectureBook.searchLectures(attributeName.name(), text);
+    }
+
+    /**
+     * Find lectures whose attribute is in [from, to]. Attribute should have range index.
+     */
+    public ArrayList<Lecture> findInRange(AttributeName attributeName, int from, int to) {
+        return lectureBook.findLecturesInRange(attributeName.name(), from, to);
+    }
+
+    /**
+     * Find lectures starting in [from, to] on any day, using range index of start minute of day.
+     */
+    public ArrayList<Lecture> findStartingBetween(LectureTime.Time from, LectureTime.Time to) {
+        return findInRange(AttributeName.StartTime, from.toMinutes(), to.toMinutes());
+    }
+
+    /**
+     * Find lectures having time overlapping time.
+     */
+    public ArrayList<Lecture> findOverlapping(LectureTime time) {
+        return lectureBook.findLecturesOverlapping(AttributeName.Time.name(), time.getIntervals());
+    }
+
+    /**
+     * Find lectures whose every time lies within freeTime.
+     */
+    public ArrayList<Lecture> findWithin(LectureTime freeTime) {
+        return lectureBook.findLecturesWithin(AttributeName.Time.name(), freeTime.getIntervals());
+    }
+
+    /**
+     * Find lectures matching query made of predicates on attributes of AttributeName.
+     */
+    public ArrayList<Lecture> query(LectureQuery query) {
+        return lectureBook.query(query);
+    }
+
     public LectureBook getLectureBook() {
         return lectureBook;
     }
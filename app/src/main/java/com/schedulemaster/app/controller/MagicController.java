@@ -2,19 +2,22 @@ package com.schedulemaster.app.controller;
 
 import com.schedulemaster.model.*;
 import com.schedulemaster.app.model.Schedule;
-import com.schedulemaster.misc.Hash;
-import com.schedulemaster.misc.Heap;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.IntHeap;
+import com.schedulemaster.misc.ObjectIntHash;
 
 import java.io.IOException;
+import java.util.BitSet;
 
 public class MagicController {
 
     private final UserController userController;
 
-    private final LinkedList<Schedule> schedules = new LinkedList<>();
-    private final LinkedList<LectureGroup> lectureGroups = new LinkedList<>();
-    private final Hash<String, Integer> priorities = new Hash<>();
+    private final ArrayList<Schedule> schedules = new ArrayList<>();
+    private final ArrayList<LectureGroup> lectureGroups = new ArrayList<>();
+    // live priority queue of each group, kept in sync with priorities
+    private final ArrayList<IntHeap<String>> groupHeaps = new ArrayList<>();
+    private final ObjectIntHash<String> priorities = new ObjectIntHash<>();
     private final LectureBook lectureBook;
 
     public MagicController(UserController userController, LectureBook lectureBook) {
@@ -24,12 +27,14 @@ public class MagicController {
 
     public void init() {
         lectureGroups.clear();
+        groupHeaps.clear();
         priorities.clear();
         schedules.clear();
     }
 
     public void addGroup() {
         lectureGroups.push(new LectureGroup());
+        groupHeaps.push(new IntHeap<>(true));
     }
 
     public void addLecture(int groupNumber, Lecture lecture, int priority) {
@@ -38,6 +43,7 @@ public class MagicController {
         LectureGroup group = lectureGroups.at(groupNumber);
         priorities.put(lecture.lectureNum, priority);
         group.push(lecture.lectureNum);
+        groupHeaps.at(groupNumber).insert(lecture.lectureNum, priority);
     }
 
     public void removeLecture(int groupNumber, Lecture lecture) {
@@ -45,6 +51,7 @@ public class MagicController {
             throw new IndexOutOfBoundsException();
         LectureGroup group = lectureGroups.at(groupNumber);
         group.remove(lecture.lectureNum);
+        groupHeaps.at(groupNumber).remove(lecture.lectureNum);
         priorities.remove(lecture.lectureNum);
     }
 
@@ -54,97 +61,142 @@ public class MagicController {
     public void removeGroup(int groupNumber) {
         if (lectureGroups.getLength() <= groupNumber)
             throw new IndexOutOfBoundsException();
-        LectureGroup group = lectureGroups.at(groupNumber);
-        lectureGroups.remove(group);
+        lectureGroups.removeAt(groupNumber);
+        groupHeaps.removeAt(groupNumber);
     }
 
     public void changePriority(Lecture lecture, int priority) {
         priorities.set(lecture.lectureNum, priority);
+        // a lecture may be in several groups, all of them use the same priority
+        for (IntHeap<String> heap : groupHeaps) {
+            if (heap.has(lecture.lectureNum))
+                heap.updatePriority(lecture.lectureNum, priority);
+        }
     }
 
     public void magic() throws IOException {
         schedules.clear();
-        createSchedules(lectureGroups, 0, new Schedule());
+        ArrayList<ArrayList<String>> orders = new ArrayList<>(groupHeaps.getLength());
+        for (IntHeap<String> heap : groupHeaps)
+            orders.push(heap.toSortedList());
+        BitSet unwanted = new BitSet(lectureBook.getLectures().getLength());
+        for (int id : lectureBook.findLectureIdsOverlapping(LectureController.AttributeName.Time.name(), userController.getUnwantedTime().getIntervals()))
+            unwanted.set(id);
+        createSchedules(orders, 0, new Schedule(lectureBook), unwanted);
         userController.savePriorities(priorities);
         userController.saveUnwantedTime();
     }
 
-    private void createSchedules(LinkedList<LectureGroup> groups, int index, Schedule schedule) {
+    /**
+     * @param groups   Lecture numbers of each group in priority order.
+     * @param unwanted Ids of lectures overlapping unwanted time.
+     */
+    private void createSchedules(ArrayList<ArrayList<String>> groups, int index, Schedule schedule, BitSet unwanted) {
         if (index >= groups.getLength())
             return;
-        LectureGroup curr = groups.at(index);
-
-        Heap<Priority> priorityHeap = curr.createHeap(priorities);
-        LectureTime unwantedTime = userController.getUnwantedTime();
+        ArrayList<String> curr = groups.at(index);
 
-        while (!priorityHeap.isEmpty()) {
-            String lectureNum = priorityHeap.pop().lectureNum();
+        for (String lectureNum : curr) {
             Lecture lecture = lectureBook.findLecture(lectureNum);
 
+            // schedule missing a group is never complete, so stop here
+            if (isUnwanted(lecture, unwanted) || schedule.conflictWith(lecture))
+                continue;
             Schedule clone = schedule.copy();
-            if (!lecture.time.conflictWith(unwantedTime))
-                clone.addLecture(lecture);
-            if (index + 1 == groups.getLength() && clone.getLectures().getLength() == groups.getLength())
+            clone.addLecture(lecture);
+            if (index + 1 == groups.getLength())
                 schedules.push(clone);
             else
-                createSchedules(groups, index + 1, clone);
+                createSchedules(groups, index + 1, clone, unwanted);
         }
     }
 
+    private boolean isUnwanted(Lecture lecture, BitSet unwanted) {
+        int id = lectureBook.getLectureId(lecture.lectureNum);
+        if (id < 0)
+            return lecture.time.conflictWith(userController.getUnwantedTime());
+        return unwanted.get(id);
+    }
+
     public Schedule[] getSchedules() {
         return schedules.toArray(new Schedule[0]);
     }
 
-    public LinkedList<Lecture> suggest(int maxSuggestion) {
+    public ArrayList<Lecture> suggest(int maxSuggestion) {
         LectureTime usedTime = getUsedTime();
+        BitSet fitting = lectureBook.findFitting(usedTime);
 
-        LinkedList<Lecture> suggestion = new LinkedList<>();
-        Heap<Priority> priorityHeap = userController.getPriorityHeap();
+        ArrayList<Lecture> suggestion = new ArrayList<>();
+        IntHeap<String> priorityHeap = userController.getPriorityHeap();
         while (!priorityHeap.isEmpty()) {
             if (suggestion.getLength() >= maxSuggestion)
                 return suggestion;
-            String lectureNum = priorityHeap.pop().lectureNum();
+            String lectureNum = priorityHeap.pop();
             Lecture lecture = lectureBook.findLecture(lectureNum);
 
-            addLecture(suggestion, lecture, usedTime);
+            addLecture(suggestion, lecture, usedTime, fitting);
         }
 
-        addLectures(suggestion, userController.getSelectedLectures(), usedTime, maxSuggestion);
-        LinkedList<Lecture> majorMatchLectures = lectureBook.findLectures(LectureController.AttributeName.Major.name(), userController.getUserMajor());
-        addLectures(suggestion, LectureBook.findWithComparator(majorMatchLectures, lecture -> lecture.grade <= userController.getUserGrade()), usedTime, maxSuggestion);
-        addLectures(suggestion, lectureBook.getLectures(), usedTime, maxSuggestion);
+        addLectures(suggestion, userController.getSelectedLectures(), usedTime, fitting, maxSuggestion);
+
+        // only lectures fitting and not full can be suggested, so scan those ids
+        LectureColumns columns = lectureBook.getColumns();
+        BitSet available = columns.notFull();
+        available.and(fitting);
+        BitSet majorMatch = columns.equalTo(LectureColumns.TextColumn.Major, userController.getUserMajor());
+        majorMatch.and(columns.inRange(LectureColumns.IntColumn.Grade, Integer.MIN_VALUE, userController.getUserGrade()));
+        majorMatch.and(available);
+        addLectures(suggestion, columns, majorMatch, usedTime, fitting, maxSuggestion);
+        addLectures(suggestion, columns, available, usedTime, fitting, maxSuggestion);
 
         return suggestion;
     }
 
-    private void addLecture(LinkedList<Lecture> suggestion, Lecture lecture, LectureTime usedTime) {
-        if (!lecture.time.conflictWith(usedTime) && !hasSameName(suggestion, lecture)
+    // lectures not in lectureBook are checked one by one
+    private boolean fits(Lecture lecture, LectureTime usedTime, BitSet fitting) {
+        int id = lectureBook.getLectureId(lecture.lectureNum);
+        if (id < 0)
+            return !lecture.time.conflictWith(usedTime);
+        return fitting.get(id);
+    }
+
+    private void addLecture(ArrayList<Lecture> suggestion, Lecture lecture, LectureTime usedTime, BitSet fitting) {
+        if (fits(lecture, usedTime, fitting) && !hasSameName(suggestion, lecture)
                 && !hasSameName(userController.getEnrolledLectures(), lecture)
                 && !userController.getSelectedLectures().has(lecture)
                 && lecture.enrolled != lecture.max)
             suggestion.push(lecture);
     }
 
-    private void addLectures(LinkedList<Lecture> suggestion, LinkedList<Lecture> lectures, LectureTime usedTime, int maxSuggestion) {
+    private void addLectures(ArrayList<Lecture> suggestion, ArrayList<Lecture> lectures, LectureTime usedTime, BitSet fitting, int maxSuggestion) {
         for (Lecture lecture : lectures) {
             if (suggestion.getLength() >= maxSuggestion)
                 return;
-            addLecture(suggestion, lecture, usedTime);
+            addLecture(suggestion, lecture, usedTime, fitting);
+        }
+    }
+
+    // lectures are read back only until suggestion is full
+    private void addLectures(ArrayList<Lecture> suggestion, LectureColumns columns, BitSet ids, LectureTime usedTime, BitSet fitting, int maxSuggestion) {
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (suggestion.getLength() >= maxSuggestion)
+                return;
+            addLecture(suggestion, columns.get(id), usedTime, fitting);
         }
     }
 
     private LectureTime getUsedTime() {
-        LinkedList<Lecture> enrolledLectures = userController.getEnrolledLectures();
+        ArrayList<Lecture> enrolledLectures = userController.getEnrolledLectures();
         LectureTime usedTime = new LectureTime();
-        usedTime.addTimeSets(userController.getUnwantedTime().getTimeSets());
+        usedTime.addAll(userController.getUnwantedTime());
         for (Lecture enrolledLecture : enrolledLectures) {
-            usedTime.addTimeSets(enrolledLecture.time.getTimeSets());
+            usedTime.addAll(enrolledLecture.time);
         }
 
         return usedTime;
     }
 
-    private boolean hasSameName(LinkedList<Lecture> lectures, Lecture lecture) {
+    private boolean hasSameName(ArrayList<Lecture> lectures, Lecture lecture) {
         for (Lecture compare : lectures) {
             if (compare.name.equals(lecture.name)) {
                 return true;
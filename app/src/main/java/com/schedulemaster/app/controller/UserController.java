@@ -3,13 +3,15 @@ package com.schedulemaster.app.controller;
 import com.schedulemaster.app.Client;
 import com.schedulemaster.app.ResponseStatus;
 import com.schedulemaster.app.Subject;
-import com.schedulemaster.misc.Hash;
-import com.schedulemaster.misc.Heap;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.Communicator;
+import com.schedulemaster.misc.IntHeap;
+import com.schedulemaster.misc.ObjectIntHash;
 import com.schedulemaster.misc.Request;
 import com.schedulemaster.model.*;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 public class UserController extends Subject {
     private User user;
@@ -61,8 +63,25 @@ public class UserController extends Subject {
         return status;
     }
 
-    public LinkedList<Lecture> getEnrolledLectures() {
-        LinkedList<Lecture> enrolledLectures = new LinkedList<>();
+    // requests are sent back to back, so selecting and refreshing takes one round trip
+    public ArrayList<ResponseStatus> selectLectures(ArrayList<Lecture> lectures) throws IOException {
+        ArrayList<CompletableFuture<ResponseStatus>> futures = new ArrayList<>(lectures.getLength());
+        for (Lecture lecture : lectures)
+            futures.push(client.lectureCommandAsync(Request.SELECT, lecture));
+        CompletableFuture<User> userData = user == null ? null : client.getUserDataAsync();
+
+        ArrayList<ResponseStatus> statuses = new ArrayList<>(futures.getLength());
+        for (CompletableFuture<ResponseStatus> future : futures)
+            statuses.push(Communicator.await(future));
+        if (userData != null)
+            user = Communicator.await(userData);
+
+        notice();
+        return statuses;
+    }
+
+    public ArrayList<Lecture> getEnrolledLectures() {
+        ArrayList<Lecture> enrolledLectures = new ArrayList<>();
         for (String lectureNum : user.enrolledLectures) {
             Lecture lecture = lectureBook.findLecture(lectureNum);
             if (lecture != null)
@@ -71,8 +90,8 @@ public class UserController extends Subject {
         return enrolledLectures;
     }
 
-    public LinkedList<Lecture> getSelectedLectures() {
-        LinkedList<Lecture> selectedLectures = new LinkedList<>();
+    public ArrayList<Lecture> getSelectedLectures() {
+        ArrayList<Lecture> selectedLectures = new ArrayList<>();
         for (String lectureNum : user.selectedLectures) {
             Lecture lecture = lectureBook.findLecture(lectureNum);
             if (lecture != null)
@@ -81,12 +100,12 @@ public class UserController extends Subject {
         return selectedLectures;
     }
 
-    public boolean savePriorities(Hash<String, Integer> priorities) throws IOException {
+    public boolean savePriorities(ObjectIntHash<String> priorities) throws IOException {
         user.priorities = priorities;
         return client.sendPriorities(priorities);
     }
 
-    public Heap<Priority> getPriorityHeap() {
+    public IntHeap<String> getPriorityHeap() {
         LectureGroup group = new LectureGroup();
         group.addAll(user.priorities.getKeys());
         return group.createHeap(user.priorities);
@@ -1,35 +1,83 @@
 package com.schedulemaster.app.model;
 
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.model.ConflictGraph;
 import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureBook;
+
+import java.util.BitSet;
 
 /** *
  * A Group of Lecture ensures no time conflict
  */
 public class Schedule {
-    private final LinkedList<Lecture> lectures = new LinkedList<>();
+    private final ArrayList<Lecture> lectures = new ArrayList<>();
+    private final LectureBook lectureBook;
+    // ids of lectures conflicting with any lecture in schedule
+    private final BitSet blocked = new BitSet();
 
-    public boolean addLecture(Lecture lecture) {
+    public Schedule() {
+        this(null);
+    }
+
+    /**
+     * Schedule checking conflict with conflict graph of lectureBook.
+     * Lectures not in lectureBook are compared one by one.
+     */
+    public Schedule(LectureBook lectureBook) {
+        this.lectureBook = lectureBook;
+    }
+
+    private int getId(Lecture lecture) {
+        if (lectureBook == null)
+            return -1;
+        return lectureBook.getLectureId(lecture.lectureNum);
+    }
+
+    /**
+     * @return True if lecture conflicts with a lecture in schedule.
+     */
+    public boolean conflictWith(Lecture lecture) {
+        int id = getId(lecture);
         for (Lecture element : lectures) {
+            if (id >= 0 && getId(element) >= 0)
+                continue;
             if (element.time.conflictWith(lecture.time))
-                return false;
+                return true;
         }
+        return id >= 0 && blocked.get(id);
+    }
+
+    public boolean addLecture(Lecture lecture) {
+        if (conflictWith(lecture))
+            return false;
 
         lectures.push(lecture);
+        int id = getId(lecture);
+        if (id >= 0)
+            lectureBook.getConflictGraph().addNeighbors(id, blocked);
         return true;
     }
 
     public void removeLecture(Lecture lecture) {
         lectures.remove(lecture);
+        blocked.clear();
+        ConflictGraph graph = lectureBook == null ? null : lectureBook.getConflictGraph();
+        for (Lecture element : lectures) {
+            int id = getId(element);
+            if (id >= 0)
+                graph.addNeighbors(id, blocked);
+        }
     }
 
-    public LinkedList<Lecture> getLectures() {
+    public ArrayList<Lecture> getLectures() {
         return lectures;
     }
 
     public Schedule copy() {
-        Schedule clone = new Schedule();
+        Schedule clone = new Schedule(lectureBook);
         clone.lectures.addAll(this.lectures);
+        clone.blocked.or(this.blocked);
 
         return clone;
     }
@@ -3,7 +3,7 @@ package com.schedulemaster.app.observers;
 import com.schedulemaster.app.controller.UserController;
 import com.schedulemaster.app.view.LectureView;
 import com.schedulemaster.app.view.MainFrame;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 
 public class EnrolledLectureObserver extends LectureObserver {
@@ -15,7 +15,7 @@ public class EnrolledLectureObserver extends LectureObserver {
     @Override
     public void update() {
         UserController userController = frame.getUserController();
-        LinkedList<Lecture> enrolledLectures = userController.getEnrolledLectures();
+        ArrayList<Lecture> enrolledLectures = userController.getEnrolledLectures();
         for (LectureView lectureView : lectureViews) {
             lectureView.setLectures(enrolledLectures);
         }
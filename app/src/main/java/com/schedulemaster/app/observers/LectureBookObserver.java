@@ -3,6 +3,8 @@ package com.schedulemaster.app.observers;
 import com.schedulemaster.app.controller.LectureController;
 import com.schedulemaster.app.view.LectureView;
 import com.schedulemaster.app.view.MainFrame;
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureBook;
 
 public class LectureBookObserver extends LectureObserver {
@@ -18,4 +20,11 @@ public class LectureBookObserver extends LectureObserver {
             lectureView.setLectures(lectureBook.getLectures());
         }
     }
+
+    @Override
+    public void update(ArrayList<Lecture> changedLectures) {
+        for (LectureView lectureView : lectureViews) {
+            lectureView.updateLectures(changedLectures);
+        }
+    }
 }
@@ -2,11 +2,11 @@ package com.schedulemaster.app.observers;
 
 import com.schedulemaster.app.view.LectureView;
 import com.schedulemaster.app.view.MainFrame;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 
 public abstract class LectureObserver implements Observer {
     protected final MainFrame frame;
-    protected final LinkedList<LectureView> lectureViews = new LinkedList<>();
+    protected final ArrayList<LectureView> lectureViews = new ArrayList<>();
 
     public LectureObserver(MainFrame frame) {
         this.frame = frame;
@@ -1,5 +1,17 @@
 package com.schedulemaster.app.observers;
 
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.model.Lecture;
+
 public interface Observer {
     void update();
+
+    /**
+     * Called when only some lectures are changed in place. Updates everything by default.
+     *
+     * @param changedLectures Changed lectures.
+     */
+    default void update(ArrayList<Lecture> changedLectures) {
+        update();
+    }
 }
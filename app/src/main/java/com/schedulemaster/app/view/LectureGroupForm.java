@@ -4,7 +4,7 @@ import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import com.intellij.uiDesigner.core.Spacer;
 import com.schedulemaster.app.view.table.LectureTableForm;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 
 import javax.swing.*;
@@ -44,7 +44,7 @@ public class LectureGroupForm extends ComponentForm {
         groupNameLabel.setText(name);
     }
 
-    public LinkedList<Lecture> getLectures() {
+    public ArrayList<Lecture> getLectures() {
         return lectureTableForm.getLectures();
     }
 
@@ -6,7 +6,7 @@ import com.intellij.uiDesigner.core.Spacer;
 import com.schedulemaster.app.controller.MagicController;
 import com.schedulemaster.app.controller.UserController;
 import com.schedulemaster.app.view.content.ContentForm;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureTime;
 
@@ -27,7 +27,7 @@ public class LectureGroupListForm extends ComponentGroup {
 
     private GridLayout gridLayout;
 
-    private final LinkedList<LectureGroupForm> lectureGroupForms = new LinkedList<>();
+    private final ArrayList<LectureGroupForm> lectureGroupForms = new ArrayList<>();
     private final MainFrame frame;
 
     private int groupCount = 0;
@@ -60,7 +60,7 @@ public class LectureGroupListForm extends ComponentGroup {
             MagicController magicController = frame.getMagicController();
             int i = 0;
             for (LectureGroupForm lectureGroupForm : lectureGroupForms) {
-                LinkedList<Lecture> lectures = lectureGroupForm.getLectures();
+                ArrayList<Lecture> lectures = lectureGroupForm.getLectures();
                 magicController.addGroup();
                 for (Lecture lecture : lectures)
                     magicController.addLecture(i, lecture, 0);
@@ -1,16 +1,16 @@
 package com.schedulemaster.app.view;
 
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 
 public abstract class LectureView extends ComponentForm {
-    protected LinkedList<Lecture> lectures;
+    protected ArrayList<Lecture> lectures;
 
     public LectureView() {
-        lectures = new LinkedList<>();
+        lectures = new ArrayList<>();
     }
 
-    public LectureView(LinkedList<Lecture> lectures) {
+    public LectureView(ArrayList<Lecture> lectures) {
         this.lectures = lectures;
     }
 
@@ -19,7 +19,7 @@ public abstract class LectureView extends ComponentForm {
             lectures.push(lecture);
     }
 
-    public void addLectures(LinkedList<Lecture> lectures) {
+    public void addLectures(ArrayList<Lecture> lectures) {
         for (Lecture lecture : lectures) {
             if (!this.lectures.has(lecture))
                 this.lectures.push(lecture);
@@ -27,12 +27,12 @@ public abstract class LectureView extends ComponentForm {
         updateView();
     }
 
-    public void setLectures(LinkedList<Lecture> lectures) {
+    public void setLectures(ArrayList<Lecture> lectures) {
         this.lectures = lectures;
         updateView();
     }
 
-    public LinkedList<Lecture> getLectures() {
+    public ArrayList<Lecture> getLectures() {
         return lectures;
     }
 
@@ -44,5 +44,14 @@ public abstract class LectureView extends ComponentForm {
         lectures.clear();
     }
 
+    /**
+     * Update view after lectures are changed in place. Updates entire view by default.
+     *
+     * @param changedLectures Changed lectures, may not be in this view.
+     */
+    public void updateLectures(ArrayList<Lecture> changedLectures) {
+        updateView();
+    }
+
     public abstract void updateView();
 }
@@ -5,7 +5,7 @@ import com.intellij.uiDesigner.core.GridLayoutManager;
 import com.intellij.uiDesigner.core.Spacer;
 import com.schedulemaster.app.view.content.SearchForm;
 import com.schedulemaster.app.view.table.LectureTableForm;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 
 import javax.swing.*;
@@ -27,7 +27,7 @@ public class SearchDialog extends JDialog {
     private JPanel searchPanel;
     private final SearchForm searchForm;
 
-    private final LinkedList<Callback> callbacks = new LinkedList<>();
+    private final ArrayList<Callback> callbacks = new ArrayList<>();
 
     public SearchDialog(MainFrame frame) {
         super(frame, ResourceBundle.getBundle(MainFrame.RESOURCE_BUNDLE_NAME).getString("select_label"), ModalityType.APPLICATION_MODAL);
@@ -57,7 +57,7 @@ public class SearchDialog extends JDialog {
         callbacks.push(callback);
     }
 
-    public LinkedList<Lecture> getSelectedLectures() {
+    public ArrayList<Lecture> getSelectedLectures() {
         return searchForm.getSelectedLectures();
     }
 
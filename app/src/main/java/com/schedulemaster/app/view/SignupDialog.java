@@ -6,7 +6,7 @@ import com.intellij.uiDesigner.core.Spacer;
 import com.schedulemaster.app.ResponseStatus;
 import com.schedulemaster.app.controller.LectureController;
 import com.schedulemaster.app.controller.UserController;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -64,7 +64,7 @@ public class SignupDialog extends JDialog {
         passwordField.setText("");
         mainFrame.connectServer();
         LectureController lectureController = mainFrame.getLectureController();
-        LinkedList<String> majors = lectureController.getLectureBook().getIndexAttributes(LectureController.AttributeName.Major.name());
+        ArrayList<String> majors = lectureController.getLectureBook().getIndexAttributes(LectureController.AttributeName.Major.name());
         for (String major : majors) {
             majorComboBox.addItem(major);
         }
@@ -2,6 +2,7 @@ package com.schedulemaster.app.view;
 
 import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.misc.Hash;
 import com.schedulemaster.misc.LinkedList;
 import com.schedulemaster.model.Lecture;
@@ -57,7 +58,7 @@ public class TimeTableForm extends LectureView {
     }
 
     @Override
-    public void setLectures(LinkedList<Lecture> lectures) {
+    public void setLectures(ArrayList<Lecture> lectures) {
         super.setLectures(lectures);
         if (lectures.getLength() < 1)
             lectureColors.clear();
@@ -8,7 +8,7 @@ import com.schedulemaster.app.observers.Observer;
 import com.schedulemaster.app.view.*;
 import com.schedulemaster.app.view.table.EnrolledLectureTableForm;
 import com.schedulemaster.app.view.table.SelectedLectureTableForm;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 
 import javax.swing.*;
@@ -79,7 +79,7 @@ public class LectureBagForm extends ContentForm {
             selectedLectureTableForm.setLectures(magicController.suggest(10));
         } else {
             UserController userController = frame.getUserController();
-            LinkedList<Lecture> selectedLectures = userController.getSelectedLectures();
+            ArrayList<Lecture> selectedLectures = userController.getSelectedLectures();
             selectedLectureTableForm.setLectures(selectedLectures);
         }
     }
@@ -87,7 +87,7 @@ public class LectureBagForm extends ContentForm {
     @Override
     public void load() {
         UserController userController = frame.getUserController();
-        LinkedList<Lecture> enrolledLectures = userController.getEnrolledLectures();
+        ArrayList<Lecture> enrolledLectures = userController.getEnrolledLectures();
 
         updateSelectedLectureTable();
         enrolledLectureTableForm.setLectures(enrolledLectures);
@@ -8,7 +8,6 @@ import com.schedulemaster.app.controller.UserController;
 import com.schedulemaster.app.model.Schedule;
 import com.schedulemaster.app.view.*;
 import com.schedulemaster.app.view.table.LectureTableForm;
-import com.schedulemaster.model.Lecture;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
@@ -55,9 +54,7 @@ public class MagicSelectorForm extends ContentForm {
             public void mouseClicked(MouseEvent e) {
                 try {
                     UserController userController = frame.getUserController();
-                    for (Lecture lecture : schedules[selectedScheduleIndex].getLectures()) {
-                        userController.selectLecture(lecture);
-                    }
+                    userController.selectLectures(schedules[selectedScheduleIndex].getLectures());
                     frame.setContentForm(Content.Home);
                 } catch (IOException ex) {
                     String title = ResourceBundle.getBundle(MainFrame.RESOURCE_BUNDLE_NAME).getString("error");
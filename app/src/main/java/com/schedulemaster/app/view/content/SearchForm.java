@@ -6,7 +6,7 @@ import com.schedulemaster.app.controller.LectureController;
 import com.schedulemaster.app.view.HeaderLabel;
 import com.schedulemaster.app.view.MainFrame;
 import com.schedulemaster.app.view.table.LectureTableForm;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureBook;
 
@@ -56,7 +56,7 @@ public class SearchForm extends ContentForm {
         showAll.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                LinkedList<Lecture> lectures = frame.getLectureController().getLectureBook().getLectures();
+                ArrayList<Lecture> lectures = frame.getLectureController().getLectureBook().getLectures();
                 lectureTableForm.setLectures(lectures);
             }
         });
@@ -85,11 +85,11 @@ public class SearchForm extends ContentForm {
         int selectedIndex = classifyComboBox.getSelectedIndex();
         LectureController.AttributeName attributeName = classifyComboBox.getItemAt(selectedIndex);
 
-        LinkedList<Lecture> search = lectureController.findByAttributeName(attributeName, searchField.getText());
+        ArrayList<Lecture> search = lectureController.searchByAttributeName(attributeName, searchField.getText().strip());
         lectureTableForm.setLectures(search);
     }
 
-    public LinkedList<Lecture> getSelectedLectures() {
+    public ArrayList<Lecture> getSelectedLectures() {
         return lectureTableForm.getSelectedLectures();
     }
 
@@ -6,8 +6,10 @@ import com.schedulemaster.app.ResponseStatus;
 import com.schedulemaster.app.controller.UserController;
 import com.schedulemaster.app.view.LectureView;
 import com.schedulemaster.app.view.MainFrame;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.misc.Hash;
 import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ObjectIntHash;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureTime;
 
@@ -63,6 +65,8 @@ public class LectureTableForm extends LectureView {
 
     private final Hash<Integer, UserAction> userActions = new Hash<>();
     private final Hash<Integer, Action> actions = new Hash<>();
+    // lecture number -> row
+    private final ObjectIntHash<String> rows = new ObjectIntHash<>();
 
     private final DefaultTableModel tableModel = new DefaultTableModel(HEADER, 0) {
         @Override
@@ -92,14 +96,33 @@ public class LectureTableForm extends LectureView {
         while (tableModel.getRowCount() > 0) {
             tableModel.removeRow(0);
         }
+        rows.clear();
         if (lectures == null)
             return;
         for (Lecture lecture : lectures) {
             Object[] rowData = createRowData(lecture);
+            rows.set(lecture.lectureNum, tableModel.getRowCount());
             tableModel.addRow(rowData);
         }
     }
 
+    /**
+     * Rewrite only rows of changed lectures.
+     */
+    @Override
+    public void updateLectures(ArrayList<Lecture> changedLectures) {
+        if (lectures == null)
+            return;
+        for (Lecture lecture : changedLectures) {
+            int row = rows.getOrDefault(lecture.lectureNum, -1);
+            if (row < 0)
+                continue;
+            Object[] rowData = createRowData(lecture);
+            for (int column = 0; column < HEADER.length; column++)
+                tableModel.setValueAt(rowData[column], row, column);
+        }
+    }
+
     private Object[] createRowData(Lecture lecture) {
         Object[] rowData = new Object[HEADER.length + lastColumnIndex];
         rowData[0] = lecture.major;
@@ -208,8 +231,8 @@ public class LectureTableForm extends LectureView {
         return stringBuilder.toString();
     }
 
-    public LinkedList<Lecture> getSelectedLectures() {
-        LinkedList<Lecture> selectedLectures = new LinkedList<>();
+    public ArrayList<Lecture> getSelectedLectures() {
+        ArrayList<Lecture> selectedLectures = new ArrayList<>();
         for (int selectedRow : lectureTable.getSelectedRows()) {
             selectedLectures.push(lectures.at(selectedRow));
         }
@@ -1,6 +1,6 @@
 package com.schedulemaster.app;
 
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.misc.Request;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureTime;
@@ -15,7 +15,7 @@ public class ClientTest {
     @Test
     public void testGetLectures() throws IOException {
         try (Client client = new Client()) {
-            LinkedList<Lecture> lectures =  client.getLectures();
+            ArrayList<Lecture> lectures =  client.getLectures();
             for (Lecture lecture : lectures) {
                 System.out.println(lecture);
             }
@@ -49,7 +49,7 @@ public class ClientTest {
     @Test
     public void testEnroll() throws IOException {
         try (Client client = new Client()) {
-            LinkedList<Lecture> lectures =  client.getLectures();
+            ArrayList<Lecture> lectures =  client.getLectures();
             client.login("test", "test");
             Lecture lecture = lectures.at(10);
             boolean result = client.lectureCommand(Request.ENROLL, lecture).status();
@@ -60,7 +60,7 @@ public class ClientTest {
     @Test
     public void testUnwantedTime() throws IOException {
         try (Client client = new Client()) {
-            LinkedList<Lecture> lectures =  client.getLectures();
+            ArrayList<Lecture> lectures =  client.getLectures();
             client.login("test", "test");
             LectureTime lectureTime = new LectureTime();
             lectureTime.addTimeSet(0, LectureTime.Time.parseTime("09:00"), LectureTime.Time.parseTime("10:00"));
@@ -76,7 +76,7 @@ public class ClientTest {
     public void testMultiUser() throws InterruptedException {
         Thread thread1 = new Thread(() -> {
             try (Client client = new Client()) {
-                LinkedList<Lecture> lectures =  client.getLectures();
+                ArrayList<Lecture> lectures =  client.getLectures();
                 client.login("test", "test");
                 Lecture lecture = lectures.at(13);
                 boolean result = client.lectureCommand(Request.ENROLL, lecture).status();
@@ -88,7 +88,7 @@ public class ClientTest {
 
         Thread thread2 = new Thread(() -> {
             try (Client client = new Client()) {
-                LinkedList<Lecture> lectures =  client.getLectures();
+                ArrayList<Lecture> lectures =  client.getLectures();
                 client.login("test1", "test1");
                 Lecture lecture = lectures.at(13);
                 boolean result = client.lectureCommand(Request.ENROLL, lecture).status();
@@ -4,7 +4,7 @@ import com.schedulemaster.app.controller.LectureController;
 import com.schedulemaster.app.controller.MagicController;
 import com.schedulemaster.app.controller.UserController;
 import com.schedulemaster.app.model.Schedule;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureBook;
 import com.schedulemaster.model.LectureTime;
@@ -23,7 +23,7 @@ public class MagicControllerTest {
             userController.login("test", "test");
             MagicController magicController = new MagicController(userController, lectureController.getLectureBook());
 
-            LinkedList<Lecture> lectures = client.getLectures();
+            ArrayList<Lecture> lectures = client.getLectures();
 
             magicController.addGroup();
             magicController.addLecture(0, lectures.at(10), 1);
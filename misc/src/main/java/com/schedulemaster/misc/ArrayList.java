@@ -0,0 +1,310 @@
+package com.schedulemaster.misc;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Growable array backed list. Same usage as LinkedList, but push, at and getLength are O(1).
+ *
+ * @param <E> Type of element.
+ */
+public class ArrayList<E> implements Iterable<E>, Serializable {
+    public static final long serialVersionUID = 11L;
+
+    private class ArrayListIterator implements Iterator<E> {
+        private int index = 0;
+
+        @Override
+        public boolean hasNext() {
+            return index < length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (index >= length)
+                throw new NoSuchElementException();
+            return (E) elements[index++];
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ArrayListIterator();
+    }
+
+    private class ArrayListSpliterator implements Spliterator<E> {
+        private int index;
+        private final int fence;
+
+        public ArrayListSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (index >= fence)
+                return false;
+            action.accept((E) elements[index++]);
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action) {
+            Object[] snapshot = elements;
+            for (int i = index; i < fence; i++)
+                action.accept((E) snapshot[i]);
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (middle <= index)
+                return null;
+            Spliterator<E> prefix = new ArrayListSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ArrayListSpliterator(0, length);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Collector for streams, keeping encounter order.
+     *
+     * @param <E> Type of element.
+     * @return Collector to ArrayList.
+     */
+    public static <E> Collector<E, ?, ArrayList<E>> collector() {
+        return Collector.of(ArrayList::new, ArrayList::push, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final Object[] EMPTY = {};
+
+    private transient Object[] elements;
+    private transient int length = 0;
+
+    public ArrayList() {
+        elements = EMPTY;
+    }
+
+    public ArrayList(int capacity) {
+        elements = capacity > 0 ? new Object[capacity] : EMPTY;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= elements.length)
+            return;
+        int newCapacity = Math.max(DEFAULT_CAPACITY, elements.length + (elements.length >> 1));
+        elements = Arrays.copyOf(elements, Math.max(newCapacity, capacity));
+    }
+
+    // push data to tail
+    public void push(E data) {
+        if (length == elements.length)
+            ensureCapacity(length + 1);
+        elements[length++] = data;
+    }
+
+    /**
+     * Insert data after elements of lower or same order, so a list sorted by order stays sorted.
+     *
+     * @param data  Element to insert.
+     * @param order Order of element.
+     */
+    @SuppressWarnings("unchecked")
+    public void insertInOrder(E data, ToIntFunction<E> order) {
+        int key = order.applyAsInt(data);
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.applyAsInt((E) elements[middle]) <= key)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        if (length == elements.length)
+            ensureCapacity(length + 1);
+        System.arraycopy(elements, low, elements, low + 1, length - low);
+        elements[low] = data;
+        length += 1;
+    }
+
+    public void addAll(Iterable<E> iterable) {
+        if (iterable instanceof ArrayList<E> list) {
+            ensureCapacity(length + list.length);
+            System.arraycopy(list.elements, 0, elements, length, list.length);
+            length += list.length;
+            return;
+        }
+        for (E element : iterable) {
+            push(element);
+        }
+    }
+
+    /**
+     * Remove all elements equal to data, keeping order of the others.
+     */
+    public void remove(E data) {
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            if (!elements[i].equals(data))
+                elements[kept++] = elements[i];
+        }
+        Arrays.fill(elements, kept, length, null);
+        length = kept;
+    }
+
+    /**
+     * Remove element at index, keeping order of the others.
+     *
+     * @param index Index of element (start with 0).
+     * @return Removed element.
+     */
+    @SuppressWarnings("unchecked")
+    public E removeAt(int index) {
+        checkIndex(index);
+        E removed = (E) elements[index];
+        System.arraycopy(elements, index + 1, elements, index, length - index - 1);
+        elements[--length] = null;
+        return removed;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+    }
+
+    // start with 0
+    @SuppressWarnings("unchecked")
+    public E at(int index) {
+        checkIndex(index);
+        return (E) elements[index];
+    }
+
+    public void set(int index, E data) {
+        checkIndex(index);
+        elements[index] = data;
+    }
+
+    public boolean has(E data) {
+        for (int i = 0; i < length; i++) {
+            if (elements[i].equals(data))
+                return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(elements, 0, length, null);
+        length = 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public E[] toArray(E[] array) {
+        E[] result = Arrays.copyOf(array, length);
+        System.arraycopy(elements, 0, result, 0, length);
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("ArrayList[\n");
+        for (E e : this)
+            stringBuilder.append(e.toString()).append(",\n");
+        stringBuilder.append("\n]");
+
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ArrayList<?> that = (ArrayList<?>) o;
+
+        if (length != that.length) return false;
+        for (int i = 0; i < length; i++) {
+            if (!elements[i].equals(that.elements[i]))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int i = 0; i < length; i++)
+            result = 31 * result + elements[i].hashCode();
+
+        return result;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        oos.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            oos.writeObject(elements[i]);
+        }
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        int readLength = ois.readInt();
+        if (readLength < 0)
+            throw new InvalidObjectException("Negative length " + readLength);
+        elements = readLength > 0 ? new Object[readLength] : EMPTY;
+        for (int i = 0; i < readLength; i++) {
+            elements[i] = ois.readObject();
+        }
+        length = readLength;
+    }
+}
@@ -0,0 +1,56 @@
+package com.schedulemaster.misc;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pool of heap buffers for one connection. Capacities are powers of two,
+ * and released buffers are given again to later acquire, so a connection stops allocating once warmed up.
+ *
+ * @author lalaalal
+ */
+public class BufferPool {
+    private static final int MIN_CAPACITY = 1024;
+
+    private final ArrayList<ByteBuffer> free = new ArrayList<>();
+    private final int maxPooled;
+
+    /**
+     * @param maxPooled Max number of released buffers kept.
+     */
+    public BufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Get a cleared buffer whose limit is capacity.
+     *
+     * @param capacity Needed capacity.
+     * @return Pooled buffer if any is large enough, or new buffer.
+     */
+    public synchronized ByteBuffer acquire(int capacity) {
+        int best = -1;
+        for (int i = 0; i < free.getLength(); i++) {
+            int freeCapacity = free.at(i).capacity();
+            if (freeCapacity >= capacity && (best < 0 || freeCapacity < free.at(best).capacity()))
+                best = i;
+        }
+        ByteBuffer buffer;
+        if (best >= 0) {
+            buffer = free.removeAt(best);
+            buffer.clear();
+        } else {
+            int size = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1);
+            buffer = ByteBuffer.allocate(size < capacity ? capacity : size);
+        }
+        buffer.limit(capacity);
+        return buffer;
+    }
+
+    /**
+     * Give buffer back. Buffer should not be used after released.
+     */
+    public synchronized void release(ByteBuffer buffer) {
+        if (free.getLength() < maxPooled)
+            free.push(buffer);
+    }
+}
@@ -1,100 +1,343 @@
 package com.schedulemaster.misc;
 
+import com.schedulemaster.util.ByteWriter;
+import com.schedulemaster.util.Codec;
 import com.schedulemaster.util.SerializeManager;
 
 import java.io.*;
-import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * Abstract class for communication between schedule master server and client.
- * Provides send and receive protocol.
+ * Provides send and receive protocol. Each message is a frame of length of rest (int), codec tag (byte), flags (byte),
+ * correlation id (int) and encoded message. A compressed message is (length before compression (int), deflated message).
+ * Response has the id of its request, so many requests can be sent back to back and responses are matched by id.
+ * Responses are read by a dispatcher thread started on first send, and handed to futures of requests.
+ * Each frame tells whether its sender accepts compressed frames, and a message is compressed only if peer accepts
+ * and it is at least COMPRESSION_THRESHOLD bytes, so small commands stay as they are.
+ * Messages are encoded into one reused writer and sent with header in a gathering write.
+ * Received frames are read exactly into pooled buffers and decoded from them, so a warmed up connection barely allocates.
  *
  * @author lalaalal
  */
 public abstract class Communicator implements AutoCloseable {
-    private final Socket socket;
-    private final InputStream inputStream;
-    private final OutputStream outputStream;
+    private static final int HEADER_LENGTH = Integer.BYTES + 2 + Integer.BYTES;
+    private static final int MAX_FRAME_LENGTH = 1 << 26;
+    public static final int COMPRESSION_THRESHOLD = 2048;
+
+    private static final int FLAG_COMPRESSED = 1;
+    private static final int FLAG_ACCEPTS_COMPRESSED = 1 << 1;
+
+    private record Frame(Codec codec, int id, ByteBuffer payload) {
+    }
+
+    private final SocketChannel channel;
+    private final BufferPool bufferPool = new BufferPool(4);
+    private final ByteBuffer readHeader = ByteBuffer.allocate(HEADER_LENGTH);
+    private final ByteBuffer writeHeader = ByteBuffer.allocate(HEADER_LENGTH + Integer.BYTES);
+    private final ByteBuffer[] frameBuffers = new ByteBuffer[2];
+    private final ByteWriter writer = new ByteWriter(4096);
+    private Codec codec = SerializeManager.BINARY;
+
+    // requests waiting for response, by correlation id
+    private final ConcurrentHash<Integer, CompletableFuture<Response>> pending = new ConcurrentHash<>();
+    private int nextId = 0;
+    private Thread dispatcher = null;
+    private IOException failure = null;
+
+    // created on first use, and reset for each frame
+    private Deflater deflater = null;
+    private Inflater inflater = null;
+    private ByteBuffer compressed = null;
+    private boolean compression = true;
+    private volatile boolean peerAcceptsCompression = false;
 
     /**
-     * Initialize with socket.
+     * Initialize with connected channel in blocking mode.
      *
-     * @param socket Socket.
-     * @throws IOException If getting streams is not fine.
+     * @param channel Socket channel.
      */
-    public Communicator(Socket socket) throws IOException {
-        this.socket = socket;
-        this.inputStream = socket.getInputStream();
-        this.outputStream = socket.getOutputStream();
+    public Communicator(SocketChannel channel) {
+        this.channel = channel;
     }
 
     /**
-     * Send request.
+     * Change codec used to send. Received frames are decoded with the codec written in them.
+     *
+     * @param codec Codec to send with. Default is SerializeManager.BINARY.
+     */
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Turn compression on or off. If off, this doesn't compress and tells peer not to compress.
+     * Compressed frames from peer are always read.
+     *
+     * @param compression True to compress large frames. Default is true.
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Send request and wait for response.
      *
      * @param request Request.
      * @return Response for request.
      * @throws IOException If an I/O error occurs.
      */
     public Response send(Request request) throws IOException {
-        byte[] requestBytes = SerializeManager.serialize(request);
-        byte[] lengthByte = ByteBuffer.allocate(Integer.BYTES).putInt(requestBytes.length).array();
-        outputStream.write(lengthByte);
-        outputStream.write(requestBytes);
-        outputStream.flush();
-
-        byte[] responseBytes = receiveBytes();
-        return SerializeManager.deserialize(responseBytes, Response.class);
+        return await(sendAsync(request));
+    }
+
+    /**
+     * Send request without waiting for response. Requests are handled by peer in order of sending.
+     *
+     * @param request Request.
+     * @return Future completed with response, or exceptionally with IOException if connection fails.
+     */
+    public synchronized CompletableFuture<Response> sendAsync(Request request) {
+        if (failure != null)
+            return CompletableFuture.failedFuture(failure);
+        if (dispatcher == null) {
+            dispatcher = new Thread(this::dispatch, "Communicator dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+
+        int id = nextId++;
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        // put before writing, response may come before write returns
+        pending.put(id, future);
+        try {
+            write(codec, id, request);
+        } catch (IOException e) {
+            pending.remove(id);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Wait for future of sendAsync().
+     *
+     * @param future Future of response or a value made from it.
+     * @return Value of future.
+     * @throws IOException If sending or receiving failed.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting response");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause)
+                throw cause;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Read responses and complete futures of requests, until connection fails or is closed.
+     * Then all waiting requests fail with the exception.
+     */
+    private void dispatch() {
+        IOException exception;
+        try {
+            while (true) {
+                Frame frame = receive();
+                Response response;
+                try {
+                    response = frame.codec().decode(frame.payload(), Response.class);
+                } finally {
+                    bufferPool.release(frame.payload());
+                }
+                CompletableFuture<Response> future = pending.get(frame.id());
+                if (future == null)
+                    throw new StreamCorruptedException("Unknown correlation id " + frame.id());
+                pending.remove(frame.id());
+                future.complete(response);
+            }
+        } catch (IOException e) {
+            exception = e;
+        }
+        synchronized (this) {
+            failure = exception;
+        }
+        for (CompletableFuture<Response> future : pending)
+            future.completeExceptionally(exception);
     }
 
     /**
-     * Receive request and handle. And send response.
+     * Receive request and handle. And send response with the codec of request.
      *
      * @return Response for request.
      * @throws IOException If an I/O error occurs.
      */
     public Status receiveAndSend() throws IOException {
-        byte[] requestBytes = receiveBytes();
-        Request request = SerializeManager.deserialize(requestBytes, Request.class);
+        Frame frame = receive();
+        Request request;
+        try {
+            request = frame.codec().decode(frame.payload(), Request.class);
+        } finally {
+            bufferPool.release(frame.payload());
+        }
 
         Response response = createResponse(request);
-        byte[] responseBytes = SerializeManager.serialize(response);
-        byte[] lengthByte = ByteBuffer.allocate(Integer.BYTES).putInt(responseBytes.length).array();
-        outputStream.write(lengthByte);
-        outputStream.write(responseBytes);
-        outputStream.flush();
+        synchronized (this) {
+            write(frame.codec(), frame.id(), response);
+        }
 
         return response.status();
     }
 
     /**
-     * Receive bytes from socket.
-     *
-     * @return received bytes.
-     * @throws IOException If an I/O error occurs.
+     * Write a frame: length of rest (int), codec tag (byte), flags (byte), id (int) and message.
+     * Falls back to Java serialization if codec can't encode message. Call with lock of this.
      */
-    public byte[] receiveBytes() throws IOException {
-        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
-            byte[] lengthByte = inputStream.readNBytes(Integer.BYTES);
-            ByteBuffer wrapped = ByteBuffer.wrap(lengthByte);
-            int length = wrapped.getInt();
-
-            int nRead;
-            int allRead = 0;
-            byte[] receivedBytes = new byte[10240];
-
-            nRead = inputStream.read(receivedBytes, 0, receivedBytes.length);
-            allRead += nRead;
-            if (nRead == -1)
-                return receivedBytes;
-            buffer.write(receivedBytes, 0, nRead);
-            while (length > allRead) {
-                nRead = inputStream.read(receivedBytes, 0, receivedBytes.length);
-                allRead += nRead;
-                buffer.write(receivedBytes, 0, nRead);
+    private void write(Codec codec, int id, Object message) throws IOException {
+        writer.reset();
+        try {
+            codec.encode(message, writer);
+        } catch (NotSerializableException e) {
+            writer.reset();
+            codec = SerializeManager.JAVA;
+            codec.encode(message, writer);
+        }
+        ByteBuffer body = writer.toByteBuffer();
+        int length = body.remaining();
+        int flags = compression ? FLAG_ACCEPTS_COMPRESSED : 0;
+        if (compression && peerAcceptsCompression && length >= COMPRESSION_THRESHOLD) {
+            ByteBuffer deflated = compress(body);
+            if (deflated.remaining() < length) {
+                flags |= FLAG_COMPRESSED;
+                body = deflated;
+            } else {
+                body = writer.toByteBuffer();
             }
+        }
+
+        writeHeader.clear();
+        writeHeader.position(Integer.BYTES);
+        writeHeader.put(codec.getTag()).put((byte) flags).putInt(id);
+        if ((flags & FLAG_COMPRESSED) != 0)
+            writeHeader.putInt(length);
+        writeHeader.putInt(0, writeHeader.position() - Integer.BYTES + body.remaining());
+        writeHeader.flip();
 
-            return buffer.toByteArray();
+        frameBuffers[0] = writeHeader;
+        frameBuffers[1] = body;
+        while (body.hasRemaining())
+            channel.write(frameBuffers);
+        frameBuffers[1] = null;
+    }
+
+    /**
+     * Deflate body into reused buffer. Stops early once result is not smaller than body.
+     */
+    private ByteBuffer compress(ByteBuffer body) {
+        int length = body.remaining();
+        if (deflater == null)
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        if (compressed == null || compressed.capacity() < length / 2)
+            compressed = ByteBuffer.allocate(Math.max(length / 2, COMPRESSION_THRESHOLD));
+        compressed.clear();
+
+        deflater.reset();
+        deflater.setInput(body);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (compressed.position() >= length)
+                break;
+            if (!compressed.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(compressed.capacity() * 2);
+                compressed.flip();
+                larger.put(compressed);
+                compressed = larger;
+            }
+            deflater.deflate(compressed);
+        }
+        compressed.flip();
+        return compressed;
+    }
+
+    /**
+     * Inflate payload of compressed frame into a pooled buffer. Payload is released.
+     */
+    private ByteBuffer decompress(ByteBuffer payload) throws IOException {
+        int length = payload.remaining() < Integer.BYTES ? -1 : payload.getInt();
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            bufferPool.release(payload);
+            throw new StreamCorruptedException("Invalid frame length " + length);
+        }
+        if (inflater == null)
+            inflater = new Inflater();
+
+        ByteBuffer result = bufferPool.acquire(length);
+        inflater.reset();
+        inflater.setInput(payload);
+        try {
+            while (result.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(result) == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+            }
+        } catch (DataFormatException e) {
+            bufferPool.release(result);
+            throw new StreamCorruptedException(e.getMessage());
+        } finally {
+            bufferPool.release(payload);
+        }
+        if (result.hasRemaining()) {
+            bufferPool.release(result);
+            throw new StreamCorruptedException("Compressed frame is shorter than " + length);
+        }
+        result.flip();
+        return result;
+    }
+
+    /**
+     * Receive a frame from socket. Payload should be released to pool after decoded.
+     *
+     * @return Codec and message of frame.
+     * @throws IOException If an I/O error occurs, or connection is closed.
+     */
+    private Frame receive() throws IOException {
+        readHeader.clear();
+        readFully(readHeader);
+        readHeader.flip();
+        int length = readHeader.getInt() - (HEADER_LENGTH - Integer.BYTES);
+        Codec frameCodec = SerializeManager.getCodec(readHeader.get());
+        int flags = readHeader.get();
+        int id = readHeader.getInt();
+        peerAcceptsCompression = (flags & FLAG_ACCEPTS_COMPRESSED) != 0;
+        if (length < 0 || length > MAX_FRAME_LENGTH)
+            throw new StreamCorruptedException("Invalid frame length " + length);
+
+        ByteBuffer payload = bufferPool.acquire(length);
+        try {
+            readFully(payload);
+        } catch (IOException e) {
+            bufferPool.release(payload);
+            throw e;
+        }
+        payload.flip();
+        if ((flags & FLAG_COMPRESSED) != 0)
+            payload = decompress(payload);
+        return new Frame(frameCodec, id, payload);
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException("Connection closed");
         }
     }
 
@@ -108,8 +351,27 @@ public abstract class Communicator implements AutoCloseable {
 
     @Override
     public void close() throws IOException {
-        inputStream.close();
-        outputStream.close();
-        socket.close();
+        channel.close();
+        // dispatcher stops with closed channel, then nothing uses inflater
+        Thread thread;
+        synchronized (this) {
+            thread = dispatcher;
+        }
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (deflater != null)
+                deflater.end();
+            deflater = null;
+        }
+        if (inflater != null && (thread == null || !thread.isAlive())) {
+            inflater.end();
+            inflater = null;
+        }
     }
 }
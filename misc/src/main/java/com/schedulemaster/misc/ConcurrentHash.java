@@ -0,0 +1,348 @@
+package com.schedulemaster.misc;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Thread safe insertion ordered hash table. Keys are spread over lock striped segments,
+ * and each segment is a chained table of immutable nodes, so get and hasKey never lock.
+ * Writers lock only their segment, and a short order lock to link entries in insertion order.
+ * Iteration is weakly consistent: it never throws on concurrent change, and sees entries
+ * that are present when it reaches them.
+ *
+ * @param <K> Type of key.
+ * @param <V> Type of value.
+ */
+public class ConcurrentHash<K, V> implements Iterable<V>, Serializable {
+    public static final long serialVersionUID = 11L;
+
+    private static final int SEGMENTS = 16;
+    private static final int DEFAULT_SEGMENT_SIZE = 4;
+
+    /**
+     * Entry shared by chain nodes, linked in insertion order.
+     */
+    private static final class Entry<K, V> {
+        final K key;
+        volatile V value;
+        volatile Entry<K, V> after;
+        // guarded by order lock
+        Entry<K, V> before;
+        volatile boolean removed = false;
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private record Node<K, V>(int hash, Entry<K, V> entry, Node<K, V> next) {
+    }
+
+    // segments are transient, never serialized
+    @SuppressWarnings("serial")
+    private static final class Segment<K, V> extends ReentrantLock {
+        volatile AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(DEFAULT_SEGMENT_SIZE);
+        // guarded by lock
+        int count = 0;
+
+        Entry<K, V> find(Object key, int hash) {
+            AtomicReferenceArray<Node<K, V>> current = table;
+            for (Node<K, V> node = current.get(hash & (current.length() - 1)); node != null; node = node.next) {
+                if (node.hash == hash && key.equals(node.entry.key))
+                    return node.entry;
+            }
+            return null;
+        }
+
+        // call with lock
+        void add(Entry<K, V> entry, int hash) {
+            if (count >= table.length() - (table.length() >> 2))
+                resize();
+            AtomicReferenceArray<Node<K, V>> current = table;
+            int index = hash & (current.length() - 1);
+            current.set(index, new Node<>(hash, entry, current.get(index)));
+            count += 1;
+        }
+
+        // call with lock. nodes are immutable, so chains are copied into new table.
+        private void resize() {
+            AtomicReferenceArray<Node<K, V>> old = table;
+            AtomicReferenceArray<Node<K, V>> resized = new AtomicReferenceArray<>(old.length() * 2);
+            int mask = resized.length() - 1;
+            for (int i = 0; i < old.length(); i++) {
+                for (Node<K, V> node = old.get(i); node != null; node = node.next) {
+                    int index = node.hash & mask;
+                    resized.set(index, new Node<>(node.hash, node.entry, resized.get(index)));
+                }
+            }
+            table = resized;
+        }
+
+        // call with lock. copies nodes in front of removed one.
+        Entry<K, V> delete(Object key, int hash) {
+            AtomicReferenceArray<Node<K, V>> current = table;
+            int index = hash & (current.length() - 1);
+            Node<K, V> first = current.get(index);
+            Node<K, V> target = first;
+            while (target != null && !(target.hash == hash && key.equals(target.entry.key)))
+                target = target.next;
+            if (target == null)
+                return null;
+
+            Node<K, V> head = target.next;
+            for (Node<K, V> node = first; node != target; node = node.next)
+                head = new Node<>(node.hash, node.entry, head);
+            current.set(index, head);
+            count -= 1;
+            return target.entry;
+        }
+    }
+
+    private transient Segment<K, V>[] segments;
+    private transient ReentrantLock orderLock;
+    // sentinel of insertion ordered list. header.after is the oldest entry.
+    private transient Entry<K, V> header;
+    private transient volatile Entry<K, V> tail;
+    private transient AtomicInteger length;
+
+    public ConcurrentHash() {
+        initialize();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Segment<K, V>[] newSegments(int length) {
+        return (Segment<K, V>[]) new Segment<?, ?>[length];
+    }
+
+    private void initialize() {
+        segments = newSegments(SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++)
+            segments[i] = new Segment<>();
+        orderLock = new ReentrantLock();
+        header = new Entry<>(null, null);
+        tail = header;
+        length = new AtomicInteger();
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h * 0x9E3779B9;
+    }
+
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[hash >>> 28];
+    }
+
+    public V get(K key) {
+        int hash = hash(key);
+        Entry<K, V> entry = segmentFor(hash).find(key, hash);
+        return entry == null ? null : entry.value;
+    }
+
+    public boolean hasKey(K key) {
+        int hash = hash(key);
+        return segmentFor(hash).find(key, hash) != null;
+    }
+
+    public void put(K key, V value) {
+        if (putIfAbsent(key, value) != null)
+            throw new RuntimeException("Key " + key + " already exists");
+    }
+
+    /**
+     * Put value only if key doesn't exist, atomically.
+     *
+     * @return Existing value, or null if value was put.
+     */
+    public V putIfAbsent(K key, V value) {
+        if (value == null)
+            throw new NullPointerException("Value of " + key + " is null");
+        int hash = hash(key);
+        Segment<K, V> segment = segmentFor(hash);
+        segment.lock();
+        try {
+            Entry<K, V> entry = segment.find(key, hash);
+            if (entry != null)
+                return entry.value;
+            insert(segment, new Entry<>(key, value), hash);
+            return null;
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    /**
+     * Change value of key. Put if key doesn't exist.
+     */
+    public void set(K key, V value) {
+        if (value == null)
+            throw new NullPointerException("Value of " + key + " is null");
+        int hash = hash(key);
+        Segment<K, V> segment = segmentFor(hash);
+        segment.lock();
+        try {
+            Entry<K, V> entry = segment.find(key, hash);
+            if (entry != null) {
+                entry.value = value;
+                return;
+            }
+            insert(segment, new Entry<>(key, value), hash);
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    // call with segment lock
+    private void insert(Segment<K, V> segment, Entry<K, V> entry, int hash) {
+        orderLock.lock();
+        try {
+            entry.before = tail;
+            tail.after = entry;
+            tail = entry;
+        } finally {
+            orderLock.unlock();
+        }
+        segment.add(entry, hash);
+        length.incrementAndGet();
+    }
+
+    public void remove(K key) {
+        int hash = hash(key);
+        Segment<K, V> segment = segmentFor(hash);
+        segment.lock();
+        try {
+            Entry<K, V> entry = segment.delete(key, hash);
+            if (entry == null)
+                return;
+            entry.removed = true;
+            unlink(entry);
+            length.decrementAndGet();
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    // removed entry keeps its after link, so iterators standing on it can go on
+    private void unlink(Entry<K, V> entry) {
+        orderLock.lock();
+        try {
+            Entry<K, V> before = entry.before;
+            Entry<K, V> after = entry.after;
+            before.after = after;
+            if (after != null)
+                after.before = before;
+            else
+                tail = before;
+        } finally {
+            orderLock.unlock();
+        }
+    }
+
+    public int getLength() {
+        return length.get();
+    }
+
+    public boolean isEmpty() {
+        return length.get() == 0;
+    }
+
+    /**
+     * @return Keys in insertion order.
+     */
+    public ArrayList<K> getKeys() {
+        ArrayList<K> result = new ArrayList<>(length.get());
+        for (Entry<K, V> entry = header.after; entry != null; entry = entry.after) {
+            if (!entry.removed)
+                result.push(entry.key);
+        }
+        return result;
+    }
+
+    private class ConcurrentHashIterator implements Iterator<V> {
+        private Entry<K, V> next = advance(header);
+
+        private Entry<K, V> advance(Entry<K, V> from) {
+            Entry<K, V> entry = from.after;
+            while (entry != null && entry.removed)
+                entry = entry.after;
+            return entry;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            V value = next.value;
+            next = advance(next);
+            return value;
+        }
+    }
+
+    /**
+     * @return Weakly consistent iterator of values in insertion order.
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new ConcurrentHashIterator();
+    }
+
+    @Override
+    public Spliterator<V> spliterator() {
+        return Spliterators.spliterator(iterator(), length.get(), Spliterator.ORDERED | Spliterator.CONCURRENT);
+    }
+
+    public Stream<V> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<V> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Writes key and value pairs in insertion order, as seen by a weakly consistent walk.
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        ArrayList<Entry<K, V>> snapshot = new ArrayList<>(length.get());
+        for (Entry<K, V> entry = header.after; entry != null; entry = entry.after) {
+            if (!entry.removed)
+                snapshot.push(entry);
+        }
+        oos.writeInt(snapshot.getLength());
+        for (Entry<K, V> entry : snapshot) {
+            oos.writeObject(entry.key);
+            oos.writeObject(entry.value);
+        }
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        int readLength = ois.readInt();
+        if (readLength < 0)
+            throw new InvalidObjectException("Negative length " + readLength);
+        initialize();
+        for (int i = 0; i < readLength; i++) {
+            K key = (K) ois.readObject();
+            V value = (V) ois.readObject();
+            if (putIfAbsent(key, value) != null)
+                throw new InvalidObjectException("Duplicated key " + key);
+        }
+    }
+}
@@ -1,26 +1,64 @@
 package com.schedulemaster.misc;
 
-import java.io.Serializable;
+import java.io.*;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Insertion ordered hash table using open addressing (linear probing).
+ * Entries are kept in compact arrays in insertion order, and the probing table only holds entry positions.
+ * Starts small and grows with load factor, so small maps cost only a few slots.
+ * Serialized form holds only live entries; the probing table is rebuilt on read.
+ * Data written by chained Hash (bucket lists in elements) is still read, so serialVersionUID is kept.
+ *
+ * @param <K> Type of key.
+ * @param <V> Type of value.
+ */
 public class Hash<K, V> implements Iterable<V>, Serializable {
     public static final long serialVersionUID = 13L;
 
+    // fields of chained Hash. Now only length is written, and followed by live entries.
+    @Serial
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("elements", Object[].class),
+            new ObjectStreamField("keys", LinkedList.class),
+            new ObjectStreamField("length", int.class)
+    };
+
+    /**
+     * Entry of bucket list of chained Hash. Used only to read old data.
+     */
+    private static class Bucket<K, V> implements Serializable {
+        @Serial
+        private static final long serialVersionUID = -3119756479057014798L;
+
+        public K key;
+        public V value;
+    }
+
     private class HashIterator implements Iterator<V> {
-        private final Iterator<K> iterator = keys.iterator();
+        private int entry = nextEntry(0);
 
         @Override
         public boolean hasNext() {
-            return iterator.hasNext();
+            return entry < size;
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public V next() {
-            K key = iterator.next();
+            if (entry >= size)
+                throw new NoSuchElementException();
+            V value = (V) values[entry];
+            entry = nextEntry(entry + 1);
 
-            return get(key);
+            return value;
         }
     }
 
@@ -29,138 +67,284 @@ public class Hash<K, V> implements Iterable<V>, Serializable {
         return new HashIterator();
     }
 
-    private static class Bucket<K, V> implements Serializable {
-        public K key;
-        public V value;
+    /**
+     * Splits entry arrays by position. Exact size is known only while there are no removed entries.
+     */
+    private class HashSpliterator implements Spliterator<V> {
+        private int entry;
+        private final int fence;
+        private final boolean compact;
+
+        public HashSpliterator(int origin, int fence, boolean compact) {
+            this.entry = origin;
+            this.fence = fence;
+            this.compact = compact;
+        }
 
-        public Bucket(K key, V value) {
-            this.key = key;
-            this.value = value;
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super V> action) {
+            while (entry < fence) {
+                int current = entry++;
+                if (keys[current] != null) {
+                    action.accept((V) values[current]);
+                    return true;
+                }
+            }
+            return false;
         }
 
         @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super V> action) {
+            Object[] keySnapshot = keys;
+            Object[] valueSnapshot = values;
+            for (int i = entry; i < fence; i++) {
+                if (keySnapshot[i] != null)
+                    action.accept((V) valueSnapshot[i]);
+            }
+            entry = fence;
+        }
 
-            Bucket<?, ?> bucket = (Bucket<?, ?>) o;
+        @Override
+        public Spliterator<V> trySplit() {
+            int middle = (entry + fence) >>> 1;
+            if (middle <= entry)
+                return null;
+            Spliterator<V> prefix = new HashSpliterator(entry, middle, compact);
+            entry = middle;
+            return prefix;
+        }
 
-            if (!Objects.equals(key, bucket.key)) return false;
-            return Objects.equals(value, bucket.value);
+        @Override
+        public long estimateSize() {
+            return fence - entry;
         }
 
         @Override
-        public int hashCode() {
-            int result = key != null ? key.hashCode() : 0;
-            result = 31 * result + (value != null ? value.hashCode() : 0);
-            return result;
+        public int characteristics() {
+            if (compact)
+                return ORDERED | SIZED | SUBSIZED;
+            return ORDERED;
         }
     }
 
-    // LinkedList<Bucket<K, V>>
-    private final Object[] elements;
+    @Override
+    public Spliterator<V> spliterator() {
+        return new HashSpliterator(0, size, size == length);
+    }
+
+    /**
+     * @return Stream of values in insertion order.
+     */
+    public Stream<V> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<V> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    private static final int DEFAULT_TABLE_SIZE = 8;
+    private static final int EMPTY = -1;
 
-    private final LinkedList<K> keys = new LinkedList<>();
+    // slot -> position in entry arrays, EMPTY if not used
+    private transient int[] table;
+    // entry arrays in insertion order. removed entry has null key.
+    private transient Object[] keys;
+    private transient Object[] values;
+    private transient int[] hashes;
 
-    private static final int DEFAULT_SIZE = 10240;
-    private int length = 0;
+    // used entry positions including removed ones
+    private transient int size = 0;
+    private transient int length = 0;
 
     public Hash() {
-        elements = new Object[DEFAULT_SIZE];
+        allocate(DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Create hash able to hold expected number of entries without growing.
+     *
+     * @param expectedLength Expected number of entries.
+     */
+    public Hash(int expectedLength) {
+        allocate(tableSizeFor(expectedLength));
+    }
+
+    private static int tableSizeFor(int expectedLength) {
+        int tableSize = DEFAULT_TABLE_SIZE;
+        while (capacityOf(tableSize) < expectedLength)
+            tableSize <<= 1;
+        return tableSize;
+    }
+
+    // max load factor 0.75
+    private static int capacityOf(int tableSize) {
+        return tableSize - (tableSize >> 2);
+    }
+
+    private void allocate(int tableSize) {
+        table = new int[tableSize];
+        Arrays.fill(table, EMPTY);
+        int capacity = capacityOf(tableSize);
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
     }
 
-    public Hash(int indexLength) {
-        elements = new Object[indexLength];
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int nextEntry(int entry) {
+        while (entry < size && keys[entry] == null)
+            entry += 1;
+        return entry;
+    }
+
+    /**
+     * Find position of key in entry arrays.
+     *
+     * @return Entry position, EMPTY if not found.
+     */
+    private int findEntry(Object key, int hash) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == EMPTY)
+                return EMPTY;
+            if (hashes[entry] == hash && key.equals(keys[entry]))
+                return entry;
+        }
     }
 
-    private int getIndex(Object key) {
-        return Math.abs(key.hashCode()) % elements.length;
+    private int findSlot(int entryToFind, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != entryToFind)
+            slot = (slot + 1) & mask;
+        return slot;
     }
 
     public void put(K key, V value) {
-        if (hasKey(key))
+        int hash = hash(key);
+        if (findEntry(key, hash) != EMPTY)
             throw new RuntimeException("Key " + key + " already exists");
 
-        int index = getIndex(key);
-        Bucket<K, V> bucket = new Bucket<>(key, value);
-
-        if (elements[index] == null)
-            elements[index] = new LinkedList<Bucket<K, V>>();
+        insert(key, value, hash);
+    }
 
-        @SuppressWarnings("unchecked")
-        LinkedList<Bucket<K, V>> bucketList = (LinkedList<Bucket<K, V>>) elements[index];
-        bucketList.push(bucket);
-        keys.push(key);
+    private void insert(K key, V value, int hash) {
+        if (size == keys.length)
+            resize();
 
+        int entry = size;
+        keys[entry] = key;
+        values[entry] = value;
+        hashes[entry] = hash;
+        size += 1;
         length += 1;
+
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != EMPTY)
+            slot = (slot + 1) & mask;
+        table[slot] = entry;
     }
 
-    public boolean hasKey(K keyToCheck) {
-        for (K key : keys) {
-            if (key.equals(keyToCheck))
-                return true;
+    /**
+     * Make room for a new entry. Drops removed entries, and doubles table only if live entries need it.
+     */
+    private void resize() {
+        int tableSize = table.length;
+        if (length >= capacityOf(tableSize) >> 1)
+            tableSize <<= 1;
+
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldSize = size;
+        allocate(tableSize);
+
+        int mask = table.length - 1;
+        int entry = 0;
+        for (int i = 0; i < oldSize; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            keys[entry] = oldKeys[i];
+            values[entry] = oldValues[i];
+            hashes[entry] = oldHashes[i];
+
+            int slot = hashes[entry] & mask;
+            while (table[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            table[slot] = entry;
+            entry += 1;
         }
-        return false;
+        size = entry;
     }
 
-    public V get(K key) {
-        int index = getIndex(key);
-
-        @SuppressWarnings("unchecked")
-        LinkedList<Bucket<K, V>> bucketList = (LinkedList<Bucket<K, V>>) elements[index];
+    public boolean hasKey(K keyToCheck) {
+        return findEntry(keyToCheck, hash(keyToCheck)) != EMPTY;
+    }
 
-        if (bucketList == null)
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int entry = findEntry(key, hash(key));
+        if (entry == EMPTY)
             return null;
-        for (Bucket<K, V> bucket : bucketList) {
-            if (bucket.key.equals(key))
-                return bucket.value;
-        }
-
-        return null;
+        return (V) values[entry];
     }
 
+    /**
+     * Change value of key. Put if key doesn't exist.
+     */
     public void set(K key, V value) {
-        int index = getIndex(key);
-
-        @SuppressWarnings("unchecked")
-        LinkedList<Bucket<K, V>> bucketList = (LinkedList<Bucket<K, V>>) elements[index];
-
-        if (bucketList == null) {
-            put(key, value);
+        int hash = hash(key);
+        int entry = findEntry(key, hash);
+        if (entry == EMPTY) {
+            insert(key, value, hash);
             return;
         }
-        for (Bucket<K, V> bucket : bucketList) {
-            if (bucket.key.equals(key)) {
-                bucket.value = value;
-                return;
-            }
-        }
-        throw new RuntimeException("No such key " + key);
+        values[entry] = value;
     }
 
     public void remove(K key) {
-        int index = getIndex(key);
+        int hash = hash(key);
+        int entry = findEntry(key, hash);
+        if (entry == EMPTY)
+            return;
 
-        @SuppressWarnings("unchecked")
-        LinkedList<Bucket<K, V>> bucketList = (LinkedList<Bucket<K, V>>) elements[index];
+        deleteSlot(findSlot(entry, hash));
+        keys[entry] = null;
+        values[entry] = null;
+        length -= 1;
+        while (size > 0 && keys[size - 1] == null)
+            size -= 1;
+    }
 
-        Bucket<K, V> select = null;
-        for (Bucket<K, V> bucket : bucketList) {
-            if (bucket.key.equals(key))
-                select = bucket;
+    /**
+     * Remove slot from probing table, shifting back following entries of the cluster.
+     */
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hashes[table[next]] & mask;
+            // move back if home slot is not in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
         }
-        keys.remove(key);
-        bucketList.remove(select);
-
-        length -= 1;
+        table[hole] = EMPTY;
     }
 
     public void clear() {
-        for (K key : keys) {
-            int index = getIndex(key);
-            elements[index] = null;
-        }
-        keys.clear();
+        allocate(DEFAULT_TABLE_SIZE);
+        size = 0;
         length = 0;
     }
 
@@ -168,8 +352,15 @@ public class Hash<K, V> implements Iterable<V>, Serializable {
         return length;
     }
 
-    public LinkedList<K> getKeys() {
-        return keys;
+    /**
+     * @return Keys in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<K> getKeys() {
+        ArrayList<K> result = new ArrayList<>(length);
+        for (int entry = nextEntry(0); entry < size; entry = nextEntry(entry + 1))
+            result.push((K) keys[entry]);
+        return result;
     }
 
     @Override
@@ -180,16 +371,15 @@ public class Hash<K, V> implements Iterable<V>, Serializable {
         Hash<?, ?> hash = (Hash<?, ?>) o;
 
         if (length != hash.length) return false;
-        
-        if (!keys.equals(hash.keys)) return false;
-
-        for (K key : keys) {
-            int index = this.getIndex(key);
-            Object my = this.elements[index];
-            Object other = hash.elements[index];
-            if ((my != null && other != null && !my.equals(other))
-                    || !(my == null && other == null))
+
+        int mine = nextEntry(0);
+        int other = hash.nextEntry(0);
+        while (mine < size) {
+            if (!keys[mine].equals(hash.keys[other])
+                    || !Objects.equals(values[mine], hash.values[other]))
                 return false;
+            mine = nextEntry(mine + 1);
+            other = hash.nextEntry(other + 1);
         }
 
         return true;
@@ -197,9 +387,75 @@ public class Hash<K, V> implements Iterable<V>, Serializable {
 
     @Override
     public int hashCode() {
-        int result = Arrays.hashCode(elements);
-        result = 31 * result + keys.hashCode();
+        int result = 0;
+        for (int entry = nextEntry(0); entry < size; entry = nextEntry(entry + 1)) {
+            result = 31 * result + keys[entry].hashCode();
+            result = 31 * result + (values[entry] != null ? values[entry].hashCode() : 0);
+        }
         result = 31 * result + length;
         return result;
     }
+
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        ObjectOutputStream.PutField fields = oos.putFields();
+        fields.put("length", length);
+        oos.writeFields();
+        for (int entry = nextEntry(0); entry < size; entry = nextEntry(entry + 1)) {
+            oos.writeObject(keys[entry]);
+            oos.writeObject(values[entry]);
+        }
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = ois.readFields();
+        int readLength = fields.get("length", 0);
+        if (readLength < 0)
+            throw new InvalidObjectException("Negative length " + readLength);
+        allocate(tableSizeFor(readLength));
+
+        Object[] elements = (Object[]) fields.get("elements", null);
+        if (elements != null) {
+            readBuckets(elements, (LinkedList<K>) fields.get("keys", null));
+            return;
+        }
+        for (int i = 0; i < readLength; i++) {
+            K key = (K) ois.readObject();
+            V value = (V) ois.readObject();
+            int hash = hash(key);
+            if (findEntry(key, hash) != EMPTY)
+                throw new InvalidObjectException("Duplicated key " + key);
+            insert(key, value, hash);
+        }
+    }
+
+    /**
+     * Insert entries of chained Hash in order of its keys.
+     *
+     * @param elements Bucket list of each index.
+     * @param oldKeys  Keys in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    private void readBuckets(Object[] elements, LinkedList<K> oldKeys) throws InvalidObjectException {
+        if (oldKeys == null || elements.length == 0)
+            throw new InvalidObjectException("Invalid chained hash");
+        for (K key : oldKeys) {
+            LinkedList<Bucket<K, V>> bucketList = (LinkedList<Bucket<K, V>>) elements[Math.abs(key.hashCode()) % elements.length];
+            Bucket<K, V> found = null;
+            if (bucketList != null) {
+                for (Bucket<K, V> bucket : bucketList) {
+                    if (bucket.key.equals(key)) {
+                        found = bucket;
+                        break;
+                    }
+                }
+            }
+            int hash = hash(key);
+            if (found == null || findEntry(key, hash) != EMPTY)
+                throw new InvalidObjectException("Invalid entry of key " + key);
+            insert(key, found.value, hash);
+        }
+    }
 }
@@ -1,32 +1,44 @@
 package com.schedulemaster.misc;
 
-import java.io.Serializable;
+import java.io.*;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.function.Function;
-
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Binary heap. Serialized form holds comparator and elements only, so comparator should be serializable.
+ *
+ * @param <E> Type of element.
+ */
 public class Heap<E> implements Iterable<E>, Serializable {
-    public static final long serialVersionUID = 11L;
+    public static final long serialVersionUID = 12L;
 
-    private static final int DEFAULT_SIZE = 10240;
+    private static final int DEFAULT_SIZE = 16;
     private static final int ROOT_INDEX = 1;
 
-    private final Object[] elements;
-    private int lastIndex = 0;
+    private transient Object[] elements;
+    private transient int lastIndex = 0;
     private final Comparator<E> comparator;
-    private TreeIterator iterator;
-    private final InorderIterator inorder = new InorderIterator();
-    private final PreorderIterator preorder = new PreorderIterator();
-    private final PostorderIterator postorder = new PostorderIterator();
+    private transient TreeIterator iterator;
+    private transient InorderIterator inorder = new InorderIterator();
+    private transient PreorderIterator preorder = new PreorderIterator();
+    private transient PostorderIterator postorder = new PostorderIterator();
 
 
     public Heap(Comparator<E> comparator) {
-        elements = new Object[DEFAULT_SIZE];
-        this.comparator = comparator;
-        iterator = inorder;
+        this(comparator, DEFAULT_SIZE);
     }
 
+    /**
+     * @param comparator Comparator of heap.
+     * @param size       Initial capacity. Heap grows when it is full.
+     */
     public Heap(Comparator<E> comparator, int size) {
-        elements = new Object[size];
+        elements = new Object[Math.max(size, 1) + ROOT_INDEX];
         this.comparator = comparator;
         iterator = inorder;
     }
@@ -36,8 +48,8 @@ public class Heap<E> implements Iterable<E>, Serializable {
     }
 
     public void insert(E data) {
-        if (lastIndex >= elements.length)
-            throw new RuntimeException("Tree is full");
+        if (lastIndex + 1 >= elements.length)
+            elements = Arrays.copyOf(elements, elements.length * 2);
         lastIndex += 1;
         elements[lastIndex] = data;
 
@@ -46,37 +58,42 @@ public class Heap<E> implements Iterable<E>, Serializable {
 
     @SuppressWarnings("unchecked")
     private void ensureInsertion(int index) {
-        int parentIndex = getParentNode(index);
-
-        if (parentIndex < ROOT_INDEX)
-            return;
-
-        if (comparator.compare((E) elements[index], (E) elements[parentIndex])) {
-            swap(index, parentIndex);
-            ensureInsertion(parentIndex);
+        E data = (E) elements[index];
+        while (index > ROOT_INDEX) {
+            int parentIndex = getParentNode(index);
+            if (!comparator.compare(data, (E) elements[parentIndex]))
+                break;
+            elements[index] = elements[parentIndex];
+            index = parentIndex;
         }
+        elements[index] = data;
     }
 
     public E pop() {
+        if (isEmpty())
+            return null;
         E value = top();
         elements[ROOT_INDEX] = elements[lastIndex];
+        elements[lastIndex] = null;
         lastIndex -= 1;
 
-        ensureDeletion(ROOT_INDEX);
+        if (!isEmpty())
+            ensureDeletion(ROOT_INDEX);
 
         return value;
     }
 
     @SuppressWarnings("unchecked")
     private void ensureDeletion(int index) {
-        if (getLeftNode(index) > lastIndex)
-            return;
-        int childIndex = getComparedChildIndex(index);
-
-        if (!comparator.compare((E) elements[index], (E) elements[childIndex])) {
-            swap(index, childIndex);
-            ensureDeletion(childIndex);
+        E data = (E) elements[index];
+        while (getLeftNode(index) <= lastIndex) {
+            int childIndex = getComparedChildIndex(index);
+            if (comparator.compare(data, (E) elements[childIndex]))
+                break;
+            elements[index] = elements[childIndex];
+            index = childIndex;
         }
+        elements[index] = data;
     }
 
     @SuppressWarnings("unchecked")
@@ -84,7 +101,7 @@ public class Heap<E> implements Iterable<E>, Serializable {
         int leftIndex = getLeftNode(index);
         int rightIndex = getRightNode(index);
 
-        if (comparator.compare((E) elements[leftIndex], (E) elements[rightIndex]))
+        if (rightIndex > lastIndex || comparator.compare((E) elements[leftIndex], (E) elements[rightIndex]))
             return leftIndex;
         return rightIndex;
     }
@@ -103,7 +120,7 @@ public class Heap<E> implements Iterable<E>, Serializable {
     }
 
     public int getLength() {
-        return lastIndex - 1;
+        return lastIndex;
     }
 
     protected int getParentNode(int index) {
@@ -140,6 +157,97 @@ public class Heap<E> implements Iterable<E>, Serializable {
         return iterator;
     }
 
+    /**
+     * Splits heap array by position. Heap array has no meaningful order, so it is not ORDERED.
+     */
+    private class HeapSpliterator implements Spliterator<E> {
+        private int index;
+        private final int fence;
+
+        public HeapSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (index >= fence)
+                return false;
+            action.accept((E) elements[index++]);
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super E> action) {
+            for (int i = index; i < fence; i++)
+                action.accept((E) elements[i]);
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (middle <= index)
+                return null;
+            Spliterator<E> prefix = new HeapSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return SIZED | SUBSIZED;
+        }
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return new HeapSpliterator(ROOT_INDEX, lastIndex + 1);
+    }
+
+    /**
+     * @return Stream of elements in no particular order.
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        oos.defaultWriteObject();
+        oos.writeInt(lastIndex);
+        for (int i = ROOT_INDEX; i <= lastIndex; i++)
+            oos.writeObject(elements[i]);
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        int readLength = ois.readInt();
+        if (readLength < 0)
+            throw new InvalidObjectException("Negative length " + readLength);
+        elements = new Object[Math.max(readLength, DEFAULT_SIZE) + ROOT_INDEX];
+        for (int i = ROOT_INDEX; i <= readLength; i++)
+            elements[i] = ois.readObject();
+        lastIndex = readLength;
+
+        inorder = new InorderIterator();
+        preorder = new PreorderIterator();
+        postorder = new PostorderIterator();
+        iterator = inorder;
+    }
+
     private abstract class TreeIterator implements Iterator<E> {
         protected int current = 0;
         protected int[] order;
@@ -201,19 +309,19 @@ public class Heap<E> implements Iterable<E>, Serializable {
      */
 
     @FunctionalInterface
-    public interface Comparator<E> {
+    public interface Comparator<E> extends Serializable {
         /** *
          *
          * @return If returns true, param a will be root, or b will be root
          */
         boolean compare(E a, E b);
 
-        static <E> Comparator<E> maxHeapInt(Function<E, Integer> function) {
-            return (a, b) -> function.apply(a) > function.apply(b);
+        static <E> Comparator<E> maxHeapInt(ToIntFunction<E> function) {
+            return (a, b) -> function.applyAsInt(a) > function.applyAsInt(b);
         }
 
-        static <E> Comparator<E> minHeapInt(Function<E, Integer> function) {
-            return (a, b) -> function.apply(a) < function.apply(b);
+        static <E> Comparator<E> minHeapInt(ToIntFunction<E> function) {
+            return (a, b) -> function.applyAsInt(a) < function.applyAsInt(b);
         }
     }
 }
@@ -1,5 +1,7 @@
 package com.schedulemaster.misc;
 
+import java.util.function.ToIntFunction;
+
 /**
  * Provide Index using hash table. Index saves lists of tuples that matches with a specific attribute value.
  *
@@ -24,7 +26,7 @@ public class Index<Attribute, Tuple> {
         Attribute getAttribute(Tuple tuple);
     }
 
-    private final Hash<Attribute, LinkedList<Tuple>> index = new Hash<>();
+    private final Hash<Attribute, ArrayList<Tuple>> index = new Hash<>();
     private final AttributeSelector<Attribute, Tuple> selector;
 
     /**
@@ -33,14 +35,24 @@ public class Index<Attribute, Tuple> {
      * @param table             List of tuples.
      * @param attributeSelector Chooser for tuple's attribute.
      */
-    public Index(LinkedList<Tuple> table, AttributeSelector<Attribute, Tuple> attributeSelector) {
+    public Index(ArrayList<Tuple> table, AttributeSelector<Attribute, Tuple> attributeSelector) {
         this.selector = attributeSelector;
         for (Tuple tuple : table) {
             add(tuple);
         }
     }
 
-    public LinkedList<Attribute> getAttributes() {
+    /**
+     * Get attribute of a tuple using selector of this index.
+     *
+     * @param tuple A tuple to select attribute.
+     * @return Selected attribute.
+     */
+    public Attribute getAttribute(Tuple tuple) {
+        return selector.getAttribute(tuple);
+    }
+
+    public ArrayList<Attribute> getAttributes() {
         return index.getKeys();
     }
 
@@ -50,7 +62,7 @@ public class Index<Attribute, Tuple> {
      * @param attribute Attribute value to search.
      * @return List of tuples.
      */
-    public LinkedList<Tuple> get(Attribute attribute) {
+    public ArrayList<Tuple> get(Attribute attribute) {
         return index.get(attribute);
     }
 
@@ -60,14 +72,27 @@ public class Index<Attribute, Tuple> {
      * @param tuple New tuple.
      */
     public void add(Tuple tuple) {
+        tuplesOf(tuple).push(tuple);
+    }
+
+    /**
+     * Add a tuple at its place in order, instead of the end of list, when tuples were added in that order.
+     *
+     * @param tuple New tuple.
+     * @param order Order of tuple (ex. position in table).
+     */
+    public void add(Tuple tuple, ToIntFunction<Tuple> order) {
+        tuplesOf(tuple).insertInOrder(tuple, order);
+    }
+
+    private ArrayList<Tuple> tuplesOf(Tuple tuple) {
         Attribute attributeValue = selector.getAttribute(tuple);
-        LinkedList<Tuple> tuples = index.get(attributeValue);
+        ArrayList<Tuple> tuples = index.get(attributeValue);
         if (tuples == null) {
-            tuples = new LinkedList<>();
+            tuples = new ArrayList<>();
             index.put(attributeValue, tuples);
         }
-
-        tuples.push(tuple);
+        return tuples;
     }
 
     /**
@@ -75,7 +100,7 @@ public class Index<Attribute, Tuple> {
      *
      * @param table New table.
      */
-    public void changeTable(LinkedList<Tuple> table) {
+    public void changeTable(ArrayList<Tuple> table) {
         clear();
         for (Tuple tuple : table) {
             add(tuple);
@@ -89,7 +114,7 @@ public class Index<Attribute, Tuple> {
      */
     public void remove(Tuple tuple) {
         Attribute attributeValue = selector.getAttribute(tuple);
-        LinkedList<Tuple> tuples = index.get(attributeValue);
+        ArrayList<Tuple> tuples = index.get(attributeValue);
         if (tuples == null)
             return;
 
@@ -0,0 +1,283 @@
+package com.schedulemaster.misc;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Indexed d-ary heap with int priorities. Each element can be in heap only once,
+ * so priority of an element in heap can be changed or element can be removed without rebuilding heap.
+ * Priorities are compared as primitive int, and sift operations are iterative.
+ *
+ * @param <E> Type of element.
+ */
+public class IntHeap<E> implements Iterable<E> {
+    public static final int DEFAULT_ARITY = 4;
+    private static final int DEFAULT_SIZE = 8;
+
+    private final int arity;
+    private final boolean maxHeap;
+
+    private Object[] elements;
+    private int[] priorities;
+    private int length = 0;
+    // element -> index in heap arrays
+    private final ObjectIntHash<E> positions = new ObjectIntHash<>();
+
+    /**
+     * Create 4-ary heap.
+     *
+     * @param maxHeap If true, element with the highest priority will be top, or the lowest.
+     */
+    public IntHeap(boolean maxHeap) {
+        this(DEFAULT_ARITY, maxHeap);
+    }
+
+    /**
+     * @param arity   Number of children of a node.
+     * @param maxHeap If true, element with the highest priority will be top, or the lowest.
+     */
+    public IntHeap(int arity, boolean maxHeap) {
+        if (arity < 2)
+            throw new IllegalArgumentException("Invalid value; arity is " + arity);
+        this.arity = arity;
+        this.maxHeap = maxHeap;
+        elements = new Object[DEFAULT_SIZE];
+        priorities = new int[DEFAULT_SIZE];
+    }
+
+    /**
+     * Create heap from elements at once, in O(n).
+     *
+     * @param source   Elements.
+     * @param priority Priority of each element.
+     * @param maxHeap  If true, element with the highest priority will be top, or the lowest.
+     * @param <E>      Type of element.
+     * @return New heap.
+     */
+    public static <E> IntHeap<E> heapify(Iterable<E> source, ToIntFunction<E> priority, boolean maxHeap) {
+        IntHeap<E> heap = new IntHeap<>(maxHeap);
+        for (E element : source) {
+            if (heap.positions.hasKey(element))
+                throw new RuntimeException("Element " + element + " already exists");
+            heap.append(element, priority.applyAsInt(element));
+        }
+        if (heap.length > 1) {
+            for (int index = heap.getParent(heap.length - 1); index >= 0; index--)
+                heap.siftDown(index);
+        }
+
+        return heap;
+    }
+
+    private void append(E element, int priority) {
+        if (length == elements.length) {
+            elements = Arrays.copyOf(elements, length * 2);
+            priorities = Arrays.copyOf(priorities, length * 2);
+        }
+        elements[length] = element;
+        priorities[length] = priority;
+        positions.put(element, length);
+        length += 1;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean has(E element) {
+        return positions.hasKey(element);
+    }
+
+    public void insert(E element, int priority) {
+        if (positions.hasKey(element))
+            throw new RuntimeException("Element " + element + " already exists");
+        append(element, priority);
+        siftUp(length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E top() {
+        if (isEmpty())
+            return null;
+        return (E) elements[0];
+    }
+
+    public int topPriority() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return priorities[0];
+    }
+
+    public E pop() {
+        if (isEmpty())
+            return null;
+        E value = top();
+        removeAt(0);
+
+        return value;
+    }
+
+    public int getPriority(E element) {
+        int index = positions.getOrDefault(element, -1);
+        if (index < 0)
+            throw new NoSuchElementException("No such element " + element);
+        return priorities[index];
+    }
+
+    /**
+     * Change priority of element in heap. Works for both increase and decrease.
+     *
+     * @param element  Element in heap.
+     * @param priority New priority.
+     */
+    public void updatePriority(E element, int priority) {
+        int index = positions.getOrDefault(element, -1);
+        if (index < 0)
+            throw new NoSuchElementException("No such element " + element);
+        int old = priorities[index];
+        priorities[index] = priority;
+        if (before(priority, old))
+            siftUp(index);
+        else
+            siftDown(index);
+    }
+
+    public void remove(E element) {
+        int index = positions.getOrDefault(element, -1);
+        if (index < 0)
+            return;
+        removeAt(index);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeAt(int index) {
+        positions.remove((E) elements[index]);
+        length -= 1;
+        if (index == length) {
+            elements[length] = null;
+            return;
+        }
+
+        elements[index] = elements[length];
+        priorities[index] = priorities[length];
+        elements[length] = null;
+        positions.set((E) elements[index], index);
+
+        siftDown(index);
+        siftUp(index);
+    }
+
+    public void clear() {
+        Arrays.fill(elements, 0, length, null);
+        positions.clear();
+        length = 0;
+    }
+
+    /**
+     * Get elements in priority order without changing heap.
+     *
+     * @return Elements, top first.
+     */
+    public ArrayList<E> toSortedList() {
+        IntHeap<E> copy = new IntHeap<>(arity, maxHeap);
+        copy.elements = Arrays.copyOf(elements, Math.max(length, 1));
+        copy.priorities = Arrays.copyOf(priorities, Math.max(length, 1));
+        copy.length = length;
+        for (int i = 0; i < length; i++)
+            copy.positions.put(copy.element(i), i);
+
+        ArrayList<E> result = new ArrayList<>(length);
+        while (!copy.isEmpty())
+            result.push(copy.pop());
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E element(int index) {
+        return (E) elements[index];
+    }
+
+    // true if priority a should be placed above priority b
+    private boolean before(int a, int b) {
+        return maxHeap ? a > b : a < b;
+    }
+
+    private int getParent(int index) {
+        return (index - 1) / arity;
+    }
+
+    private void siftUp(int index) {
+        Object element = elements[index];
+        int priority = priorities[index];
+        while (index > 0) {
+            int parent = getParent(index);
+            if (!before(priority, priorities[parent]))
+                break;
+            move(parent, index);
+            index = parent;
+        }
+        place(element, priority, index);
+    }
+
+    private void siftDown(int index) {
+        Object element = elements[index];
+        int priority = priorities[index];
+        while (true) {
+            int firstChild = index * arity + 1;
+            if (firstChild >= length)
+                break;
+            int lastChild = Math.min(firstChild + arity, length);
+            int best = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (before(priorities[child], priorities[best]))
+                    best = child;
+            }
+            if (!before(priorities[best], priority))
+                break;
+            move(best, index);
+            index = best;
+        }
+        place(element, priority, index);
+    }
+
+    private void move(int from, int to) {
+        elements[to] = elements[from];
+        priorities[to] = priorities[from];
+        positions.set(element(to), to);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void place(Object element, int priority, int index) {
+        elements[index] = element;
+        priorities[index] = priority;
+        positions.set((E) element, index);
+    }
+
+    /**
+     * @return Iterator of elements in heap array order, not priority order.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < length;
+            }
+
+            @Override
+            public E next() {
+                if (index >= length)
+                    throw new NoSuchElementException();
+                return element(index++);
+            }
+        };
+    }
+}
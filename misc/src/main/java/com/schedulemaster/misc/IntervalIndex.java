@@ -0,0 +1,405 @@
+package com.schedulemaster.misc;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Provide index of half open int intervals [start, end), able to find tuples overlapping or lying within given ranges.
+ * Intervals are sorted by start, and the sorted array is used as an implicit balanced tree
+ * where each node keeps the largest end of its subtree, so overlap query takes O(log n + k).
+ * A tuple can have several intervals (ex. time of each day). Id of tuple is its position in table.
+ *
+ * @param <Tuple> Type of tuple (class).
+ */
+public class IntervalIndex<Tuple> {
+    /**
+     * Interface able to get intervals from tuple.
+     *
+     * @param <Tuple> Type of tuple (class).
+     */
+    public interface IntervalSelector<Tuple> {
+        /**
+         * Get intervals from tuple.
+         *
+         * @param tuple A tuple to select intervals.
+         * @return Intervals as {start0, end0, start1, end1, ...}, each of [start, end). May be empty.
+         */
+        int[] getIntervals(Tuple tuple);
+    }
+
+    private static final int[] EMPTY = new int[0];
+
+    private final IntervalSelector<Tuple> selector;
+    private ArrayList<Tuple> table;
+
+    // intervals sorted by start
+    private int length = 0;
+    private int[] starts = EMPTY;
+    private int[] ends = EMPTY;
+    private int[] ids = EMPTY;
+    // largest end in subtree whose root is the middle of the range
+    private int[] maxEnds = EMPTY;
+    // id -> number of intervals of tuple
+    private int[] intervalCounts = EMPTY;
+    private int maxLength = 0;
+
+    /**
+     * Initialize with list of tuples (table) and intervalSelector.
+     *
+     * @param table            List of tuples.
+     * @param intervalSelector Chooser for tuple's intervals.
+     */
+    public IntervalIndex(ArrayList<Tuple> table, IntervalSelector<Tuple> intervalSelector) {
+        this.selector = intervalSelector;
+        changeTable(table);
+    }
+
+    /**
+     * Change entire table.
+     *
+     * @param table New table.
+     */
+    public void changeTable(ArrayList<Tuple> table) {
+        this.table = table;
+        intervalCounts = new int[table.getLength()];
+        int[][] selected = new int[table.getLength()][];
+        length = 0;
+        for (int id = 0; id < table.getLength(); id++) {
+            selected[id] = selector.getIntervals(table.at(id));
+            if (selected[id].length % 2 != 0)
+                throw new RuntimeException("Odd number of interval bounds; " + selected[id].length);
+            intervalCounts[id] = selected[id].length / 2;
+            length += intervalCounts[id];
+        }
+
+        long[] sorted = new long[length];
+        int[] unsortedEnds = new int[length];
+        int[] unsortedIds = new int[length];
+        int i = 0;
+        for (int id = 0; id < selected.length; id++) {
+            for (int j = 0; j < selected[id].length; j += 2) {
+                sorted[i] = sortKey(selected[id][j], i);
+                unsortedEnds[i] = selected[id][j + 1];
+                unsortedIds[i] = id;
+                i += 1;
+            }
+        }
+        Arrays.sort(sorted);
+
+        starts = new int[length];
+        ends = new int[length];
+        ids = new int[length];
+        for (i = 0; i < length; i++) {
+            int from = (int) sorted[i];
+            starts[i] = startOf(sorted[i]);
+            ends[i] = unsortedEnds[from];
+            ids[i] = unsortedIds[from];
+        }
+        maxLength = 0;
+        for (i = 0; i < length; i++)
+            maxLength = Math.max(maxLength, ends[i] - starts[i]);
+        maxEnds = new int[length];
+        buildMaxEnds(0, length);
+    }
+
+    /**
+     * Select intervals again for tuples of ids, after they changed in place in table.
+     * Other intervals are kept sorted, and new ones are merged into them in one pass, without sorting entire table.
+     *
+     * @param changedIds Ids of changed tuples, which are positions in table.
+     */
+    public void update(int[] changedIds) {
+        BitSet changed = new BitSet(table.getLength());
+        int removed = 0;
+        int added = 0;
+        int[][] selected = new int[changedIds.length][];
+        for (int i = 0; i < changedIds.length; i++) {
+            int id = changedIds[i];
+            if (changed.get(id))
+                continue;
+            changed.set(id);
+            selected[i] = selector.getIntervals(table.at(id));
+            if (selected[i].length % 2 != 0)
+                throw new RuntimeException("Odd number of interval bounds; " + selected[i].length);
+            removed += intervalCounts[id];
+            intervalCounts[id] = selected[i].length / 2;
+            added += intervalCounts[id];
+        }
+
+        long[] sorted = new long[added];
+        int[] addedEnds = new int[added];
+        int[] addedIds = new int[added];
+        int n = 0;
+        for (int i = 0; i < changedIds.length; i++) {
+            if (selected[i] == null)
+                continue;
+            for (int j = 0; j < selected[i].length; j += 2) {
+                sorted[n] = sortKey(selected[i][j], n);
+                addedEnds[n] = selected[i][j + 1];
+                addedIds[n] = changedIds[i];
+                n += 1;
+            }
+        }
+        Arrays.sort(sorted);
+
+        int newLength = length - removed + added;
+        int[] newStarts = new int[newLength];
+        int[] newEnds = new int[newLength];
+        int[] newIds = new int[newLength];
+        int k = 0;
+        int j = 0;
+        for (int i = 0; i <= length; i++) {
+            // intervals of changed tuples are dropped from old ones
+            if (i < length && changed.get(ids[i]))
+                continue;
+            for (; j < added; j++) {
+                int start = startOf(sorted[j]);
+                if (i < length && start > starts[i])
+                    break;
+                int from = (int) sorted[j];
+                newStarts[k] = start;
+                newEnds[k] = addedEnds[from];
+                newIds[k++] = addedIds[from];
+            }
+            if (i < length) {
+                newStarts[k] = starts[i];
+                newEnds[k] = ends[i];
+                newIds[k++] = ids[i];
+            }
+        }
+
+        length = newLength;
+        starts = newStarts;
+        ends = newEnds;
+        ids = newIds;
+        maxLength = 0;
+        for (int i = 0; i < length; i++)
+            maxLength = Math.max(maxLength, ends[i] - starts[i]);
+        maxEnds = new int[length];
+        buildMaxEnds(0, length);
+    }
+
+    // start in high bits keeps signed order of starts, position in low bits is not negative
+    private static long sortKey(int start, int position) {
+        return (long) start << 32 | position;
+    }
+
+    private static int startOf(long sortKey) {
+        return (int) (sortKey >> 32);
+    }
+
+    private int buildMaxEnds(int from, int to) {
+        if (from >= to)
+            return Integer.MIN_VALUE;
+        int middle = (from + to) >>> 1;
+        int max = Math.max(ends[middle], Math.max(buildMaxEnds(from, middle), buildMaxEnds(middle + 1, to)));
+        maxEnds[middle] = max;
+        return max;
+    }
+
+    private static class IntBuffer {
+        int[] values = new int[8];
+        int length = 0;
+
+        void push(int value) {
+            if (length == values.length)
+                values = Arrays.copyOf(values, length * 2);
+            values[length++] = value;
+        }
+
+        int[] toSortedDistinct() {
+            Arrays.sort(values, 0, length);
+            int distinct = 0;
+            for (int i = 0; i < length; i++) {
+                if (distinct == 0 || values[distinct - 1] != values[i])
+                    values[distinct++] = values[i];
+            }
+            return Arrays.copyOf(values, distinct);
+        }
+    }
+
+    private void collectOverlapping(int from, int to, int queryStart, int queryEnd, IntBuffer result) {
+        if (from >= to)
+            return;
+        int middle = (from + to) >>> 1;
+        if (maxEnds[middle] <= queryStart)
+            return;
+        collectOverlapping(from, middle, queryStart, queryEnd, result);
+        // middle and right subtree start at or after queryEnd
+        if (starts[middle] >= queryEnd)
+            return;
+        if (ends[middle] > queryStart)
+            result.push(ids[middle]);
+        collectOverlapping(middle + 1, to, queryStart, queryEnd, result);
+    }
+
+    private static void checkRanges(int[] ranges) {
+        if (ranges.length % 2 != 0)
+            throw new RuntimeException("Odd number of range bounds; " + ranges.length);
+    }
+
+    /**
+     * Find tuples having an interval overlapping any of ranges.
+     *
+     * @param ranges Ranges as {start0, end0, start1, end1, ...}, each of [start, end).
+     * @return Sorted ids of matching tuples.
+     */
+    public int[] overlappingIds(int[] ranges) {
+        checkRanges(ranges);
+        IntBuffer result = new IntBuffer();
+        for (int i = 0; i < ranges.length; i += 2)
+            collectOverlapping(0, length, ranges[i], ranges[i + 1], result);
+        return result.toSortedDistinct();
+    }
+
+    /**
+     * Estimate number of tuples overlapping ranges in O(log n), without visiting them.
+     * Overlapping interval starts in [start - longest interval, end), so those are counted.
+     *
+     * @return Upper bound of number of matching tuples.
+     */
+    public int estimateOverlapping(int[] ranges) {
+        checkRanges(ranges);
+        long result = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            result += lowerBound(ranges[i + 1]) - lowerBound((int) Math.max(Integer.MIN_VALUE, (long) ranges[i] - maxLength));
+        }
+        return (int) Math.min(result, table.getLength());
+    }
+
+    /**
+     * Check a single tuple without using index.
+     *
+     * @return True if tuple has an interval overlapping any of ranges.
+     */
+    public boolean overlaps(Tuple tuple, int[] ranges) {
+        int[] intervals = selector.getIntervals(tuple);
+        for (int i = 0; i < intervals.length; i += 2) {
+            for (int r = 0; r < ranges.length; r += 2) {
+                if (intervals[i] < ranges[r + 1] && ranges[r] < intervals[i + 1])
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find tuples whose every interval lies within the union of ranges. Tuples without interval are not included.
+     * Takes O(log n + number of intervals starting in ranges) for each range.
+     *
+     * @param ranges Ranges as {start0, end0, start1, end1, ...}, each of [start, end).
+     * @return Sorted ids of matching tuples.
+     */
+    public int[] withinIds(int[] ranges) {
+        checkRanges(ranges);
+        int[] merged = mergeRanges(ranges);
+        IntBuffer contained = new IntBuffer();
+        for (int r = 0; r < merged.length; r += 2) {
+            for (int i = lowerBound(merged[r]); i < length && starts[i] < merged[r + 1]; i++) {
+                if (ends[i] <= merged[r + 1])
+                    contained.push(ids[i]);
+            }
+        }
+
+        // tuple matches if all of its intervals were contained
+        int[] values = contained.values;
+        Arrays.sort(values, 0, contained.length);
+        int resultLength = 0;
+        for (int i = 0; i < contained.length; ) {
+            int id = values[i];
+            int j = i;
+            while (j < contained.length && values[j] == id)
+                j += 1;
+            if (j - i == intervalCounts[id])
+                values[resultLength++] = id;
+            i = j;
+        }
+        return Arrays.copyOf(values, resultLength);
+    }
+
+    // sorted and joined ranges, so an interval over two adjacent ranges is contained
+    private static int[] mergeRanges(int[] ranges) {
+        int count = ranges.length / 2;
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++)
+            sorted[i] = sortKey(ranges[i * 2], i);
+        Arrays.sort(sorted);
+
+        int[] result = new int[ranges.length];
+        int resultLength = 0;
+        for (long key : sorted) {
+            int i = (int) key;
+            int start = ranges[i * 2];
+            int end = ranges[i * 2 + 1];
+            if (start >= end)
+                continue;
+            if (resultLength > 0 && start <= result[resultLength - 1]) {
+                result[resultLength - 1] = Math.max(result[resultLength - 1], end);
+            } else {
+                result[resultLength++] = start;
+                result[resultLength++] = end;
+            }
+        }
+        return Arrays.copyOf(result, resultLength);
+    }
+
+    // first position whose start is not less than key
+    private int lowerBound(int key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] < key)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private ArrayList<Tuple> toTuples(int[] ids) {
+        ArrayList<Tuple> result = new ArrayList<>(ids.length);
+        for (int id : ids)
+            result.push(table.at(id));
+        return result;
+    }
+
+    /**
+     * Find tuples having an interval overlapping [from, to).
+     *
+     * @return Matching tuples in order of table.
+     */
+    public ArrayList<Tuple> findOverlapping(int from, int to) {
+        return toTuples(overlappingIds(new int[]{from, to}));
+    }
+
+    /**
+     * @return Tuples having an interval overlapping any of ranges, in order of table.
+     * @see #overlappingIds(int[])
+     */
+    public ArrayList<Tuple> findOverlapping(int[] ranges) {
+        return toTuples(overlappingIds(ranges));
+    }
+
+    /**
+     * @return Tuples whose every interval lies within ranges, in order of table.
+     * @see #withinIds(int[])
+     */
+    public ArrayList<Tuple> findWithin(int[] ranges) {
+        return toTuples(withinIds(ranges));
+    }
+
+    /**
+     * @return Number of intervals.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Clear all indexed tuples.
+     */
+    public void clear() {
+        changeTable(new ArrayList<>());
+    }
+}
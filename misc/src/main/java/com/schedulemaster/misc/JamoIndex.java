@@ -0,0 +1,148 @@
+package com.schedulemaster.misc;
+
+import com.schedulemaster.util.Hangul;
+
+/**
+ * Provide Korean aware substring search. Attribute of each tuple is decomposed once into jamo text
+ * and chosung text, and each of them is kept in NGramIndex.
+ * Chosung only query ("ㅈㄹㄱㅈ") searches chosung text, other queries search jamo text,
+ * so syllable being typed ("잘" while typing "자료") still matches.
+ *
+ * @param <Tuple> Type of tuple (class).
+ */
+public class JamoIndex<Tuple> {
+    private record Decomposed(String jamo, String chosung) {
+    }
+
+    private final Index.AttributeSelector<String, Tuple> selector;
+    // attribute value -> decomposed text. kept across changeTable, so only new values are decomposed.
+    private Hash<String, Decomposed> decomposed = new Hash<>();
+    private Hash<String, Decomposed> previous = null;
+
+    private final NGramIndex<Tuple> jamoIndex;
+    private final NGramIndex<Tuple> chosungIndex;
+
+    /**
+     * Initialize with list of tuples (table) and attributeSelector.
+     *
+     * @param table             List of tuples.
+     * @param attributeSelector Chooser for tuple's text attribute.
+     */
+    public JamoIndex(ArrayList<Tuple> table, Index.AttributeSelector<String, Tuple> attributeSelector) {
+        this.selector = attributeSelector;
+        jamoIndex = new NGramIndex<>(table, tuple -> decompose(tuple).jamo());
+        chosungIndex = new NGramIndex<>(table, tuple -> decompose(tuple).chosung());
+    }
+
+    private Decomposed decompose(Tuple tuple) {
+        String text = selector.getAttribute(tuple);
+        if (text == null)
+            text = "";
+        Decomposed result = decomposed.get(text);
+        if (result != null)
+            return result;
+
+        if (previous != null)
+            result = previous.get(text);
+        if (result == null)
+            result = new Decomposed(Hangul.decompose(text), Hangul.chosung(text));
+        decomposed.put(text, result);
+        return result;
+    }
+
+    /**
+     * Add a new tuple for indexing.
+     *
+     * @param tuple New tuple.
+     */
+    public void add(Tuple tuple) {
+        jamoIndex.add(tuple);
+        chosungIndex.add(tuple);
+    }
+
+    /**
+     * Index tuple again with its id kept, after its attribute changed. Only the new value is decomposed.
+     *
+     * @param id    Id of tuple, which is its position in table.
+     * @param tuple Changed tuple.
+     * @see NGramIndex#update(int, Object)
+     */
+    public void update(int id, Tuple tuple) {
+        jamoIndex.update(id, tuple);
+        chosungIndex.update(id, tuple);
+    }
+
+    /**
+     * Remove tuple from index.
+     *
+     * @param tuple Tuple to remove.
+     */
+    public void remove(Tuple tuple) {
+        jamoIndex.remove(tuple);
+        chosungIndex.remove(tuple);
+    }
+
+    /**
+     * Find tuples whose attribute matches query by jamo, or by chosung if query has only consonants.
+     *
+     * @param query Text to search.
+     * @return Matching tuples in order of addition.
+     */
+    public ArrayList<Tuple> search(String query) {
+        if (Hangul.isChosungOnly(query))
+            return chosungIndex.search(query);
+        return jamoIndex.search(Hangul.decompose(query));
+    }
+
+    /**
+     * @return Sorted ids of matching tuples. Id is position in table.
+     */
+    public int[] searchIds(String query) {
+        if (Hangul.isChosungOnly(query))
+            return chosungIndex.searchIds(query);
+        return jamoIndex.searchIds(Hangul.decompose(query));
+    }
+
+    /**
+     * @return Upper bound of number of tuples matching query.
+     * @see NGramIndex#estimate(String)
+     */
+    public int estimate(String query) {
+        if (Hangul.isChosungOnly(query))
+            return chosungIndex.estimate(query);
+        return jamoIndex.estimate(Hangul.decompose(query));
+    }
+
+    /**
+     * Check a single tuple without using index.
+     *
+     * @return True if attribute of tuple matches query as search does.
+     */
+    public boolean matches(Tuple tuple, String query) {
+        if (Hangul.isChosungOnly(query))
+            return chosungIndex.matches(tuple, query);
+        return jamoIndex.matches(tuple, Hangul.decompose(query));
+    }
+
+    /**
+     * Change entire table. Decomposition of attribute values seen before is reused.
+     *
+     * @param table New table.
+     */
+    public void changeTable(ArrayList<Tuple> table) {
+        previous = decomposed;
+        decomposed = new Hash<>(table.getLength());
+        jamoIndex.changeTable(table);
+        chosungIndex.changeTable(table);
+        previous = null;
+    }
+
+    /**
+     * Clear all indexed tuples.
+     */
+    public void clear() {
+        jamoIndex.clear();
+        chosungIndex.clear();
+        decomposed.clear();
+    }
+}
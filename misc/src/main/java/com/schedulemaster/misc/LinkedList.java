@@ -3,6 +3,10 @@ package com.schedulemaster.misc;
 import java.io.*;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class LinkedList<E> implements Iterable<E>, Serializable {
     public static final long serialVersionUID = 12L;
@@ -27,6 +31,22 @@ public class LinkedList<E> implements Iterable<E>, Serializable {
         return new LinkedListIterator();
     }
 
+    /**
+     * Nodes can't be split by index, so splits are copied out in growing batches.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), length, Spliterator.ORDERED);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     private static class Node<E> implements Serializable {
         public E data;
         public Node<E> next;
@@ -37,32 +57,24 @@ public class LinkedList<E> implements Iterable<E>, Serializable {
         }
     }
 
-    private Node<E> head;
+    private transient Node<E> head;
+    private transient Node<E> tail;
 
-    private int length = 0;
+    private transient int length = 0;
 
     public LinkedList() {
         head = new Node<>(null, null);
+        tail = head;
     }
 
     public boolean isEmpty() {
         return head.next == null;
     }
 
-    private Node<E> getLastNode() {
-        Node<E> curr = head;
-        while (curr.next != null) {
-            curr = curr.next;
-        }
-
-        return curr;
-    }
-
     // push data to tail
     public void push(E data) {
-        Node<E> prev = getLastNode();
-
-        prev.next = new Node<>(data, null);
+        tail.next = new Node<>(data, null);
+        tail = tail.next;
         length += 1;
     }
 
@@ -80,10 +92,12 @@ public class LinkedList<E> implements Iterable<E>, Serializable {
             if (curr.data.equals(data)) {
                 prev.next = curr.next;
                 length -= 1;
+            } else {
+                prev = curr;
             }
-            prev = curr;
             curr = curr.next;
         }
+        tail = prev;
     }
 
     // start with 0
@@ -111,6 +125,7 @@ public class LinkedList<E> implements Iterable<E>, Serializable {
     public void clear() {
         length = 0;
         head.next = null;
+        tail = head;
     }
 
     public int getLength() {
@@ -149,9 +164,13 @@ public class LinkedList<E> implements Iterable<E>, Serializable {
         LinkedList<?> that = (LinkedList<?>) o;
 
         if (length != that.length) return false;
-        for (int i = 0; i < length; i++) {
-            if (!this.at(i).equals(that.at(i)))
+        Node<?> mine = this.head.next;
+        Node<?> other = that.head.next;
+        while (mine != null) {
+            if (!mine.data.equals(other.data))
                 return false;
+            mine = mine.next;
+            other = other.next;
         }
         return true;
     }
@@ -177,7 +196,11 @@ public class LinkedList<E> implements Iterable<E>, Serializable {
     @SuppressWarnings("unchecked")
     private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
         int readLength = ois.readInt();
+        if (readLength < 0)
+            throw new InvalidObjectException("Negative length " + readLength);
         head = new Node<>(null, null);
+        tail = head;
+        length = 0;
         for (int i = 0; i < readLength; i++) {
             E e = (E) ois.readObject();
             push(e);
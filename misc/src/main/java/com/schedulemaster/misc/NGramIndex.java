@@ -0,0 +1,325 @@
+package com.schedulemaster.misc;
+
+import java.util.Arrays;
+
+/**
+ * Provide substring search using bigram inverted index. Each tuple gets an id by order of addition,
+ * and each bigram of attribute keeps sorted list of ids containing it.
+ * Query intersects posting lists of its bigrams, then verifies candidates with String.contains.
+ * Search ignores case.
+ *
+ * @param <Tuple> Type of tuple (class).
+ */
+public class NGramIndex<Tuple> {
+    private static final int UNIGRAM = 0xFFFF << 16;
+
+    /**
+     * Growable sorted int array. Ids are added in increasing order, except by insert and delete of update.
+     */
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int length = 0;
+
+        void add(int id) {
+            if (length > 0 && ids[length - 1] == id)
+                return;
+            if (length == ids.length)
+                ids = Arrays.copyOf(ids, length * 2);
+            ids[length++] = id;
+        }
+
+        void insert(int id) {
+            int position = Arrays.binarySearch(ids, 0, length, id);
+            if (position >= 0)
+                return;
+            position = -position - 1;
+            if (length == ids.length)
+                ids = Arrays.copyOf(ids, length * 2);
+            System.arraycopy(ids, position, ids, position + 1, length - position);
+            ids[position] = id;
+            length += 1;
+        }
+
+        void delete(int id) {
+            int position = Arrays.binarySearch(ids, 0, length, id);
+            if (position < 0)
+                return;
+            System.arraycopy(ids, position + 1, ids, position, length - position - 1);
+            length -= 1;
+        }
+    }
+
+    private final Index.AttributeSelector<String, Tuple> selector;
+    private final Hash<Integer, Postings> postings = new Hash<>();
+    // id -> tuple, null if removed
+    private final ArrayList<Tuple> tuples = new ArrayList<>();
+    private final ArrayList<String> texts = new ArrayList<>();
+    private int removed = 0;
+
+    /**
+     * Initialize with list of tuples (table) and attributeSelector.
+     *
+     * @param table             List of tuples.
+     * @param attributeSelector Chooser for tuple's text attribute.
+     */
+    public NGramIndex(ArrayList<Tuple> table, Index.AttributeSelector<String, Tuple> attributeSelector) {
+        this.selector = attributeSelector;
+        for (Tuple tuple : table) {
+            add(tuple);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    private static int unigram(char c) {
+        return UNIGRAM | c;
+    }
+
+    private Postings postingsOf(int gram) {
+        Postings list = postings.get(gram);
+        if (list == null) {
+            list = new Postings();
+            postings.put(gram, list);
+        }
+        return list;
+    }
+
+    /**
+     * Add a new tuple for indexing. Id of tuple is number of tuples added before.
+     *
+     * @param tuple New tuple.
+     */
+    public void add(Tuple tuple) {
+        int id = tuples.getLength();
+        String text = normalize(selector.getAttribute(tuple));
+        tuples.push(tuple);
+        texts.push(text);
+
+        for (int i = 0; i < text.length(); i++) {
+            postingsOf(unigram(text.charAt(i))).add(id);
+            if (i + 1 < text.length())
+                postingsOf(bigram(text.charAt(i), text.charAt(i + 1))).add(id);
+        }
+    }
+
+    /**
+     * Index tuple again with its id kept, after its attribute changed.
+     * Only posting lists of grams of old and new attribute are touched.
+     *
+     * @param id    Id of tuple, which is number of tuples added before it.
+     * @param tuple Changed tuple, may be a new object for the same id.
+     */
+    public void update(int id, Tuple tuple) {
+        String oldText = texts.at(id);
+        String text = normalize(selector.getAttribute(tuple));
+        if (tuples.at(id) == null)
+            removed -= 1;
+        tuples.set(id, tuple);
+        if (text.equals(oldText))
+            return;
+        texts.set(id, text);
+
+        for (int i = 0; i < oldText.length(); i++) {
+            deletePosting(unigram(oldText.charAt(i)), id);
+            if (i + 1 < oldText.length())
+                deletePosting(bigram(oldText.charAt(i), oldText.charAt(i + 1)), id);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            postingsOf(unigram(text.charAt(i))).insert(id);
+            if (i + 1 < text.length())
+                postingsOf(bigram(text.charAt(i), text.charAt(i + 1))).insert(id);
+        }
+    }
+
+    private void deletePosting(int gram, int id) {
+        Postings list = postings.get(gram);
+        if (list != null)
+            list.delete(id);
+    }
+
+    /**
+     * Remove tuple from index. Its id is not reused until table changes.
+     *
+     * @param tuple Tuple to remove.
+     */
+    public void remove(Tuple tuple) {
+        for (int id = 0; id < tuples.getLength(); id++) {
+            if (tuple.equals(tuples.at(id))) {
+                tuples.set(id, null);
+                removed += 1;
+            }
+        }
+    }
+
+    /**
+     * Find ids of tuples whose attribute contains query.
+     *
+     * @param query Text to search. Empty query matches every tuple.
+     * @return Sorted ids.
+     */
+    public int[] searchIds(String query) {
+        String text = normalize(query);
+        int[] candidates = candidates(text);
+
+        int count = 0;
+        for (int id : candidates) {
+            if (tuples.at(id) != null && texts.at(id).contains(text))
+                candidates[count++] = id;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Find tuples whose attribute contains query, in order of addition.
+     *
+     * @param query Text to search. Empty query matches every tuple.
+     * @return Matching tuples.
+     */
+    public ArrayList<Tuple> search(String query) {
+        int[] ids = searchIds(query);
+        ArrayList<Tuple> result = new ArrayList<>(ids.length);
+        for (int id : ids)
+            result.push(tuples.at(id));
+        return result;
+    }
+
+    /**
+     * Estimate number of matches without searching, by the shortest posting list of query.
+     *
+     * @param query Text to search.
+     * @return Upper bound of number of matching tuples.
+     */
+    public int estimate(String query) {
+        String text = normalize(query);
+        if (text.isEmpty())
+            return getLength();
+        if (text.length() == 1)
+            return lengthOf(postings.get(unigram(text.charAt(0))));
+        int result = Integer.MAX_VALUE;
+        for (int i = 0; i + 1 < text.length(); i++)
+            result = Math.min(result, lengthOf(postings.get(bigram(text.charAt(i), text.charAt(i + 1)))));
+        return result;
+    }
+
+    private static int lengthOf(Postings list) {
+        return list == null ? 0 : list.length;
+    }
+
+    /**
+     * Check a single tuple without using index.
+     *
+     * @return True if attribute of tuple contains query, ignoring case.
+     */
+    public boolean matches(Tuple tuple, String query) {
+        return normalize(selector.getAttribute(tuple)).contains(normalize(query));
+    }
+
+    private int[] candidates(String text) {
+        if (text.isEmpty()) {
+            int[] all = new int[tuples.getLength()];
+            for (int i = 0; i < all.length; i++)
+                all[i] = i;
+            return all;
+        }
+        if (text.length() == 1)
+            return copyOf(postings.get(unigram(text.charAt(0))));
+
+        Postings[] lists = new Postings[text.length() - 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(bigram(text.charAt(i), text.charAt(i + 1)));
+            if (lists[i] == null)
+                return new int[0];
+        }
+        // intersect from the shortest list
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] result = copyOf(lists[0]);
+        int length = result.length;
+        for (int i = 1; i < lists.length && length > 0; i++)
+            length = intersect(result, length, lists[i]);
+        return Arrays.copyOf(result, length);
+    }
+
+    private static int[] copyOf(Postings list) {
+        if (list == null)
+            return new int[0];
+        return Arrays.copyOf(list.ids, list.length);
+    }
+
+    /**
+     * Keep ids in result that are also in list. Both are sorted.
+     *
+     * @return New length of result.
+     */
+    private static int intersect(int[] result, int length, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < length && j < list.length; ) {
+            if (result[i] < list.ids[j]) {
+                i++;
+            } else if (result[i] > list.ids[j]) {
+                j = gallop(list.ids, j, list.length, result[i]);
+            } else {
+                result[kept++] = result[i];
+                i++;
+                j++;
+            }
+        }
+        return kept;
+    }
+
+    // first index in [from, to) whose value is not less than target
+    private static int gallop(int[] ids, int from, int to, int target) {
+        int step = 1;
+        int low = from;
+        int high = from + 1;
+        while (high < to && ids[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, to);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] < target)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * @return Number of indexed tuples, not counting removed ones.
+     */
+    public int getLength() {
+        return tuples.getLength() - removed;
+    }
+
+    /**
+     * Change entire table.
+     *
+     * @param table New table.
+     */
+    public void changeTable(ArrayList<Tuple> table) {
+        clear();
+        for (Tuple tuple : table) {
+            add(tuple);
+        }
+    }
+
+    /**
+     * Clear all indexed tuples.
+     */
+    public void clear() {
+        postings.clear();
+        tuples.clear();
+        texts.clear();
+        removed = 0;
+    }
+}
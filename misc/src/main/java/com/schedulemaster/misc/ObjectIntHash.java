@@ -0,0 +1,357 @@
+package com.schedulemaster.misc;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Insertion ordered hash table of int values. Same layout as Hash, but values are kept in an int array,
+ * so reading or writing a value never boxes.
+ *
+ * @param <K> Type of key.
+ */
+public class ObjectIntHash<K> implements Iterable<K>, Serializable {
+    public static final long serialVersionUID = 11L;
+
+    private class KeyIterator implements Iterator<K> {
+        private int entry = nextEntry(0);
+
+        @Override
+        public boolean hasNext() {
+            return entry < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next() {
+            if (entry >= size)
+                throw new NoSuchElementException();
+            K key = (K) keys[entry];
+            entry = nextEntry(entry + 1);
+
+            return key;
+        }
+    }
+
+    /**
+     * @return Iterator of keys in insertion order.
+     */
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    private static final int DEFAULT_TABLE_SIZE = 8;
+    private static final int EMPTY = -1;
+
+    // slot -> position in entry arrays, EMPTY if not used
+    private transient int[] table;
+    // entry arrays in insertion order. removed entry has null key.
+    private transient Object[] keys;
+    private transient int[] values;
+    private transient int[] hashes;
+
+    // used entry positions including removed ones
+    private transient int size = 0;
+    private transient int length = 0;
+
+    public ObjectIntHash() {
+        allocate(DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Create hash able to hold expected number of entries without growing.
+     *
+     * @param expectedLength Expected number of entries.
+     */
+    public ObjectIntHash(int expectedLength) {
+        allocate(tableSizeFor(expectedLength));
+    }
+
+    private static int tableSizeFor(int expectedLength) {
+        int tableSize = DEFAULT_TABLE_SIZE;
+        while (capacityOf(tableSize) < expectedLength)
+            tableSize <<= 1;
+        return tableSize;
+    }
+
+    // max load factor 0.75
+    private static int capacityOf(int tableSize) {
+        return tableSize - (tableSize >> 2);
+    }
+
+    private void allocate(int tableSize) {
+        table = new int[tableSize];
+        Arrays.fill(table, EMPTY);
+        int capacity = capacityOf(tableSize);
+        keys = new Object[capacity];
+        values = new int[capacity];
+        hashes = new int[capacity];
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int nextEntry(int entry) {
+        while (entry < size && keys[entry] == null)
+            entry += 1;
+        return entry;
+    }
+
+    private int findEntry(Object key, int hash) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == EMPTY)
+                return EMPTY;
+            if (hashes[entry] == hash && key.equals(keys[entry]))
+                return entry;
+        }
+    }
+
+    private int findSlot(int entryToFind, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != entryToFind)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    public void put(K key, int value) {
+        int hash = hash(key);
+        if (findEntry(key, hash) != EMPTY)
+            throw new RuntimeException("Key " + key + " already exists");
+
+        insert(key, value, hash);
+    }
+
+    private int insert(K key, int value, int hash) {
+        if (size == keys.length)
+            resize();
+
+        int entry = size;
+        keys[entry] = key;
+        values[entry] = value;
+        hashes[entry] = hash;
+        size += 1;
+        length += 1;
+
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != EMPTY)
+            slot = (slot + 1) & mask;
+        table[slot] = entry;
+
+        return entry;
+    }
+
+    /**
+     * Make room for a new entry. Drops removed entries, and doubles table only if live entries need it.
+     */
+    private void resize() {
+        int tableSize = table.length;
+        if (length >= capacityOf(tableSize) >> 1)
+            tableSize <<= 1;
+
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldHashes = hashes;
+        int oldSize = size;
+        allocate(tableSize);
+
+        int mask = table.length - 1;
+        int entry = 0;
+        for (int i = 0; i < oldSize; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            keys[entry] = oldKeys[i];
+            values[entry] = oldValues[i];
+            hashes[entry] = oldHashes[i];
+
+            int slot = hashes[entry] & mask;
+            while (table[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            table[slot] = entry;
+            entry += 1;
+        }
+        size = entry;
+    }
+
+    public boolean hasKey(K keyToCheck) {
+        return findEntry(keyToCheck, hash(keyToCheck)) != EMPTY;
+    }
+
+    /**
+     * @throws NoSuchElementException If key doesn't exist.
+     */
+    public int get(K key) {
+        int entry = findEntry(key, hash(key));
+        if (entry == EMPTY)
+            throw new NoSuchElementException("Key " + key + " doesn't exist");
+        return values[entry];
+    }
+
+    public int getOrDefault(K key, int defaultValue) {
+        int entry = findEntry(key, hash(key));
+        if (entry == EMPTY)
+            return defaultValue;
+        return values[entry];
+    }
+
+    /**
+     * Change value of key. Put if key doesn't exist.
+     */
+    public void set(K key, int value) {
+        int hash = hash(key);
+        int entry = findEntry(key, hash);
+        if (entry == EMPTY) {
+            insert(key, value, hash);
+            return;
+        }
+        values[entry] = value;
+    }
+
+    /**
+     * Add delta to value of key. Key that doesn't exist starts with 0.
+     *
+     * @return New value.
+     */
+    public int addTo(K key, int delta) {
+        int hash = hash(key);
+        int entry = findEntry(key, hash);
+        if (entry == EMPTY)
+            entry = insert(key, 0, hash);
+        values[entry] += delta;
+
+        return values[entry];
+    }
+
+    public void remove(K key) {
+        int hash = hash(key);
+        int entry = findEntry(key, hash);
+        if (entry == EMPTY)
+            return;
+
+        deleteSlot(findSlot(entry, hash));
+        keys[entry] = null;
+        length -= 1;
+        while (size > 0 && keys[size - 1] == null)
+            size -= 1;
+    }
+
+    /**
+     * Remove slot from probing table, shifting back following entries of the cluster.
+     */
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hashes[table[next]] & mask;
+            // move back if home slot is not in (hole, next]
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = EMPTY;
+    }
+
+    public void clear() {
+        allocate(DEFAULT_TABLE_SIZE);
+        size = 0;
+        length = 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /**
+     * Call action with each key and value in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(ObjIntConsumer<? super K> action) {
+        for (int entry = nextEntry(0); entry < size; entry = nextEntry(entry + 1))
+            action.accept((K) keys[entry], values[entry]);
+    }
+
+    /**
+     * @return Keys in insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<K> getKeys() {
+        ArrayList<K> result = new ArrayList<>(length);
+        for (int entry = nextEntry(0); entry < size; entry = nextEntry(entry + 1))
+            result.push((K) keys[entry]);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ObjectIntHash<?> hash = (ObjectIntHash<?>) o;
+
+        if (length != hash.length) return false;
+
+        int mine = nextEntry(0);
+        int other = hash.nextEntry(0);
+        while (mine < size) {
+            if (!keys[mine].equals(hash.keys[other]) || values[mine] != hash.values[other])
+                return false;
+            mine = nextEntry(mine + 1);
+            other = hash.nextEntry(other + 1);
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int entry = nextEntry(0); entry < size; entry = nextEntry(entry + 1)) {
+            result = 31 * result + keys[entry].hashCode();
+            result = 31 * result + values[entry];
+        }
+        result = 31 * result + length;
+        return result;
+    }
+
+    /**
+     * Writes only live entries as key and int pairs. Probing table is rebuilt on read.
+     */
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        oos.writeInt(length);
+        for (int entry = nextEntry(0); entry < size; entry = nextEntry(entry + 1)) {
+            oos.writeObject(keys[entry]);
+            oos.writeInt(values[entry]);
+        }
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        int readLength = ois.readInt();
+        if (readLength < 0)
+            throw new InvalidObjectException("Negative length " + readLength);
+        allocate(tableSizeFor(readLength));
+        for (int i = 0; i < readLength; i++) {
+            K key = (K) ois.readObject();
+            int value = ois.readInt();
+            int hash = hash(key);
+            if (findEntry(key, hash) != EMPTY)
+                throw new InvalidObjectException("Duplicated key " + key);
+            insert(key, value, hash);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.schedulemaster.misc;
+
+import java.util.Arrays;
+
+/**
+ * Minimal perfect hash over a fixed set of keys, built by hash and displace (CHD).
+ * Keys are grouped into small buckets, and each bucket gets a seed that sends its keys to free slots.
+ * A lookup reads bucket seed and slot, so it takes a few array reads without probing.
+ * Each key maps to its position in the list given at build time (dense id).
+ *
+ * @param <K> Type of key. String keys are fingerprinted with 64-bit hash, others with hashCode.
+ */
+public class PerfectHash<K> {
+    private static final int BUCKET_SIZE = 4;
+    private static final int MAX_SEED = 1 << 20;
+
+    private final int length;
+    // bucket -> seed, or -(slot + 1) if bucket has a single key placed directly
+    private final int[] seeds;
+    private final Object[] keys;
+    private final int[] ids;
+
+    /**
+     * Build perfect hash. Takes O(n) expected time.
+     *
+     * @param source Distinct keys. Id of key is its position in source.
+     * @throws RuntimeException If a key is duplicated.
+     */
+    public PerfectHash(ArrayList<K> source) {
+        length = source.getLength();
+        int bucketCount = Math.max(1, (length + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        seeds = new int[bucketCount];
+        keys = new Object[length];
+        ids = new int[length];
+
+        long[] fingerprints = new long[length];
+        int[] bucketOf = new int[length];
+        int[] bucketLength = new int[bucketCount + 1];
+        for (int id = 0; id < length; id++) {
+            fingerprints[id] = fingerprint(source.at(id));
+            bucketOf[id] = bucket(fingerprints[id], bucketCount);
+            bucketLength[bucketOf[id] + 1] += 1;
+        }
+
+        // counting sort of ids by bucket
+        int[] bucketStart = bucketLength.clone();
+        for (int i = 0; i < bucketCount; i++)
+            bucketStart[i + 1] += bucketStart[i];
+        int[] members = new int[length];
+        int[] fill = Arrays.copyOf(bucketStart, bucketCount);
+        for (int id = 0; id < length; id++)
+            members[fill[bucketOf[id]]++] = id;
+
+        // place larger buckets first
+        Integer[] order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(bucketLength[b + 1], bucketLength[a + 1]));
+
+        boolean[] used = new boolean[length];
+        int[] slots = new int[BUCKET_SIZE * 8];
+        int nextFree = 0;
+        for (int bucket : order) {
+            int start = bucketStart[bucket];
+            int size = bucketLength[bucket + 1];
+            if (size == 0)
+                break;
+            if (size == 1) {
+                while (used[nextFree])
+                    nextFree += 1;
+                place(members[start], nextFree, source, used);
+                seeds[bucket] = -(nextFree + 1);
+                continue;
+            }
+
+            if (slots.length < size)
+                slots = new int[size];
+            int seed = findSeed(fingerprints, members, start, size, used, slots, source);
+            seeds[bucket] = seed;
+            for (int i = 0; i < size; i++)
+                place(members[start + i], slots[i], source, used);
+        }
+    }
+
+    private int findSeed(long[] fingerprints, int[] members, int start, int size, boolean[] used, int[] slots, ArrayList<K> source) {
+        for (int seed = 0; seed < MAX_SEED; seed++) {
+            boolean fits = true;
+            for (int i = 0; i < size && fits; i++) {
+                int slot = slot(fingerprints[members[start + i]], seed);
+                if (used[slot]) {
+                    fits = false;
+                    break;
+                }
+                for (int j = 0; j < i; j++) {
+                    if (slots[j] == slot) {
+                        fits = false;
+                        break;
+                    }
+                }
+                slots[i] = slot;
+            }
+            if (fits)
+                return seed;
+        }
+
+        // keys with same fingerprint never separate
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < i; j++) {
+                if (fingerprints[members[start + i]] == fingerprints[members[start + j]])
+                    throw new RuntimeException("Key " + source.at(members[start + i]) + " already exists");
+            }
+        }
+        throw new RuntimeException("Failed to build perfect hash");
+    }
+
+    private void place(int id, int slot, ArrayList<K> source, boolean[] used) {
+        used[slot] = true;
+        keys[slot] = source.at(id);
+        ids[slot] = id;
+    }
+
+    private static long fingerprint(Object key) {
+        if (key instanceof String text) {
+            // FNV-1a 64
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < text.length(); i++) {
+                hash ^= text.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+        return mix(key.hashCode());
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static int bucket(long fingerprint, int bucketCount) {
+        return (int) Long.remainderUnsigned(fingerprint, bucketCount);
+    }
+
+    private int slot(long fingerprint, int seed) {
+        return (int) Long.remainderUnsigned(mix(fingerprint ^ (seed * 0x9E3779B97F4A7C15L)), length);
+    }
+
+    /**
+     * Find id of key.
+     *
+     * @param key Key to search.
+     * @return Position of key in source, -1 if key is not in set.
+     */
+    public int indexOf(K key) {
+        if (length == 0)
+            return -1;
+        long fingerprint = fingerprint(key);
+        int seed = seeds[bucket(fingerprint, seeds.length)];
+        int slot = seed < 0 ? -seed - 1 : slot(fingerprint, seed);
+        if (!key.equals(keys[slot]))
+            return -1;
+        return ids[slot];
+    }
+
+    public boolean hasKey(K key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+}
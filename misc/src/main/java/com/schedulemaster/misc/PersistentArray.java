@@ -0,0 +1,138 @@
+package com.schedulemaster.misc;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable array kept as a tree of chunks of 32 elements.
+ * set returns a new array copying only chunks on the path to index, and shares all other chunks with this one.
+ * So a version made by set costs O(log32 n), and old versions stay valid for readers still holding them.
+ *
+ * @param <E> Type of element.
+ */
+public class PersistentArray<E> implements Iterable<E> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private final Object[] root;
+    // bits to shift index at root, 0 if root is a leaf
+    private final int shift;
+    private final int length;
+
+    private PersistentArray(Object[] root, int shift, int length) {
+        this.root = root;
+        this.shift = shift;
+        this.length = length;
+    }
+
+    /**
+     * Build array with elements of list, in same order.
+     *
+     * @param list Elements.
+     */
+    public PersistentArray(ArrayList<E> list) {
+        length = list.getLength();
+        Object[] nodes = new Object[(length + MASK) >>> BITS];
+        for (int i = 0; i < nodes.length; i++) {
+            Object[] leaf = new Object[Math.min(WIDTH, length - (i << BITS))];
+            for (int j = 0; j < leaf.length; j++)
+                leaf[j] = list.at((i << BITS) + j);
+            nodes[i] = leaf;
+        }
+
+        int level = 0;
+        while (nodes.length > 1) {
+            Object[] parents = new Object[(nodes.length + MASK) >>> BITS];
+            for (int i = 0; i < parents.length; i++) {
+                Object[] parent = new Object[Math.min(WIDTH, nodes.length - (i << BITS))];
+                System.arraycopy(nodes, i << BITS, parent, 0, parent.length);
+                parents[i] = parent;
+            }
+            nodes = parents;
+            level += BITS;
+        }
+        root = nodes.length == 0 ? new Object[0] : (Object[]) nodes[0];
+        shift = level;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+    }
+
+    // start with 0
+    @SuppressWarnings("unchecked")
+    public E at(int index) {
+        checkIndex(index);
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS)
+            node = (Object[]) node[(index >>> level) & MASK];
+        return (E) node[index & MASK];
+    }
+
+    /**
+     * Make a new version with data at index. This array is not changed.
+     *
+     * @param index Index of element (start with 0).
+     * @param data  New element.
+     * @return New array sharing unchanged chunks with this.
+     */
+    public PersistentArray<E> set(int index, E data) {
+        checkIndex(index);
+        return new PersistentArray<>(set(root, shift, index, data), shift, length);
+    }
+
+    private static Object[] set(Object[] node, int level, int index, Object data) {
+        Object[] copy = node.clone();
+        if (level == 0) {
+            copy[index & MASK] = data;
+        } else {
+            int child = (index >>> level) & MASK;
+            copy[child] = set((Object[]) node[child], level - BITS, index, data);
+        }
+        return copy;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public ArrayList<E> toArrayList() {
+        ArrayList<E> result = new ArrayList<>(length);
+        for (E element : this)
+            result.push(element);
+        return result;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+            private Object[] leaf = null;
+
+            @Override
+            public boolean hasNext() {
+                return index < length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= length)
+                    throw new NoSuchElementException();
+                // walk down only at the start of each chunk
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = root;
+                    for (int level = shift; level > 0; level -= BITS)
+                        leaf = (Object[]) leaf[(index >>> level) & MASK];
+                }
+                return (E) leaf[index++ & MASK];
+            }
+        };
+    }
+}
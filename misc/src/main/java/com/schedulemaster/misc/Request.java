@@ -15,6 +15,7 @@ public record Request(String command, Object data) implements Serializable {
     public static final String LOGIN = "login";
     public static final String SIGNUP = "signup";
     public static final String REQ_LECTURES = "request_lectures";
+    public static final String REQ_FITTING_LECTURES = "request_fitting_lectures";
     public static final String BYE = "bye";
     public static final String REQ_USER = "request_user";
     public static final String ENROLL = "enroll";
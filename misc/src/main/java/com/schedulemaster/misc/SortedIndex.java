@@ -0,0 +1,301 @@
+package com.schedulemaster.misc;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Provide ordered Index using skip list over int keys. Each key saves list of tuples like Index,
+ * and range of keys can be found in O(log n + k).
+ * A tuple can have several keys (ex. start time of each day), and appears once in a range result.
+ *
+ * @param <Tuple> Type of tuple (class).
+ */
+public class SortedIndex<Tuple> {
+    /**
+     * Interface able to get int keys from tuple.
+     *
+     * @param <Tuple> Type of tuple (class).
+     */
+    public interface KeySelector<Tuple> {
+        /**
+         * Get keys from tuple.
+         *
+         * @param tuple A tuple to select keys.
+         * @return Selected keys, may be empty.
+         */
+        int[] getKeys(Tuple tuple);
+
+        /**
+         * Selector for tuples having exactly one key.
+         */
+        static <Tuple> KeySelector<Tuple> of(ToIntFunction<Tuple> function) {
+            return tuple -> new int[]{function.applyAsInt(tuple)};
+        }
+    }
+
+    private static final int MAX_LEVEL = 24;
+
+    private static class Node<Tuple> {
+        final int key;
+        final ArrayList<Tuple> tuples = new ArrayList<>();
+        final Node<Tuple>[] next;
+
+        Node(int key, int level) {
+            this.key = key;
+            this.next = newNodes(level);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Tuple> Node<Tuple>[] newNodes(int length) {
+        return (Node<Tuple>[]) new Node<?>[length];
+    }
+
+    private final Node<Tuple> head = new Node<>(Integer.MIN_VALUE, MAX_LEVEL);
+    private int level = 1;
+    private int keyCount = 0;
+    private boolean multiKey = false;
+    private int seed = 0x2545F491;
+
+    private final KeySelector<Tuple> selector;
+
+    /**
+     * Initialize with list of tuples (table) and keySelector.
+     *
+     * @param table       List of tuples.
+     * @param keySelector Chooser for tuple's keys.
+     */
+    public SortedIndex(ArrayList<Tuple> table, KeySelector<Tuple> keySelector) {
+        this.selector = keySelector;
+        for (Tuple tuple : table) {
+            add(tuple);
+        }
+    }
+
+    // xorshift, p = 1/4 for each level
+    private int randomLevel() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        int bits = seed;
+        int result = 1;
+        while (result < MAX_LEVEL && (bits & 3) == 0) {
+            result += 1;
+            bits >>>= 2;
+        }
+        return result;
+    }
+
+    // sorted keys without duplicates, so a tuple is pushed once per key
+    private int[] selectKeys(Tuple tuple) {
+        int[] keys = selector.getKeys(tuple);
+        if (keys.length < 2)
+            return keys;
+        keys = keys.clone();
+        Arrays.sort(keys);
+        int distinct = 1;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] != keys[distinct - 1])
+                keys[distinct++] = keys[i];
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Find last node of each level whose key is less than key.
+     */
+    private Node<Tuple> findPredecessors(int key, Node<Tuple>[] update) {
+        Node<Tuple> node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && node.next[i].key < key)
+                node = node.next[i];
+            if (update != null)
+                update[i] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Add a new tuple for indexing.
+     *
+     * @param tuple New tuple.
+     */
+    public void add(Tuple tuple) {
+        add(tuple, null);
+    }
+
+    /**
+     * Add a tuple at its place in order within each key, instead of the end, when tuples were added in that order.
+     *
+     * @param tuple New tuple.
+     * @param order Order of tuple (ex. position in table), null to add at the end.
+     */
+    public void add(Tuple tuple, ToIntFunction<Tuple> order) {
+        int[] keys = selectKeys(tuple);
+        if (keys.length > 1)
+            multiKey = true;
+
+        Node<Tuple>[] update = newNodes(MAX_LEVEL);
+        for (int key : keys) {
+            Node<Tuple> node = findPredecessors(key, update).next[0];
+            if (node == null || node.key != key) {
+                int nodeLevel = randomLevel();
+                for (int i = level; i < nodeLevel; i++)
+                    update[i] = head;
+                level = Math.max(level, nodeLevel);
+
+                node = new Node<>(key, nodeLevel);
+                for (int i = 0; i < nodeLevel; i++) {
+                    node.next[i] = update[i].next[i];
+                    update[i].next[i] = node;
+                }
+                keyCount += 1;
+            }
+            if (order == null)
+                node.tuples.push(tuple);
+            else
+                node.tuples.insertInOrder(tuple, order);
+        }
+    }
+
+    /**
+     * Remove tuple form table.
+     *
+     * @param tuple Tuple to remove.
+     */
+    public void remove(Tuple tuple) {
+        Node<Tuple>[] update = newNodes(MAX_LEVEL);
+        for (int key : selectKeys(tuple)) {
+            Node<Tuple> node = findPredecessors(key, update).next[0];
+            if (node == null || node.key != key)
+                continue;
+            node.tuples.remove(tuple);
+            if (!node.tuples.isEmpty())
+                continue;
+
+            for (int i = 0; i < node.next.length; i++)
+                update[i].next[i] = node.next[i];
+            while (level > 1 && head.next[level - 1] == null)
+                level -= 1;
+            keyCount -= 1;
+        }
+    }
+
+    /**
+     * Get tuples that key matches.
+     *
+     * @param key Key to search.
+     * @return List of tuples, empty if nothing matches.
+     */
+    public ArrayList<Tuple> get(int key) {
+        return range(key, key);
+    }
+
+    /**
+     * Get tuples with a key in [from, to], in key order.
+     *
+     * @param from Lowest key, inclusive.
+     * @param to   Highest key, inclusive.
+     * @return List of tuples, empty if nothing matches.
+     */
+    public ArrayList<Tuple> range(int from, int to) {
+        ArrayList<Tuple> result = new ArrayList<>();
+        if (from > to)
+            return result;
+
+        Hash<Tuple, Tuple> seen = multiKey ? new Hash<>() : null;
+        for (Node<Tuple> node = findPredecessors(from, null).next[0]; node != null && node.key <= to; node = node.next[0]) {
+            for (Tuple tuple : node.tuples) {
+                if (seen != null) {
+                    if (seen.hasKey(tuple))
+                        continue;
+                    seen.put(tuple, tuple);
+                }
+                result.push(tuple);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimate number of tuples with a key in [from, to] without visiting all of them.
+     * Nodes of upper levels are a sample of about 1 / 4^level of keys, so tuples of range are counted
+     * on the highest level having enough nodes in range and scaled. Takes O(log n).
+     *
+     * @param from Lowest key, inclusive.
+     * @param to   Highest key, inclusive.
+     * @return Estimated number of tuples, exact if range has a few keys.
+     */
+    public int estimateRange(int from, int to) {
+        if (from > to)
+            return 0;
+        Node<Tuple> node = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (node.next[i] != null && node.next[i].key < from)
+                node = node.next[i];
+            int nodes = 0;
+            long tuples = 0;
+            for (Node<Tuple> next = node.next[i]; next != null && next.key <= to; next = next.next[i]) {
+                nodes += 1;
+                tuples += next.tuples.getLength();
+            }
+            if (nodes >= 32 || i == 0)
+                return (int) Math.min(Integer.MAX_VALUE, tuples << (2 * i));
+        }
+        return 0;
+    }
+
+    /**
+     * Check a single tuple without using index.
+     *
+     * @return True if tuple has a key in [from, to].
+     */
+    public boolean hasKeyInRange(Tuple tuple, int from, int to) {
+        for (int key : selector.getKeys(tuple)) {
+            if (from <= key && key <= to)
+                return true;
+        }
+        return false;
+    }
+
+    public ArrayList<Tuple> atLeast(int from) {
+        return range(from, Integer.MAX_VALUE);
+    }
+
+    public ArrayList<Tuple> atMost(int to) {
+        return range(Integer.MIN_VALUE, to);
+    }
+
+    /**
+     * @return Distinct keys in ascending order.
+     */
+    public ArrayList<Integer> getKeys() {
+        ArrayList<Integer> result = new ArrayList<>(keyCount);
+        for (Node<Tuple> node = head.next[0]; node != null; node = node.next[0])
+            result.push(node.key);
+        return result;
+    }
+
+    /**
+     * Change entire table.
+     *
+     * @param table New table.
+     */
+    public void changeTable(ArrayList<Tuple> table) {
+        clear();
+        for (Tuple tuple : table) {
+            add(tuple);
+        }
+    }
+
+    /**
+     * Clear all indexed tuples.
+     */
+    public void clear() {
+        for (int i = 0; i < MAX_LEVEL; i++)
+            head.next[i] = null;
+        level = 1;
+        keyCount = 0;
+        multiKey = false;
+    }
+}
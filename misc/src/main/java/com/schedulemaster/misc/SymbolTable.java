@@ -0,0 +1,80 @@
+package com.schedulemaster.misc;
+
+/**
+ * Dictionary of strings. Each distinct string gets a dense id in order of first appearance,
+ * and equal strings share one instance, so repeated values (ex. professor, major) are kept once.
+ * Thread safe.
+ */
+public class SymbolTable {
+    private final ObjectIntHash<String> ids;
+    private final ArrayList<String> symbols;
+
+    public SymbolTable() {
+        ids = new ObjectIntHash<>();
+        symbols = new ArrayList<>();
+    }
+
+    /**
+     * Create table able to hold expected number of symbols without growing.
+     *
+     * @param expectedLength Expected number of symbols.
+     */
+    public SymbolTable(int expectedLength) {
+        ids = new ObjectIntHash<>(expectedLength);
+        symbols = new ArrayList<>(expectedLength);
+    }
+
+    /**
+     * Get id of symbol, adding it if new.
+     *
+     * @param symbol String to add. null is not allowed.
+     * @return Id of symbol.
+     */
+    public synchronized int intern(String symbol) {
+        int id = ids.getOrDefault(symbol, -1);
+        if (id >= 0)
+            return id;
+        id = symbols.getLength();
+        ids.put(symbol, id);
+        symbols.push(symbol);
+        return id;
+    }
+
+    /**
+     * Get shared instance equal to symbol, adding it if new.
+     *
+     * @param symbol String to share, may be null.
+     * @return Shared instance, null if symbol is null.
+     */
+    public synchronized String canonical(String symbol) {
+        if (symbol == null)
+            return null;
+        return symbols.at(intern(symbol));
+    }
+
+    /**
+     * @param id Id of symbol.
+     * @return Symbol of id.
+     */
+    public synchronized String get(int id) {
+        return symbols.at(id);
+    }
+
+    /**
+     * @return Id of symbol, -1 if not in table.
+     */
+    public synchronized int indexOf(String symbol) {
+        return ids.getOrDefault(symbol, -1);
+    }
+
+    public synchronized int getLength() {
+        return symbols.getLength();
+    }
+
+    /**
+     * @return Symbols in order of id.
+     */
+    public synchronized String[] toArray() {
+        return symbols.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,91 @@
+package com.schedulemaster.model;
+
+import com.schedulemaster.misc.ArrayList;
+
+import java.util.BitSet;
+
+/**
+ * Batch conflict check of a time against all lectures.
+ * Masks of lectures are kept in one long array, word by word, so words of all lectures at the same position are contiguous.
+ * Each nonzero word of the time is ANDed against one contiguous column in a simple loop, which JIT compiles to SIMD.
+ * Built once for a list of lectures, and follows later changes of lecture time only by update.
+ *
+ * @author lalaalal
+ */
+public class ConflictFilter {
+    private final int length;
+    // matrix[word * length + id]
+    private final long[] matrix;
+    // false if mask of lecture is not exact, then a hit is checked again with time sets
+    private final boolean[] exact;
+    private final ArrayList<Lecture> lectures;
+
+    /**
+     * Build filter. Id of lecture is its position in lectures.
+     *
+     * @param lectures Lectures to filter.
+     */
+    public ConflictFilter(ArrayList<Lecture> lectures) {
+        this.lectures = lectures;
+        length = lectures.getLength();
+        matrix = new long[TimeMask.WORDS * length];
+        exact = new boolean[length];
+        for (int id = 0; id < length; id++)
+            update(id);
+    }
+
+    /**
+     * Read time of lecture again, after it is changed in place.
+     *
+     * @param id Id of changed lecture.
+     */
+    public void update(int id) {
+        TimeMask mask = lectures.at(id).time.getMask();
+        exact[id] = mask.isExact();
+        for (int word = 0; word < TimeMask.WORDS; word++)
+            matrix[word * length + id] = mask.getWord(word);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Find lectures not conflicting with time.
+     *
+     * @param time Used time, usually enrolled lectures and unwanted time.
+     * @return Set of ids of lectures not conflicting with time.
+     */
+    public BitSet findFitting(LectureTime time) {
+        TimeMask mask = time.getMask();
+        long[] hits = new long[length];
+        for (int word = 0; word < TimeMask.WORDS; word++) {
+            long used = mask.getWord(word);
+            if (used == 0)
+                continue;
+            int offset = word * length;
+            for (int id = 0; id < length; id++)
+                hits[id] |= matrix[offset + id] & used;
+        }
+
+        BitSet result = new BitSet(length);
+        for (int id = 0; id < length; id++) {
+            if (hits[id] == 0)
+                result.set(id);
+            else if (!(exact[id] && mask.isExact()) && !lectures.at(id).time.conflictWith(time))
+                result.set(id);
+        }
+        return result;
+    }
+
+    /**
+     * @return Lectures not conflicting with time, in order of ids.
+     */
+    public ArrayList<Lecture> findFittingLectures(LectureTime time) {
+        BitSet fitting = findFitting(time);
+        ArrayList<Lecture> result = new ArrayList<>(fitting.cardinality());
+        for (int id = fitting.nextSetBit(0); id >= 0; id = fitting.nextSetBit(id + 1))
+            result.push(lectures.at(id));
+        return result;
+    }
+}
@@ -0,0 +1,281 @@
+package com.schedulemaster.model;
+
+import com.schedulemaster.misc.ArrayList;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Time conflict between every pair of lectures, precomputed.
+ * Neighbors of a lecture are kept as sorted array of conflicting ids, which is much smaller than a bitmap of all lectures,
+ * since a lecture conflicts with only a small part of catalog.
+ * Id of lecture is its position in list given at build time.
+ * Immutable. Adding or changing lectures makes a new graph sharing unchanged neighbor arrays.
+ *
+ * @author lalaalal
+ */
+public class ConflictGraph {
+    private static final int[] NO_NEIGHBORS = new int[0];
+
+    private final ArrayList<Lecture> lectures;
+    private final int[][] neighbors;
+
+    private ConflictGraph(ArrayList<Lecture> lectures, int[][] neighbors) {
+        this.lectures = lectures;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Time sets of all lectures as minute of week, sorted by start.
+     */
+    private static class TimeSets {
+        final int count;
+        final int[] ids;
+        final int[] starts;
+        final int[] ends;
+        // longest time set, so time sets overlapping [start, end) start in [start - maxLength, end)
+        final int maxLength;
+
+        TimeSets(ArrayList<Lecture> lectures) {
+            int total = 0;
+            for (Lecture lecture : lectures)
+                total += lecture.time.getTimeSets().getLength();
+            long[] sorted = new long[total];
+            int[] unsortedIds = new int[total];
+            int[] unsortedEnds = new int[total];
+            int i = 0;
+            for (int id = 0; id < lectures.getLength(); id++) {
+                for (LectureTime.TimeSet timeSet : lectures.at(id).time.getTimeSets()) {
+                    unsortedIds[i] = id;
+                    unsortedEnds[i] = LectureTime.toMinuteOfWeek(timeSet.dayOfWeek(), timeSet.end());
+                    sorted[i] = (long) LectureTime.toMinuteOfWeek(timeSet.dayOfWeek(), timeSet.start()) << 32 | i;
+                    i += 1;
+                }
+            }
+            Arrays.sort(sorted);
+
+            count = total;
+            ids = new int[count];
+            starts = new int[count];
+            ends = new int[count];
+            int longest = 0;
+            for (i = 0; i < count; i++) {
+                int from = (int) sorted[i];
+                ids[i] = unsortedIds[from];
+                starts[i] = (int) (sorted[i] >> 32);
+                ends[i] = unsortedEnds[from];
+                longest = Math.max(longest, ends[i] - starts[i]);
+            }
+            maxLength = longest;
+        }
+
+        // first position whose start is not less than key
+        int lowerBound(int key) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < key)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Growable array of edges, each as (id, neighbor) packed in a long so sorting groups them by id.
+     */
+    private static class Edges {
+        long[] values = new long[16];
+        int length = 0;
+
+        void add(int id, int neighbor) {
+            if (length == values.length)
+                values = Arrays.copyOf(values, length * 2);
+            values[length++] = (long) id << 32 | neighbor;
+        }
+
+        void sort() {
+            Arrays.sort(values, 0, length);
+        }
+
+        static int idOf(long edge) {
+            return (int) (edge >>> 32);
+        }
+    }
+
+    /**
+     * Build graph by sweeping sorted time sets of each day. Takes O(n log n + number of conflicts).
+     *
+     * @param lectures Lectures. Id of lecture is its position in lectures.
+     */
+    public ConflictGraph(ArrayList<Lecture> lectures) {
+        this.lectures = lectures;
+        int length = lectures.getLength();
+        TimeSets timeSets = new TimeSets(lectures);
+
+        // both directions of each conflict
+        Edges edges = new Edges();
+        for (int a = 0; a < timeSets.count; a++) {
+            for (int b = a + 1; b < timeSets.count && timeSets.starts[b] < timeSets.ends[a]; b++) {
+                if (timeSets.ids[a] == timeSets.ids[b] || timeSets.ends[b] <= timeSets.starts[b])
+                    continue;
+                edges.add(timeSets.ids[a], timeSets.ids[b]);
+                edges.add(timeSets.ids[b], timeSets.ids[a]);
+            }
+        }
+        edges.sort();
+
+        neighbors = new int[length][];
+        int from = 0;
+        for (int id = 0; id < length; id++) {
+            int to = from;
+            while (to < edges.length && Edges.idOf(edges.values[to]) == id)
+                to += 1;
+            neighbors[id] = collect(null, edges.values, from, to);
+            from = to;
+        }
+    }
+
+    /**
+     * Make graph of lectures with some lectures changed or appended.
+     * Only time sets of changed and appended lectures are looked up in sorted time sets of all lectures,
+     * and only their neighbors are merged again. If most lectures changed, graph is built again instead.
+     *
+     * @param lectures Lectures of this graph in same order, possibly followed by new lectures.
+     * @param changed  Ids of lectures whose time changed.
+     * @return New graph.
+     */
+    public ConflictGraph update(ArrayList<Lecture> lectures, int[] changed) {
+        int oldLength = neighbors.length;
+        int length = lectures.getLength();
+        if (length < oldLength)
+            throw new RuntimeException("Lectures can't be removed; " + length + " < " + oldLength);
+
+        BitSet recomputed = new BitSet(length);
+        for (int id : changed)
+            recomputed.set(id);
+        recomputed.set(oldLength, length);
+        if (recomputed.cardinality() * 2 > length)
+            return new ConflictGraph(lectures);
+
+        TimeSets timeSets = new TimeSets(lectures);
+        // lectures whose neighbors change
+        BitSet affected = (BitSet) recomputed.clone();
+        Edges edges = new Edges();
+        for (int id = recomputed.nextSetBit(0); id >= 0; id = recomputed.nextSetBit(id + 1)) {
+            if (id < oldLength) {
+                for (int neighbor : neighbors[id])
+                    affected.set(neighbor);
+            }
+            for (LectureTime.TimeSet timeSet : lectures.at(id).time.getTimeSets()) {
+                int start = LectureTime.toMinuteOfWeek(timeSet.dayOfWeek(), timeSet.start());
+                int end = LectureTime.toMinuteOfWeek(timeSet.dayOfWeek(), timeSet.end());
+                if (end <= start)
+                    continue;
+                for (int i = timeSets.lowerBound(start - timeSets.maxLength); i < timeSets.count && timeSets.starts[i] < end; i++) {
+                    int other = timeSets.ids[i];
+                    if (other == id || timeSets.ends[i] <= start || timeSets.ends[i] <= timeSets.starts[i])
+                        continue;
+                    edges.add(id, other);
+                    // recomputed lectures find this edge themselves
+                    if (!recomputed.get(other)) {
+                        edges.add(other, id);
+                        affected.set(other);
+                    }
+                }
+            }
+        }
+        edges.sort();
+
+        int[][] result = Arrays.copyOf(neighbors, length);
+        int from = 0;
+        for (int id = affected.nextSetBit(0); id >= 0; id = affected.nextSetBit(id + 1)) {
+            int to = from;
+            while (to < edges.length && Edges.idOf(edges.values[to]) == id)
+                to += 1;
+            int[] kept = recomputed.get(id) ? NO_NEIGHBORS : neighbors[id];
+            int keptLength = 0;
+            int[] filtered = new int[kept.length];
+            for (int neighbor : kept) {
+                if (!recomputed.get(neighbor))
+                    filtered[keptLength++] = neighbor;
+            }
+            result[id] = collect(Arrays.copyOf(filtered, keptLength), edges.values, from, to);
+            from = to;
+        }
+
+        return new ConflictGraph(lectures, result);
+    }
+
+    /**
+     * @param kept  Sorted neighbors to keep, or null.
+     * @param edges Sorted edges, of one lecture in [from, to).
+     * @return Sorted distinct neighbors from kept and edges.
+     */
+    private static int[] collect(int[] kept, long[] edges, int from, int to) {
+        int keptLength = kept == null ? 0 : kept.length;
+        if (keptLength == 0 && from == to)
+            return NO_NEIGHBORS;
+        int[] result = new int[keptLength + to - from];
+        if (keptLength > 0)
+            System.arraycopy(kept, 0, result, 0, keptLength);
+        for (int e = from; e < to; e++)
+            result[keptLength + e - from] = (int) edges[e];
+        if (keptLength > 0)
+            Arrays.sort(result);
+        int distinct = 0;
+        for (int neighbor : result) {
+            if (distinct == 0 || result[distinct - 1] != neighbor)
+                result[distinct++] = neighbor;
+        }
+        return distinct == result.length ? result : Arrays.copyOf(result, distinct);
+    }
+
+    public int getLength() {
+        return neighbors.length;
+    }
+
+    public ArrayList<Lecture> getLectures() {
+        return lectures;
+    }
+
+    /**
+     * @return Sorted ids of lectures conflicting with lecture of id. Don't modify.
+     */
+    public int[] getNeighbors(int id) {
+        return neighbors[id];
+    }
+
+    public boolean conflict(int a, int b) {
+        return Arrays.binarySearch(neighbors[a], b) >= 0;
+    }
+
+    /**
+     * Check if lecture conflicts with any of lectures.
+     *
+     * @param id  Id of lecture.
+     * @param ids Ids of lectures to check against.
+     * @return True if lecture of id conflicts with one of ids.
+     */
+    public boolean conflictWithAny(int id, BitSet ids) {
+        for (int neighbor : neighbors[id]) {
+            if (ids.get(neighbor))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Set ids of lectures conflicting with lecture of id.
+     *
+     * @param id     Id of lecture.
+     * @param target Bitset to set.
+     */
+    public void addNeighbors(int id, BitSet target) {
+        for (int neighbor : neighbors[id])
+            target.set(neighbor);
+    }
+}
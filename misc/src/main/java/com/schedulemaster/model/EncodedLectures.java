@@ -0,0 +1,196 @@
+package com.schedulemaster.model;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.SymbolTable;
+import com.schedulemaster.util.ByteReader;
+import com.schedulemaster.util.ByteWriter;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Lectures encoded in columns, used as payload of lecture list.
+ * Name, professor, major and class room are sent once in a dictionary, and each lecture carries only their ids.
+ * Times are packed as (day, start, end) in minutes. Decoded lectures share dictionary strings.
+ *
+ * @author lalaalal
+ */
+public class EncodedLectures implements Serializable {
+    public static final long serialVersionUID = 17L;
+
+    private static final int NULL = -1;
+
+    private final String[] symbols;
+    private final String[] lectureNums;
+    private final int[] grades;
+    private final int[] scores;
+    private final int[] maxes;
+    private final int[] enrolled;
+    private final int[] names;
+    private final int[] professors;
+    private final int[] majors;
+    private final int[] classRooms;
+    // lecture -> first position in times. times of lecture i are in [timeStarts[i], timeStarts[i + 1]).
+    private final int[] timeStarts;
+    // day, start minutes, end minutes of each time set
+    private final short[] times;
+
+    private EncodedLectures(ArrayList<Lecture> lectures, SymbolTable symbolTable) {
+        int length = lectures.getLength();
+        lectureNums = new String[length];
+        grades = new int[length];
+        scores = new int[length];
+        maxes = new int[length];
+        enrolled = new int[length];
+        names = new int[length];
+        professors = new int[length];
+        majors = new int[length];
+        classRooms = new int[length];
+        timeStarts = new int[length + 1];
+
+        int timeSetCount = 0;
+        for (int i = 0; i < length; i++) {
+            Lecture lecture = lectures.at(i);
+            lectureNums[i] = lecture.lectureNum;
+            grades[i] = lecture.grade;
+            scores[i] = lecture.score;
+            maxes[i] = lecture.max;
+            enrolled[i] = lecture.enrolled;
+            names[i] = intern(symbolTable, lecture.name);
+            professors[i] = intern(symbolTable, lecture.professor);
+            majors[i] = intern(symbolTable, lecture.major);
+            classRooms[i] = intern(symbolTable, lecture.classRoom);
+            timeStarts[i] = timeSetCount;
+            if (lecture.time != null)
+                timeSetCount += lecture.time.getTimeSets().getLength();
+        }
+        timeStarts[length] = timeSetCount;
+
+        times = new short[timeSetCount * 3];
+        int t = 0;
+        for (Lecture lecture : lectures) {
+            if (lecture.time == null)
+                continue;
+            for (LectureTime.TimeSet timeSet : lecture.time.getTimeSets()) {
+                times[t++] = (short) timeSet.dayOfWeek();
+                times[t++] = (short) timeSet.start().toMinutes();
+                times[t++] = (short) timeSet.end().toMinutes();
+            }
+        }
+        symbols = symbolTable.toArray();
+    }
+
+    private EncodedLectures(String[] symbols, String[] lectureNums, int[][] columns, int[] timeStarts, short[] times) {
+        this.symbols = symbols;
+        this.lectureNums = lectureNums;
+        grades = columns[0];
+        scores = columns[1];
+        maxes = columns[2];
+        enrolled = columns[3];
+        names = columns[4];
+        professors = columns[5];
+        majors = columns[6];
+        classRooms = columns[7];
+        this.timeStarts = timeStarts;
+        this.times = times;
+    }
+
+    private static int intern(SymbolTable symbolTable, String symbol) {
+        return symbol == null ? NULL : symbolTable.intern(symbol);
+    }
+
+    /**
+     * Encode lectures.
+     *
+     * @param lectures Lectures to encode.
+     * @return Encoded lectures.
+     */
+    public static EncodedLectures encode(ArrayList<Lecture> lectures) {
+        return new EncodedLectures(lectures, new SymbolTable());
+    }
+
+    private String symbol(int id) {
+        return id == NULL ? null : symbols[id];
+    }
+
+    private static LectureTime.Time toTime(int minutes) {
+        return new LectureTime.Time(minutes / 60, minutes % 60);
+    }
+
+    /**
+     * Decode lectures in encoded order.
+     *
+     * @return New lectures.
+     */
+    public ArrayList<Lecture> decode() {
+        ArrayList<Lecture> result = new ArrayList<>(lectureNums.length);
+        for (int i = 0; i < lectureNums.length; i++) {
+            Lecture lecture = new Lecture();
+            lecture.lectureNum = lectureNums[i];
+            lecture.grade = grades[i];
+            lecture.score = scores[i];
+            lecture.max = maxes[i];
+            lecture.enrolled = enrolled[i];
+            lecture.name = symbol(names[i]);
+            lecture.professor = symbol(professors[i]);
+            lecture.major = symbol(majors[i]);
+            lecture.classRoom = symbol(classRooms[i]);
+            lecture.time = new LectureTime();
+            for (int t = timeStarts[i]; t < timeStarts[i + 1]; t++)
+                lecture.time.addTimeSet(times[t * 3], toTime(times[t * 3 + 1]), toTime(times[t * 3 + 2]));
+            result.push(lecture);
+        }
+        return result;
+    }
+
+    public int getLength() {
+        return lectureNums.length;
+    }
+
+    /**
+     * Write columns for binary codec. Each column is written as varints, and times as number of time sets of each lecture.
+     */
+    public void write(ByteWriter writer) {
+        writer.writeVarInt(symbols.length);
+        for (String symbol : symbols)
+            writer.writeString(symbol);
+        writer.writeVarInt(lectureNums.length);
+        for (String lectureNum : lectureNums)
+            writer.writeString(lectureNum);
+        for (int[] column : new int[][]{grades, scores, maxes, enrolled, names, professors, majors, classRooms}) {
+            for (int value : column)
+                writer.writeInt(value);
+        }
+        for (int i = 0; i < lectureNums.length; i++)
+            writer.writeVarInt(timeStarts[i + 1] - timeStarts[i]);
+        for (short value : times)
+            writer.writeVarInt(value);
+    }
+
+    /**
+     * Read what write wrote.
+     *
+     * @throws IOException If bytes are not valid.
+     */
+    public static EncodedLectures read(ByteReader reader) throws IOException {
+        String[] symbols = new String[reader.readLength()];
+        for (int i = 0; i < symbols.length; i++)
+            symbols[i] = reader.readString();
+        int length = reader.readLength();
+        String[] lectureNums = new String[length];
+        for (int i = 0; i < length; i++)
+            lectureNums[i] = reader.readString();
+        int[][] columns = new int[8][length];
+        for (int[] column : columns) {
+            for (int i = 0; i < length; i++)
+                column[i] = reader.readInt();
+        }
+        int[] timeStarts = new int[length + 1];
+        for (int i = 0; i < length; i++)
+            timeStarts[i + 1] = timeStarts[i] + reader.readVarInt();
+        short[] times = new short[timeStarts[length] * 3];
+        for (int i = 0; i < times.length; i++)
+            times[i] = (short) reader.readVarInt();
+        return new EncodedLectures(symbols, lectureNums, columns, timeStarts, times);
+    }
+}
@@ -1,5 +1,6 @@
 package com.schedulemaster.model;
 
+import com.schedulemaster.misc.SymbolTable;
 import lombok.Getter;
 
 import java.io.Serializable;
@@ -21,6 +22,17 @@ public class Lecture implements Serializable {
     public String major;		// 개설학과 전공
 
     public static Lecture createLecture(String[] tuple) {
+        return createLecture(tuple, null);
+    }
+
+    /**
+     * Create lecture from csv tuple, sharing repeated strings through symbols.
+     *
+     * @param tuple   Csv tuple.
+     * @param symbols Symbol table holding shared strings, null not to share.
+     * @return New lecture.
+     */
+    public static Lecture createLecture(String[] tuple, SymbolTable symbols) {
         Lecture lecture = new Lecture();
         lecture.grade = parseGrade(tuple[0]);
         lecture.name = tuple[1];
@@ -35,7 +47,39 @@ public class Lecture implements Serializable {
         lecture.time = new LectureTime();
         lecture.time.addTimeSet(dayOfWeek, start, end);
         lecture.classRoom = tuple[10];
+        if (symbols != null)
+            lecture.share(symbols);
+
+        return lecture;
+    }
+
+    /**
+     * Replace name, professor, major and class room with shared instances of symbols.
+     *
+     * @param symbols Symbol table holding shared strings.
+     */
+    public void share(SymbolTable symbols) {
+        name = symbols.canonical(name);
+        professor = symbols.canonical(professor);
+        major = symbols.canonical(major);
+        classRoom = symbols.canonical(classRoom);
+    }
 
+    /**
+     * @return Copy of lecture sharing time and strings.
+     */
+    public Lecture copy() {
+        Lecture lecture = new Lecture();
+        lecture.grade = grade;
+        lecture.name = name;
+        lecture.score = score;
+        lecture.time = time;
+        lecture.professor = professor;
+        lecture.lectureNum = lectureNum;
+        lecture.max = max;
+        lecture.enrolled = enrolled;
+        lecture.classRoom = classRoom;
+        lecture.major = major;
         return lecture;
     }
 
@@ -1,26 +1,45 @@
 package com.schedulemaster.model;
 
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.misc.Hash;
 import com.schedulemaster.misc.Index;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.IntervalIndex;
+import com.schedulemaster.misc.JamoIndex;
+import com.schedulemaster.misc.NGramIndex;
+import com.schedulemaster.misc.PerfectHash;
+import com.schedulemaster.misc.SortedIndex;
+
+import java.util.BitSet;
+import java.util.Objects;
 
 /**
  * LectureBook contains lectures and indexes of lectures.
- * All indexes are using Attribute type as String.
+ * All indexes are using Attribute type as String. Range indexes use int keys.
  *
  * @author lalaalal
  */
 public class LectureBook {
-    private LinkedList<Lecture> lectures;
-    private final Hash<String, Lecture> lectureHash = new Hash<>();
+    /**
+     * Scans over this many lectures are split across cores.
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
+
+    private ArrayList<Lecture> lectures;
+    // lecture number -> position in lectures (dense id)
+    private PerfectHash<String> lectureIds;
 
     private final Hash<String, Index<String, Lecture>> indexes;
+    private final Hash<String, SortedIndex<Lecture>> rangeIndexes = new Hash<>();
+    private final Hash<String, NGramIndex<Lecture>> textIndexes = new Hash<>();
+    private final Hash<String, JamoIndex<Lecture>> jamoIndexes = new Hash<>();
+    private final Hash<String, IntervalIndex<Lecture>> intervalIndexes = new Hash<>();
+    // built on first use
+    private LectureColumns columns = null;
+    private ConflictGraph conflictGraph = null;
 
-    public LectureBook(LinkedList<Lecture> lectures) {
+    public LectureBook(ArrayList<Lecture> lectures) {
         this.lectures = lectures;
-        for (Lecture lecture : lectures) {
-            lectureHash.put(lecture.lectureNum, lecture);
-        }
+        this.lectureIds = createLectureIds(lectures);
         this.indexes = new Hash<>();
     }
 
@@ -35,7 +54,52 @@ public class LectureBook {
         indexes.put(attributeName, index);
     }
 
-    public LinkedList<String> getIndexAttributes(String attributeName) {
+    /**
+     * Add an ordered index able to find lectures by range of int key.
+     *
+     * @param attributeName Name(alias) of attribute not a real value.
+     * @param selector      Key selector. A lecture may have several keys.
+     */
+    public void addRangeIndex(String attributeName, SortedIndex.KeySelector<Lecture> selector) {
+        SortedIndex<Lecture> index = new SortedIndex<>(lectures, selector);
+        rangeIndexes.put(attributeName, index);
+    }
+
+    /**
+     * Add an index able to find lectures by part of text attribute.
+     *
+     * @param attributeName Name(alias) of attribute not a real value.
+     * @param selector      Text attribute selector.
+     */
+    public void addTextIndex(String attributeName, Index.AttributeSelector<String, Lecture> selector) {
+        NGramIndex<Lecture> index = new NGramIndex<>(lectures, selector);
+        textIndexes.put(attributeName, index);
+    }
+
+    /**
+     * Add a Korean aware text index, supporting chosung query and syllable being typed.
+     * Decomposition is done once here, and reused for unchanged values in setLectures.
+     *
+     * @param attributeName Name(alias) of attribute not a real value.
+     * @param selector      Text attribute selector.
+     */
+    public void addJamoIndex(String attributeName, Index.AttributeSelector<String, Lecture> selector) {
+        JamoIndex<Lecture> index = new JamoIndex<>(lectures, selector);
+        jamoIndexes.put(attributeName, index);
+    }
+
+    /**
+     * Add an index able to find lectures overlapping or lying within ranges of int intervals (ex. time).
+     *
+     * @param attributeName Name(alias) of attribute not a real value.
+     * @param selector      Interval selector. A lecture may have several intervals.
+     */
+    public void addIntervalIndex(String attributeName, IntervalIndex.IntervalSelector<Lecture> selector) {
+        IntervalIndex<Lecture> index = new IntervalIndex<>(lectures, selector);
+        intervalIndexes.put(attributeName, index);
+    }
+
+    public ArrayList<String> getIndexAttributes(String attributeName) {
         return indexes.get(attributeName).getAttributes();
     }
 
@@ -46,11 +110,147 @@ public class LectureBook {
      * @param value         Attribute value to compare.
      * @return Matching lectures.
      */
-    public LinkedList<Lecture> findLectures(String attributeName, String value) {
+    public ArrayList<Lecture> findLectures(String attributeName, String value) {
         Index<String, Lecture> index = indexes.get(attributeName);
         return index.get(value);
     }
 
+    /**
+     * Find lectures using range index, in key order.
+     *
+     * @param attributeName Name of range attribute to search.
+     * @param from          Lowest key, inclusive.
+     * @param to            Highest key, inclusive.
+     * @return Matching lectures.
+     */
+    public ArrayList<Lecture> findLecturesInRange(String attributeName, int from, int to) {
+        SortedIndex<Lecture> index = rangeIndexes.get(attributeName);
+        return index.range(from, to);
+    }
+
+    /**
+     * Find lectures having an interval overlapping any of ranges, using interval index.
+     *
+     * @param attributeName Name of interval attribute to search.
+     * @param ranges        Ranges as {start0, end0, start1, end1, ...}, each of [start, end).
+     * @return Matching lectures in order of getLectures.
+     */
+    public ArrayList<Lecture> findLecturesOverlapping(String attributeName, int[] ranges) {
+        return intervalIndexes.get(attributeName).findOverlapping(ranges);
+    }
+
+    /**
+     * Same as findLecturesOverlapping, but returns ids (see getLectureId).
+     *
+     * @return Sorted ids of matching lectures.
+     */
+    public int[] findLectureIdsOverlapping(String attributeName, int[] ranges) {
+        return intervalIndexes.get(attributeName).overlappingIds(ranges);
+    }
+
+    /**
+     * Find lectures whose every interval lies within ranges, using interval index.
+     *
+     * @param attributeName Name of interval attribute to search.
+     * @param ranges        Ranges as {start0, end0, start1, end1, ...}, each of [start, end).
+     * @return Matching lectures in order of getLectures.
+     */
+    public ArrayList<Lecture> findLecturesWithin(String attributeName, int[] ranges) {
+        return intervalIndexes.get(attributeName).findWithin(ranges);
+    }
+
+    /**
+     * Find lectures whose attribute contains text, ignoring case.
+     * Uses jamo index if attribute has one, or text index.
+     *
+     * @param attributeName Name of text attribute to search.
+     * @param text          Part of attribute value.
+     * @return Matching lectures.
+     */
+    public ArrayList<Lecture> searchLectures(String attributeName, String text) {
+        JamoIndex<Lecture> jamoIndex = jamoIndexes.get(attributeName);
+        if (jamoIndex != null)
+            return jamoIndex.search(text);
+        NGramIndex<Lecture> index = textIndexes.get(attributeName);
+        return index.search(text);
+    }
+
+    /**
+     * Find lectures matching query. Query is planned by estimates of indexes,
+     * so only the most selective predicate uses its index and the rest are checked on its result.
+     *
+     * @param query Query made of predicates of LectureQuery.
+     * @return Matching lectures in order of getLectures.
+     */
+    public ArrayList<Lecture> query(LectureQuery query) {
+        int[] ids = query.ids(this);
+        ArrayList<Lecture> result = new ArrayList<>(ids.length);
+        for (int id : ids)
+            result.push(lectures.at(id));
+        return result;
+    }
+
+    /**
+     * Same as query, but returns ids (see getLectureId).
+     *
+     * @return Sorted ids of matching lectures.
+     */
+    public int[] queryIds(LectureQuery query) {
+        return query.ids(this);
+    }
+
+    Index<String, Lecture> getIndex(String attributeName) {
+        return indexes.get(attributeName);
+    }
+
+    SortedIndex<Lecture> getRangeIndex(String attributeName) {
+        return rangeIndexes.get(attributeName);
+    }
+
+    NGramIndex<Lecture> getTextIndex(String attributeName) {
+        return textIndexes.get(attributeName);
+    }
+
+    JamoIndex<Lecture> getJamoIndex(String attributeName) {
+        return jamoIndexes.get(attributeName);
+    }
+
+    IntervalIndex<Lecture> getIntervalIndex(String attributeName) {
+        return intervalIndexes.get(attributeName);
+    }
+
+    /**
+     * Find every lecture not conflicting with time, checking all lectures at once.
+     *
+     * @param time Used time.
+     * @return Set of ids (see getLectureId) of lectures not conflicting with time.
+     */
+    public BitSet findFitting(LectureTime time) {
+        return getColumns().findFitting(time);
+    }
+
+    /**
+     * Get lectures in columns, for scans over all lectures. Ids are same as getLectureId.
+     *
+     * @return Columns, built on first call after lectures are changed.
+     */
+    public LectureColumns getColumns() {
+        if (columns == null)
+            columns = new LectureColumns(lectures);
+        return columns;
+    }
+
+    /**
+     * Get conflict graph of lectures, whose ids are same as getLectureId.
+     *
+     * @return Conflict graph, built on first call after lectures are changed.
+     */
+    public ConflictGraph getConflictGraph() {
+        if (conflictGraph == null)
+            conflictGraph = new ConflictGraph(lectures);
+        return conflictGraph;
+    }
+
     /**
      * Find lecture with lecture number.
      *
@@ -58,15 +258,48 @@ public class LectureBook {
      * @return Matching lecture.
      */
     public Lecture findLecture(String lectureNum) {
-        return lectureHash.get(lectureNum);
+        int id = lectureIds.indexOf(lectureNum);
+        return id < 0 ? null : lectures.at(id);
     }
 
-    public LinkedList<Lecture> findWithComparator(Comparator comparator) {
+    /**
+     * Get dense id of lecture, which is position in getLectures. Changes when lectures are changed.
+     *
+     * @param lectureNum Lecture number to search.
+     * @return Id of lecture, -1 if not found.
+     */
+    public int getLectureId(String lectureNum) {
+        return lectureIds.indexOf(lectureNum);
+    }
+
+    private int getId(Lecture lecture) {
+        return lectureIds.indexOf(lecture.lectureNum);
+    }
+
+    private static PerfectHash<String> createLectureIds(ArrayList<Lecture> lectures) {
+        ArrayList<String> lectureNums = new ArrayList<>(lectures.getLength());
+        for (Lecture lecture : lectures)
+            lectureNums.push(lecture.lectureNum);
+        return new PerfectHash<>(lectureNums);
+    }
+
+    public ArrayList<Lecture> findWithComparator(Comparator comparator) {
         return findWithComparator(getLectures(), comparator);
     }
 
-    public static LinkedList<Lecture> findWithComparator(LinkedList<Lecture> source, Comparator comparator) {
-        LinkedList<Lecture> result = new LinkedList<>();
+    /**
+     * Find lectures matching comparator, keeping order of source.
+     * Large sources are scanned in parallel, so comparator should not have side effects.
+     *
+     * @param source     Lectures to scan.
+     * @param comparator Condition of lecture.
+     * @return Matching lectures.
+     */
+    public static ArrayList<Lecture> findWithComparator(ArrayList<Lecture> source, Comparator comparator) {
+        if (source.getLength() >= PARALLEL_THRESHOLD)
+            return source.parallelStream().filter(comparator::compare).collect(ArrayList.collector());
+
+        ArrayList<Lecture> result = new ArrayList<>();
         for (Lecture lecture : source) {
             if (comparator.compare(lecture))
                 result.push(lecture);
@@ -79,7 +312,7 @@ public class LectureBook {
      *
      * @return Entire lectures.
      */
-    public LinkedList<Lecture> getLectures() {
+    public ArrayList<Lecture> getLectures() {
         return lectures;
     }
 
@@ -88,15 +321,134 @@ public class LectureBook {
      *
      * @param lectures New lectures.
      */
-    public void setLectures(LinkedList<Lecture> lectures) {
+    public void setLectures(ArrayList<Lecture> lectures) {
         this.lectures = lectures;
         for (Index<String, Lecture> index : indexes) {
             index.changeTable(lectures);
         }
-        lectureHash.clear();
+        for (SortedIndex<Lecture> index : rangeIndexes) {
+            index.changeTable(lectures);
+        }
+        for (NGramIndex<Lecture> index : textIndexes) {
+            index.changeTable(lectures);
+        }
+        for (JamoIndex<Lecture> index : jamoIndexes) {
+            index.changeTable(lectures);
+        }
+        for (IntervalIndex<Lecture> index : intervalIndexes) {
+            index.changeTable(lectures);
+        }
+        lectureIds = createLectureIds(lectures);
+        columns = null;
+        conflictGraph = null;
+    }
+
+    /**
+     * Apply new lectures by difference, instead of rebuilding like setLectures.
+     * Lectures are matched by lecture number and changed lectures are patched in place, so ids and references are kept.
+     * If only max or enrolled changed, no index is touched.
+     * If other attributes changed, every index and columns update only those lectures.
+     * Falls back to setLectures if lecture numbers are not the same.
+     *
+     * @param lectures New lectures.
+     * @return Changed lectures, entire lectures if fell back to setLectures.
+     */
+    public ArrayList<Lecture> updateLectures(ArrayList<Lecture> lectures) {
+        if (!hasSameLectureNums(lectures)) {
+            setLectures(lectures);
+            return lectures;
+        }
+
+        ArrayList<Lecture> changed = new ArrayList<>();
+        ArrayList<Integer> changedIds = new ArrayList<>();
+        ArrayList<Integer> timeChangedIds = new ArrayList<>();
         for (Lecture lecture : lectures) {
-            lectureHash.put(lecture.lectureNum, lecture);
+            int id = lectureIds.indexOf(lecture.lectureNum);
+            Lecture current = this.lectures.at(id);
+            if (hasSameAttributes(current, lecture)) {
+                if (current.max == lecture.max && current.enrolled == lecture.enrolled)
+                    continue;
+                current.max = lecture.max;
+                current.enrolled = lecture.enrolled;
+                if (columns != null)
+                    columns.updateCounts(id);
+                changed.push(current);
+                continue;
+            }
+
+            changedIds.push(id);
+            if (!Objects.equals(current.time, lecture.time))
+                timeChangedIds.push(id);
+            for (Index<String, Lecture> index : indexes)
+                index.remove(current);
+            for (SortedIndex<Lecture> index : rangeIndexes)
+                index.remove(current);
+            copyAttributes(current, lecture);
+            // placed by id, so results stay in order of lectures as after setLectures
+            for (Index<String, Lecture> index : indexes)
+                index.add(current, this::getId);
+            for (SortedIndex<Lecture> index : rangeIndexes)
+                index.add(current, this::getId);
+            for (NGramIndex<Lecture> index : textIndexes)
+                index.update(id, current);
+            for (JamoIndex<Lecture> index : jamoIndexes)
+                index.update(id, current);
+            if (columns != null)
+                columns.update(id);
+            changed.push(current);
         }
+
+        // interval selector may read any attribute, so every changed lecture is selected again
+        if (!changedIds.isEmpty()) {
+            int[] ids = toIntArray(changedIds);
+            for (IntervalIndex<Lecture> index : intervalIndexes)
+                index.update(ids);
+        }
+        if (conflictGraph != null && !timeChangedIds.isEmpty())
+            conflictGraph = conflictGraph.update(this.lectures, toIntArray(timeChangedIds));
+        return changed;
+    }
+
+    private static int[] toIntArray(ArrayList<Integer> values) {
+        int[] result = new int[values.getLength()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = values.at(i);
+        return result;
+    }
+
+    private boolean hasSameLectureNums(ArrayList<Lecture> lectures) {
+        if (lectures.getLength() != this.lectures.getLength())
+            return false;
+        BitSet found = new BitSet(lectures.getLength());
+        for (Lecture lecture : lectures) {
+            int id = lectureIds.indexOf(lecture.lectureNum);
+            if (id < 0 || found.get(id))
+                return false;
+            found.set(id);
+        }
+        return true;
+    }
+
+    // every attribute except max and enrolled
+    private static boolean hasSameAttributes(Lecture a, Lecture b) {
+        return a.grade == b.grade && a.score == b.score
+                && Objects.equals(a.name, b.name)
+                && Objects.equals(a.professor, b.professor)
+                && Objects.equals(a.major, b.major)
+                && Objects.equals(a.classRoom, b.classRoom)
+                && Objects.equals(a.time, b.time);
+    }
+
+    private static void copyAttributes(Lecture target, Lecture source) {
+        target.grade = source.grade;
+        target.name = source.name;
+        target.score = source.score;
+        target.time = source.time;
+        target.professor = source.professor;
+        target.max = source.max;
+        target.enrolled = source.enrolled;
+        target.classRoom = source.classRoom;
+        target.major = source.major;
     }
 
     public interface Comparator {
@@ -0,0 +1,180 @@
+package com.schedulemaster.model;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.SymbolTable;
+
+import java.util.BitSet;
+
+/**
+ * Lectures stored as columns (struct of arrays). Each int attribute is an int array, each text attribute
+ * is an array of dictionary ids, and times are packed masks in ConflictFilter.
+ * Predicates scan one array from start to end without touching Lecture objects, and return set of ids.
+ * Lecture objects are only read back for ids to display. Id of lecture is its position in list given at build time.
+ * Built once, and follows later changes of lectures only by update and updateCounts.
+ *
+ * @author lalaalal
+ */
+public class LectureColumns {
+    public enum IntColumn {
+        Grade, Score, Max, Enrolled
+    }
+
+    public enum TextColumn {
+        Name, Professor, Major, ClassRoom
+    }
+
+    private static final int NULL = -1;
+
+    private final ArrayList<Lecture> lectures;
+    private final int length;
+    private final int[][] intColumns = new int[IntColumn.values().length][];
+    private final int[][] textColumns = new int[TextColumn.values().length][];
+    private final SymbolTable symbols = new SymbolTable();
+    private final ConflictFilter conflictFilter;
+
+    /**
+     * Build columns of lectures.
+     *
+     * @param lectures Lectures. Id of lecture is its position in lectures.
+     */
+    public LectureColumns(ArrayList<Lecture> lectures) {
+        this.lectures = lectures;
+        length = lectures.getLength();
+        for (int i = 0; i < intColumns.length; i++)
+            intColumns[i] = new int[length];
+        for (int i = 0; i < textColumns.length; i++)
+            textColumns[i] = new int[length];
+
+        for (int id = 0; id < length; id++)
+            readAttributes(id);
+        conflictFilter = new ConflictFilter(lectures);
+    }
+
+    private void readAttributes(int id) {
+        Lecture lecture = lectures.at(id);
+        intColumns[IntColumn.Grade.ordinal()][id] = lecture.grade;
+        intColumns[IntColumn.Score.ordinal()][id] = lecture.score;
+        intColumns[IntColumn.Max.ordinal()][id] = lecture.max;
+        intColumns[IntColumn.Enrolled.ordinal()][id] = lecture.enrolled;
+        textColumns[TextColumn.Name.ordinal()][id] = intern(lecture.name);
+        textColumns[TextColumn.Professor.ordinal()][id] = intern(lecture.professor);
+        textColumns[TextColumn.Major.ordinal()][id] = intern(lecture.major);
+        textColumns[TextColumn.ClassRoom.ordinal()][id] = intern(lecture.classRoom);
+    }
+
+    private int intern(String text) {
+        return text == null ? NULL : symbols.intern(text);
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getInt(IntColumn column, int id) {
+        return intColumns[column.ordinal()][id];
+    }
+
+    public String getText(TextColumn column, int id) {
+        int symbol = textColumns[column.ordinal()][id];
+        return symbol == NULL ? null : symbols.get(symbol);
+    }
+
+    /**
+     * Read max and enrolled of lecture again, after they are changed in place.
+     *
+     * @param id Id of changed lecture.
+     */
+    public void updateCounts(int id) {
+        Lecture lecture = lectures.at(id);
+        intColumns[IntColumn.Max.ordinal()][id] = lecture.max;
+        intColumns[IntColumn.Enrolled.ordinal()][id] = lecture.enrolled;
+    }
+
+    /**
+     * Read every attribute of lecture again, after it is changed in place.
+     *
+     * @param id Id of changed lecture.
+     */
+    public void update(int id) {
+        readAttributes(id);
+        conflictFilter.update(id);
+    }
+
+    /**
+     * Find lectures whose int attribute is in [from, to].
+     *
+     * @return Set of ids.
+     */
+    public BitSet inRange(IntColumn column, int from, int to) {
+        int[] values = intColumns[column.ordinal()];
+        long[] words = new long[(length + 63) >>> 6];
+        for (int id = 0; id < length; id++) {
+            long match = (values[id] >= from && values[id] <= to) ? 1L : 0L;
+            words[id >>> 6] |= match << id;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Find lectures whose text attribute equals text. Compares dictionary ids only.
+     *
+     * @return Set of ids.
+     */
+    public BitSet equalTo(TextColumn column, String text) {
+        int symbol = text == null ? NULL : symbols.indexOf(text);
+        if (text != null && symbol < 0)
+            return new BitSet();
+        int[] values = textColumns[column.ordinal()];
+        long[] words = new long[(length + 63) >>> 6];
+        for (int id = 0; id < length; id++) {
+            long match = values[id] == symbol ? 1L : 0L;
+            words[id >>> 6] |= match << id;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Find lectures still able to enroll.
+     *
+     * @return Set of ids whose enrolled is less than max.
+     */
+    public BitSet notFull() {
+        int[] max = intColumns[IntColumn.Max.ordinal()];
+        int[] enrolled = intColumns[IntColumn.Enrolled.ordinal()];
+        long[] words = new long[(length + 63) >>> 6];
+        for (int id = 0; id < length; id++) {
+            long match = enrolled[id] < max[id] ? 1L : 0L;
+            words[id >>> 6] |= match << id;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Find lectures not conflicting with time, using packed time masks.
+     *
+     * @return Set of ids.
+     */
+    public BitSet findFitting(LectureTime time) {
+        return conflictFilter.findFitting(time);
+    }
+
+    /**
+     * @return Lecture of id, for display.
+     */
+    public Lecture get(int id) {
+        return lectures.at(id);
+    }
+
+    /**
+     * Read back lectures of ids, for display.
+     *
+     * @param ids Set of ids.
+     * @return Lectures in order of ids.
+     */
+    public ArrayList<Lecture> materialize(BitSet ids) {
+        ArrayList<Lecture> result = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0 && id < length; id = ids.nextSetBit(id + 1))
+            result.push(lectures.at(id));
+        return result;
+    }
+}
@@ -1,29 +1,23 @@
 package com.schedulemaster.model;
 
-import com.schedulemaster.misc.Hash;
-import com.schedulemaster.misc.Heap;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.IntHeap;
+import com.schedulemaster.misc.ObjectIntHash;
 
 /**
- * An LinkedList type of String. LectureGroup should contain only lecture number.
+ * An ArrayList type of String. LectureGroup should contain only lecture number.
  *
  * @author lalaalal
  */
-public class LectureGroup extends LinkedList<String> {
+public class LectureGroup extends ArrayList<String> {
 
     /**
-     * Create a priority queue (Heap) using priorities.
+     * Create a priority queue (Heap) of lecture numbers using priorities. Higher priority comes first.
      *
      * @param priorities Priorities of each lecture.
      * @return Priority queue.
      */
-    public Heap<Priority> createHeap(Hash<String, Integer> priorities) {
-        Heap<Priority> heap = new Heap<>(Heap.Comparator.maxHeapInt(Priority::priority));
-        for (String lectureNum : this) {
-            int priority = priorities.get(lectureNum);
-            heap.insert(new Priority(priority, lectureNum));
-        }
-
-        return heap;
+    public IntHeap<String> createHeap(ObjectIntHash<String> priorities) {
+        return IntHeap.heapify(this, priorities::get, true);
     }
 }
@@ -0,0 +1,384 @@
+package com.schedulemaster.model;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.IntervalIndex;
+import com.schedulemaster.misc.JamoIndex;
+import com.schedulemaster.misc.NGramIndex;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Query over lectures of LectureBook, made of attribute, range, text and time predicates joined with and / or.
+ * Each predicate can estimate its number of matches from its index, find ids with its index, and check a single lecture.
+ * And is planned at run time: the indexed predicate with the smallest estimate finds candidates,
+ * other predicates with a smaller estimate than candidates are intersected,
+ * and the rest are checked only on candidates. So a query costs about its most selective predicate, not the whole table.
+ * Names of attributes are the names used to add indexes to LectureBook.
+ *
+ * @author lalaalal
+ */
+public abstract class LectureQuery {
+    static final int UNKNOWN = Integer.MAX_VALUE;
+
+    /**
+     * @return Estimated number of matching lectures, UNKNOWN if it can't be told without scanning.
+     */
+    abstract int estimate(LectureBook book);
+
+    /**
+     * @return True if ids can be found without checking every lecture.
+     */
+    abstract boolean isIndexed(LectureBook book);
+
+    /**
+     * @return Sorted ids of matching lectures.
+     */
+    abstract int[] ids(LectureBook book);
+
+    abstract boolean matches(LectureBook book, Lecture lecture);
+
+    /**
+     * Attribute equals value. Attribute should have index.
+     */
+    public static LectureQuery equalTo(String attributeName, String value) {
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                ArrayList<Lecture> lectures = book.getIndex(attributeName).get(value);
+                return lectures == null ? 0 : lectures.getLength();
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                return true;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                return toIds(book, book.getIndex(attributeName).get(value));
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                return Objects.equals(book.getIndex(attributeName).getAttribute(lecture), value);
+            }
+        };
+    }
+
+    /**
+     * A key of attribute is in [from, to]. Attribute should have range index.
+     */
+    public static LectureQuery inRange(String attributeName, int from, int to) {
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                return book.getRangeIndex(attributeName).estimateRange(from, to);
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                return true;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                return toIds(book, book.getRangeIndex(attributeName).range(from, to));
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                return book.getRangeIndex(attributeName).hasKeyInRange(lecture, from, to);
+            }
+        };
+    }
+
+    /**
+     * Attribute contains text. Attribute should have jamo index or text index.
+     */
+    public static LectureQuery contains(String attributeName, String text) {
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                JamoIndex<Lecture> jamoIndex = book.getJamoIndex(attributeName);
+                if (jamoIndex != null)
+                    return jamoIndex.estimate(text);
+                return book.getTextIndex(attributeName).estimate(text);
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                return true;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                JamoIndex<Lecture> jamoIndex = book.getJamoIndex(attributeName);
+                if (jamoIndex != null)
+                    return jamoIndex.searchIds(text);
+                return book.getTextIndex(attributeName).searchIds(text);
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                JamoIndex<Lecture> jamoIndex = book.getJamoIndex(attributeName);
+                if (jamoIndex != null)
+                    return jamoIndex.matches(lecture, text);
+                NGramIndex<Lecture> textIndex = book.getTextIndex(attributeName);
+                return textIndex.matches(lecture, text);
+            }
+        };
+    }
+
+    /**
+     * An interval of attribute overlaps time. Attribute should have interval index of minute of week.
+     */
+    public static LectureQuery overlapping(String attributeName, LectureTime time) {
+        int[] ranges = time.getIntervals();
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                return book.getIntervalIndex(attributeName).estimateOverlapping(ranges);
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                return true;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                return book.getIntervalIndex(attributeName).overlappingIds(ranges);
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                IntervalIndex<Lecture> index = book.getIntervalIndex(attributeName);
+                return index.overlaps(lecture, ranges);
+            }
+        };
+    }
+
+    /**
+     * Lecture doesn't conflict with time. Finding ids scans packed masks of all lectures,
+     * so it is checked on candidates if any other predicate has index.
+     */
+    public static LectureQuery fitting(LectureTime time) {
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                return UNKNOWN;
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                return true;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                return book.findFitting(time).stream().toArray();
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                return !lecture.time.conflictWith(time);
+            }
+        };
+    }
+
+    /**
+     * Lecture matches comparator. Never uses index.
+     */
+    public static LectureQuery where(LectureBook.Comparator comparator) {
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                return UNKNOWN;
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                return false;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                return scan(book, this);
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                return comparator.compare(lecture);
+            }
+        };
+    }
+
+    /**
+     * Lecture matches all queries.
+     */
+    public static LectureQuery and(LectureQuery... queries) {
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                int result = UNKNOWN;
+                for (LectureQuery query : queries)
+                    result = Math.min(result, query.estimate(book));
+                return result;
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                for (LectureQuery query : queries) {
+                    if (query.isIndexed(book))
+                        return true;
+                }
+                return false;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                // most selective first
+                int[] estimates = new int[queries.length];
+                Integer[] order = new Integer[queries.length];
+                for (int i = 0; i < queries.length; i++) {
+                    estimates[i] = queries[i].estimate(book);
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> Integer.compare(estimates[a], estimates[b]));
+
+                LectureQuery driver = null;
+                for (int i : order) {
+                    if (queries[i].isIndexed(book)) {
+                        driver = queries[i];
+                        break;
+                    }
+                }
+                if (driver == null)
+                    return scan(book, this);
+
+                int[] candidates = driver.ids(book);
+                int length = candidates.length;
+                for (int i : order) {
+                    LectureQuery query = queries[i];
+                    if (query == driver || length == 0)
+                        continue;
+                    if (query.isIndexed(book) && estimates[i] <= length) {
+                        length = intersect(candidates, length, query.ids(book));
+                        continue;
+                    }
+                    int kept = 0;
+                    for (int j = 0; j < length; j++) {
+                        if (query.matches(book, book.getLectures().at(candidates[j])))
+                            candidates[kept++] = candidates[j];
+                    }
+                    length = kept;
+                }
+                return Arrays.copyOf(candidates, length);
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                for (LectureQuery query : queries) {
+                    if (!query.matches(book, lecture))
+                        return false;
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Lecture matches any of queries. Uses indexes only if every query has index.
+     */
+    public static LectureQuery or(LectureQuery... queries) {
+        return new LectureQuery() {
+            @Override
+            int estimate(LectureBook book) {
+                long result = 0;
+                for (LectureQuery query : queries)
+                    result += query.estimate(book);
+                return (int) Math.min(result, UNKNOWN);
+            }
+
+            @Override
+            boolean isIndexed(LectureBook book) {
+                for (LectureQuery query : queries) {
+                    if (!query.isIndexed(book))
+                        return false;
+                }
+                return true;
+            }
+
+            @Override
+            int[] ids(LectureBook book) {
+                if (!isIndexed(book))
+                    return scan(book, this);
+                BitSet result = new BitSet();
+                for (LectureQuery query : queries) {
+                    for (int id : query.ids(book))
+                        result.set(id);
+                }
+                return result.stream().toArray();
+            }
+
+            @Override
+            boolean matches(LectureBook book, Lecture lecture) {
+                for (LectureQuery query : queries) {
+                    if (query.matches(book, lecture))
+                        return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static int[] toIds(LectureBook book, ArrayList<Lecture> lectures) {
+        if (lectures == null)
+            return new int[0];
+        int[] result = new int[lectures.getLength()];
+        int length = 0;
+        for (Lecture lecture : lectures) {
+            int id = book.getLectureId(lecture.lectureNum);
+            if (id >= 0)
+                result[length++] = id;
+        }
+        result = Arrays.copyOf(result, length);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int[] scan(LectureBook book, LectureQuery query) {
+        ArrayList<Lecture> lectures = book.getLectures();
+        int[] result = new int[lectures.getLength()];
+        int length = 0;
+        for (int id = 0; id < lectures.getLength(); id++) {
+            if (query.matches(book, lectures.at(id)))
+                result[length++] = id;
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    /**
+     * Keep ids in result that are also in ids. Both are sorted.
+     *
+     * @return New length of result.
+     */
+    private static int intersect(int[] result, int length, int[] ids) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < length && j < ids.length; ) {
+            if (result[i] < ids[j]) {
+                i++;
+            } else if (result[i] > ids[j]) {
+                j++;
+            } else {
+                result[kept++] = result[i];
+                i++;
+                j++;
+            }
+        }
+        return kept;
+    }
+}
@@ -19,6 +19,13 @@ public class LectureTime implements Serializable {
                     || (this.hour == time.hour && this.minute < time.minute);
         }
 
+        /**
+         * @return Minutes from 00:00.
+         */
+        public int toMinutes() {
+            return hour * 60 + minute;
+        }
+
         public static Time parseTime(String time) {
             String[] hourAndMinute = time.split(":");
             int hour = Integer.parseInt(hourAndMinute[0]);
@@ -53,13 +60,23 @@ public class LectureTime implements Serializable {
 
     public record TimeSet(int dayOfWeek, Time start, Time end) implements Serializable {
         public static final long serialVersionUID = 13L;
+        /**
+         * Empty time sets conflict with nothing, same as masks and interval of minute of week.
+         */
         public boolean conflictWith(TimeSet timeSet) {
-            return this.dayOfWeek == timeSet.dayOfWeek
+            return this.dayOfWeek == timeSet.dayOfWeek && !isEmpty() && !timeSet.isEmpty()
                     && ((start.isAfter(timeSet.start) && start.isBefore(timeSet.end))
                     || (end.isAfter(timeSet.start) && end.isBefore(timeSet.end))
                     || include(timeSet) || timeSet.include(this));
         }
 
+        /**
+         * @return True if time set has no time, ending at or before its start.
+         */
+        public boolean isEmpty() {
+            return !end.isAfter(start);
+        }
+
         public boolean include(TimeSet timeSet) {
             return this.dayOfWeek == timeSet.dayOfWeek
                     && ((start.isBefore(timeSet.start) || start.equals(timeSet.start))
@@ -93,8 +110,49 @@ public class LectureTime implements Serializable {
     }
 
     public static final String[] DAY_OF_WEEK = { "월", "화", "수", "목", "금", "토" };
+    public static final int MINUTES_OF_DAY = 24 * 60;
+
+    /**
+     * Time as a single int, ordered by day of week and then time. Used as key of range index.
+     *
+     * @return dayOfWeek * MINUTES_OF_DAY + minutes from 00:00.
+     */
+    public static int toMinuteOfWeek(int dayOfWeek, Time time) {
+        return dayOfWeek * MINUTES_OF_DAY + time.toMinutes();
+    }
+
+    /**
+     * Start time of each time set, as minutes from 00:00 regardless of day. Used as keys of range index,
+     * so "starts after 13:00" is a single range.
+     *
+     * @return Minute of day of each start.
+     */
+    public int[] getStartMinutes() {
+        int[] result = new int[timeSets.getLength()];
+        int i = 0;
+        for (TimeSet timeSet : timeSets)
+            result[i++] = timeSet.start().toMinutes();
+        return result;
+    }
+
+    /**
+     * Time sets as half open intervals of minute of week. Used as intervals of interval index.
+     *
+     * @return {start0, end0, start1, end1, ...}.
+     */
+    public int[] getIntervals() {
+        int[] result = new int[timeSets.getLength() * 2];
+        int i = 0;
+        for (TimeSet timeSet : timeSets) {
+            result[i++] = toMinuteOfWeek(timeSet.dayOfWeek(), timeSet.start());
+            result[i++] = toMinuteOfWeek(timeSet.dayOfWeek(), timeSet.end());
+        }
+        return result;
+    }
 
     private final LinkedList<TimeSet> timeSets = new LinkedList<>();
+    // built on first use, dropped when time sets change
+    private transient volatile TimeMask mask;
 
     public static int findDayOfWeek(String dayOfWeek) {
         for (int i = 0; i < DAY_OF_WEEK.length; i++) {
@@ -105,26 +163,56 @@ public class LectureTime implements Serializable {
         return -1;
     }
 
+    /**
+     * @return Time sets. Read only, change with addTimeSet and removeTimeSet so mask stays valid.
+     */
     public LinkedList<TimeSet> getTimeSets() {
         return timeSets;
     }
 
+    /**
+     * @return Bitmask of time sets, built once and cached.
+     */
+    public TimeMask getMask() {
+        TimeMask result = mask;
+        if (result == null) {
+            result = TimeMask.of(timeSets);
+            mask = result;
+        }
+        return result;
+    }
+
     public void addTimeSet(int dayOfWeek, Time start, Time end) {
         if (!(0 <= dayOfWeek && dayOfWeek < DAY_OF_WEEK.length))
             throw new RuntimeException("Invalid value; dayOfWeek is " + dayOfWeek);
         timeSets.push(new TimeSet(dayOfWeek, start, end));
+        mask = null;
     }
 
     public void addTimeSet(TimeSet timeset) {
         if (!(0 <= timeset.dayOfWeek && timeset.dayOfWeek < DAY_OF_WEEK.length))
             throw new RuntimeException("Invalid value; dayOfWeek is " + timeset.dayOfWeek);
         timeSets.push(timeset);
+        mask = null;
     }
 
     public void addTimeSets(LinkedList<TimeSet> timeSets) {
         for (TimeSet timeSet : timeSets) {
             this.timeSets.push(timeSet);
         }
+        mask = null;
+    }
+
+    /**
+     * Add all time sets of lectureTime. Mask becomes union of both masks without rebuilding.
+     *
+     * @param lectureTime Time to add.
+     */
+    public void addAll(LectureTime lectureTime) {
+        TimeMask union = getMask().or(lectureTime.getMask());
+        for (TimeSet timeSet : lectureTime.timeSets)
+            timeSets.push(timeSet);
+        mask = union;
     }
 
     public boolean hasTimeSet(int dayOfWeek, Time start, Time end) {
@@ -140,15 +228,28 @@ public class LectureTime implements Serializable {
     }
 
     public void removeTimeSet(TimeSet timeSet) {
-        if (timeSets.has(timeSet))
+        if (timeSets.has(timeSet)) {
             timeSets.remove(timeSet);
+            mask = null;
+        }
     }
 
     public void clear() {
         timeSets.clear();
+        mask = null;
     }
 
+    /**
+     * Check if any time overlaps. Decided by mask, unless masks overlap and a time is not on slot boundary.
+     */
     public boolean conflictWith(LectureTime lectureTime) {
+        TimeMask mine = getMask();
+        TimeMask other = lectureTime.getMask();
+        if (!mine.intersects(other))
+            return false;
+        if (mine.isExact() && other.isExact())
+            return true;
+
         for (TimeSet timeSet : timeSets) {
             for (TimeSet compare : lectureTime.timeSets) {
                 if (timeSet.conflictWith(compare))
@@ -159,12 +260,37 @@ public class LectureTime implements Serializable {
         return false;
     }
 
+    /**
+     * Check if every time of lectureTime is covered by this time.
+     */
     public boolean include(LectureTime lectureTime) {
-        for (TimeSet timeSet : timeSets) {
-            for (TimeSet compare : lectureTime.timeSets) {
-                if (timeSet.dayOfWeek == compare.dayOfWeek && !timeSet.include(compare))
-                    return false;
+        TimeMask mine = getMask();
+        TimeMask other = lectureTime.getMask();
+        if (mine.isExact() && other.isExact())
+            return mine.covers(other);
+
+        for (TimeSet compare : lectureTime.timeSets) {
+            if (!covers(compare))
+                return false;
+        }
+
+        return true;
+    }
+
+    // walk through compare, jumping to the end of time set covering current minute
+    private boolean covers(TimeSet compare) {
+        int current = compare.start.toMinutes();
+        int end = compare.end.toMinutes();
+        while (current < end) {
+            int next = current;
+            for (TimeSet timeSet : timeSets) {
+                if (timeSet.dayOfWeek == compare.dayOfWeek
+                        && timeSet.start.toMinutes() <= current && current < timeSet.end.toMinutes())
+                    next = Math.max(next, timeSet.end.toMinutes());
             }
+            if (next == current)
+                return false;
+            current = next;
         }
 
         return true;
@@ -0,0 +1,139 @@
+package com.schedulemaster.model;
+
+import java.util.Arrays;
+
+/**
+ * Packed form of LectureTime. Each day is split into 5 minute slots, and a slot is set if any time set covers it.
+ * Time set [start, end) sets slots from start / 5 to ceil(end / 5) - 1. Empty time set sets nothing.
+ * If every start and end is on 5 minute boundary, mask is exact and conflict check is a bitwise AND.
+ * Otherwise mask may be larger than real time, so a hit must be checked again with time sets.
+ * Immutable.
+ */
+public final class TimeMask {
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_OF_DAY = LectureTime.MINUTES_OF_DAY / SLOT_MINUTES;
+    public static final int WORDS_OF_DAY = (SLOTS_OF_DAY + 63) / 64;
+    public static final int WORDS = WORDS_OF_DAY * LectureTime.DAY_OF_WEEK.length;
+
+    public static final TimeMask EMPTY = new TimeMask(new long[WORDS], true);
+
+    private final long[] words;
+    private final boolean exact;
+
+    private TimeMask(long[] words, boolean exact) {
+        this.words = words;
+        this.exact = exact;
+    }
+
+    public static TimeMask of(Iterable<LectureTime.TimeSet> timeSets) {
+        long[] words = new long[WORDS];
+        boolean exact = true;
+        for (LectureTime.TimeSet timeSet : timeSets) {
+            if (timeSet.isEmpty())
+                continue;
+            int start = timeSet.start().toMinutes();
+            int end = timeSet.end().toMinutes();
+            if (start % SLOT_MINUTES != 0 || end % SLOT_MINUTES != 0)
+                exact = false;
+            int firstSlot = start / SLOT_MINUTES;
+            int lastSlot = Math.min((end + SLOT_MINUTES - 1) / SLOT_MINUTES, SLOTS_OF_DAY) - 1;
+            setRange(words, timeSet.dayOfWeek() * WORDS_OF_DAY, firstSlot, lastSlot);
+        }
+        return new TimeMask(words, exact);
+    }
+
+    // set bits [from, to] of a day
+    private static void setRange(long[] words, int dayOffset, int from, int to) {
+        if (from > to)
+            return;
+        int fromWord = from >>> 6;
+        int toWord = to >>> 6;
+        long fromMask = -1L << (from & 63);
+        long toMask = -1L >>> (63 - (to & 63));
+        if (fromWord == toWord) {
+            words[dayOffset + fromWord] |= fromMask & toMask;
+            return;
+        }
+        words[dayOffset + fromWord] |= fromMask;
+        for (int i = fromWord + 1; i < toWord; i++)
+            words[dayOffset + i] = -1L;
+        words[dayOffset + toWord] |= toMask;
+    }
+
+    /**
+     * @return True if mask has the same time as time sets.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return True if any slot is set in both. Exact only if both masks are exact.
+     */
+    public boolean intersects(TimeMask other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return True if every slot of other is set in this. Exact only if both masks are exact.
+     */
+    public boolean covers(TimeMask other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((other.words[i] & ~words[i]) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    public TimeMask or(TimeMask other) {
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++)
+            result[i] = words[i] | other.words[i];
+        return new TimeMask(result, exact && other.exact);
+    }
+
+    /**
+     * @param index 0 to WORDS - 1. Word i holds slots of day i / WORDS_OF_DAY.
+     * @return 64 slots packed in a long.
+     */
+    public long getWord(int index) {
+        return words[index];
+    }
+
+    /**
+     * @return True if slot of day is set.
+     */
+    public boolean has(int dayOfWeek, int slot) {
+        return (words[dayOfWeek * WORDS_OF_DAY + (slot >>> 6)] & (1L << (slot & 63))) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TimeMask timeMask = (TimeMask) o;
+
+        if (exact != timeMask.exact) return false;
+        return Arrays.equals(words, timeMask.words);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(words);
+        result = 31 * result + (exact ? 1 : 0);
+        return result;
+    }
+}
@@ -1,18 +1,33 @@
 package com.schedulemaster.model;
 
+import com.schedulemaster.misc.ArrayList;
 import com.schedulemaster.misc.Hash;
 import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ObjectIntHash;
 
-import java.io.Serializable;
+import java.io.*;
 
 /**
  * User class. Password should be hashed.
+ * Serialized form is kept as it was with LinkedList and Hash, so saved users are still read.
  *
  * @author lalaalal
  */
 public class User implements Serializable {
     public static final long serialVersionUID = 20L;
 
+    @Serial
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("id", String.class),
+            new ObjectStreamField("hashedPassword", String.class),
+            new ObjectStreamField("grade", int.class),
+            new ObjectStreamField("major", String.class),
+            new ObjectStreamField("selectedLectures", LinkedList.class),
+            new ObjectStreamField("enrolledLectures", LinkedList.class),
+            new ObjectStreamField("priorities", Hash.class),
+            new ObjectStreamField("unwantedTime", LectureTime.class)
+    };
+
     public final String id;
     private final String hashedPassword;
 
@@ -36,11 +51,14 @@ public class User implements Serializable {
     private int grade = 1;
     private String major = "교필";
 
-    public final LinkedList<String> selectedLectures = new LinkedList<>(); // 책가방 강의
-    public final LinkedList<String> enrolledLectures = new LinkedList<>(); // 신청 완료된 강의
-    public Hash<String, Integer> priorities = new Hash<>();
+    public final ArrayList<String> selectedLectures = new ArrayList<>(); // 책가방 강의
+    public final ArrayList<String> enrolledLectures = new ArrayList<>(); // 신청 완료된 강의
+    public ObjectIntHash<String> priorities = new ObjectIntHash<>();
     public LectureTime unwantedTime = new LectureTime();
 
+    // final fields can't be set while reading, so user is made in readObject and replaces read one
+    private transient User resolved;
+
     /**
      * Create a new User.
      *
@@ -52,6 +70,10 @@ public class User implements Serializable {
         this.hashedPassword = hashedPassword;
     }
 
+    public String getHashedPassword() {
+        return hashedPassword;
+    }
+
     /**
      * Compare hashed password.
      *
@@ -87,4 +109,70 @@ public class User implements Serializable {
         result = 31 * result + hashedPassword.hashCode();
         return result;
     }
+
+    @Serial
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        LinkedList<String> selected = new LinkedList<>();
+        selected.addAll(selectedLectures);
+        LinkedList<String> enrolled = new LinkedList<>();
+        enrolled.addAll(enrolledLectures);
+        Hash<String, Integer> priorityHash = null;
+        if (priorities != null) {
+            priorityHash = new Hash<>(priorities.getLength());
+            priorities.forEachEntry(priorityHash::put);
+        }
+
+        ObjectOutputStream.PutField fields = oos.putFields();
+        fields.put("id", id);
+        fields.put("hashedPassword", hashedPassword);
+        fields.put("grade", grade);
+        fields.put("major", major);
+        fields.put("selectedLectures", selected);
+        fields.put("enrolledLectures", enrolled);
+        fields.put("priorities", priorityHash);
+        fields.put("unwantedTime", unwantedTime);
+        oos.writeFields();
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = ois.readFields();
+        if (!(fields.get("id", null) instanceof String readId)
+                || !(fields.get("hashedPassword", null) instanceof String readPassword))
+            throw new InvalidObjectException("User without id or password");
+
+        resolved = new User(readId, readPassword);
+        resolved.grade = fields.get("grade", 1);
+        resolved.major = (String) fields.get("major", null);
+        readLectureNums(fields.get("selectedLectures", null), resolved.selectedLectures);
+        readLectureNums(fields.get("enrolledLectures", null), resolved.enrolledLectures);
+        Object readPriorities = fields.get("priorities", null);
+        if (readPriorities instanceof Hash<?, ?>) {
+            Hash<String, Integer> hash = (Hash<String, Integer>) readPriorities;
+            ObjectIntHash<String> result = new ObjectIntHash<>(hash.getLength());
+            for (String key : hash.getKeys())
+                result.set(key, hash.get(key));
+            resolved.priorities = result;
+        } else if (readPriorities != null) {
+            throw new InvalidObjectException("Priorities of " + readId + " are not Hash");
+        }
+        // missing priorities or unwanted time keep empty defaults of constructor
+        if (fields.get("unwantedTime", null) instanceof LectureTime readTime)
+            resolved.unwantedTime = readTime;
+    }
+
+    private static void readLectureNums(Object read, ArrayList<String> lectureNums) throws InvalidObjectException {
+        if (read == null)
+            return;
+        if (!(read instanceof LinkedList<?> list))
+            throw new InvalidObjectException("Lectures are not LinkedList");
+        for (Object lectureNum : list)
+            lectureNums.push((String) lectureNum);
+    }
+
+    @Serial
+    private Object readResolve() {
+        return resolved;
+    }
 }
@@ -0,0 +1,289 @@
+package com.schedulemaster.util;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.ObjectIntHash;
+import com.schedulemaster.misc.Request;
+import com.schedulemaster.misc.Response;
+import com.schedulemaster.misc.Status;
+import com.schedulemaster.model.EncodedLectures;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+import com.schedulemaster.model.User;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * Hand written binary codec of Request and Response. No class descriptor and no reflection.
+ * Decodes straight from buffer. Command is one byte, each data starts with a type byte, and ints are varints.
+ * Strings and lists start with (length + 1), where 0 means null.
+ * A command or data type not listed here throws NotSerializableException, so Java serialization can be used instead.
+ *
+ * @author lalaalal
+ */
+public class BinaryCodec implements Codec {
+    // position is command byte, append only
+    private static final String[] COMMANDS = {
+            Request.LOGIN, Request.SIGNUP, Request.REQ_LECTURES, Request.REQ_FITTING_LECTURES, Request.BYE,
+            Request.REQ_USER, Request.ENROLL, Request.SELECT, Request.CANCEL, Request.UNSELECT,
+            Request.SET_PRIORITIES, Request.SET_UNWANTED_TIME
+    };
+
+    // types of data, append only
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int STRINGS = 2;
+    private static final int USER = 3;
+    private static final int LECTURE = 4;
+    private static final int LECTURE_TIME = 5;
+    private static final int PRIORITIES = 6;
+    private static final int ENCODED_LECTURES = 7;
+    private static final int LECTURES = 8;
+
+    private static final Status[] STATUSES = Status.values();
+
+    @Override
+    public byte getTag() {
+        return 1;
+    }
+
+    @Override
+    public void encode(Object message, ByteWriter writer) throws IOException {
+        if (message instanceof Request request) {
+            writer.writeByte(commandOf(request.command()));
+            writeData(writer, request.data());
+        } else if (message instanceof Response response) {
+            writer.writeByte(response.status().ordinal());
+            writeData(writer, response.data());
+        } else {
+            throw new NotSerializableException(message == null ? "null" : message.getClass().getName());
+        }
+    }
+
+    @Override
+    public <T> T decode(ByteBuffer buffer, Class<T> type) throws IOException {
+        ByteReader reader = new ByteReader(buffer);
+        if (type == Request.class) {
+            int command = reader.readByte();
+            if (command >= COMMANDS.length)
+                throw new StreamCorruptedException("Unknown command " + command);
+            return type.cast(new Request(COMMANDS[command], readData(reader)));
+        }
+        if (type == Response.class) {
+            int status = reader.readByte();
+            if (status >= STATUSES.length)
+                throw new StreamCorruptedException("Unknown status " + status);
+            return type.cast(new Response(STATUSES[status], readData(reader)));
+        }
+        throw new NotSerializableException(type.getName());
+    }
+
+    private static int commandOf(String command) throws NotSerializableException {
+        for (int i = 0; i < COMMANDS.length; i++) {
+            if (COMMANDS[i].equals(command))
+                return i;
+        }
+        throw new NotSerializableException("Unknown command " + command);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeData(ByteWriter writer, Object data) throws IOException {
+        if (data == null) {
+            writer.writeByte(NULL);
+        } else if (data instanceof String value) {
+            writer.writeByte(STRING);
+            writer.writeString(value);
+        } else if (data instanceof String[] values) {
+            writer.writeByte(STRINGS);
+            writer.writeVarInt(values.length);
+            for (String value : values)
+                writer.writeString(value);
+        } else if (data instanceof User user) {
+            writer.writeByte(USER);
+            writeUser(writer, user);
+        } else if (data instanceof Lecture lecture) {
+            writer.writeByte(LECTURE);
+            writeLecture(writer, lecture);
+        } else if (data instanceof LectureTime time) {
+            writer.writeByte(LECTURE_TIME);
+            writeTime(writer, time);
+        } else if (data instanceof ObjectIntHash<?> priorities && hasStringKeys(priorities)) {
+            writer.writeByte(PRIORITIES);
+            writePriorities(writer, (ObjectIntHash<String>) priorities);
+        } else if (data instanceof EncodedLectures encoded) {
+            writer.writeByte(ENCODED_LECTURES);
+            encoded.write(writer);
+        } else if (data instanceof ArrayList<?> list && hasLectures(list)) {
+            writer.writeByte(LECTURES);
+            writer.writeVarInt(list.getLength());
+            for (Object lecture : list)
+                writeLecture(writer, (Lecture) lecture);
+        } else {
+            throw new NotSerializableException(data.getClass().getName());
+        }
+    }
+
+    private static Object readData(ByteReader reader) throws IOException {
+        int type = reader.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return reader.readString();
+            case STRINGS: {
+                String[] values = new String[reader.readLength()];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = reader.readString();
+                return values;
+            }
+            case USER:
+                return readUser(reader);
+            case LECTURE:
+                return readLecture(reader);
+            case LECTURE_TIME:
+                return readTime(reader);
+            case PRIORITIES:
+                return readPriorities(reader);
+            case ENCODED_LECTURES:
+                return EncodedLectures.read(reader);
+            case LECTURES: {
+                int length = reader.readLength();
+                ArrayList<Lecture> lectures = new ArrayList<>(length);
+                for (int i = 0; i < length; i++)
+                    lectures.push(readLecture(reader));
+                return lectures;
+            }
+            default:
+                throw new StreamCorruptedException("Unknown data type " + type);
+        }
+    }
+
+    private static boolean hasStringKeys(ObjectIntHash<?> hash) {
+        for (Object key : hash) {
+            if (!(key instanceof String))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean hasLectures(ArrayList<?> list) {
+        for (Object element : list) {
+            if (!(element instanceof Lecture))
+                return false;
+        }
+        return true;
+    }
+
+    private static void writeStrings(ByteWriter writer, ArrayList<String> values) {
+        writer.writeVarInt(values.getLength());
+        for (String value : values)
+            writer.writeString(value);
+    }
+
+    private static void readStrings(ByteReader reader, ArrayList<String> values) throws IOException {
+        int length = reader.readLength();
+        for (int i = 0; i < length; i++)
+            values.push(reader.readString());
+    }
+
+    private static void writeTime(ByteWriter writer, LectureTime time) {
+        if (time == null) {
+            writer.writeVarInt(0);
+            return;
+        }
+        writer.writeVarInt(time.getTimeSets().getLength() + 1);
+        for (LectureTime.TimeSet timeSet : time.getTimeSets()) {
+            writer.writeVarInt(timeSet.dayOfWeek());
+            writer.writeVarInt(timeSet.start().toMinutes());
+            writer.writeVarInt(timeSet.end().toMinutes());
+        }
+    }
+
+    private static LectureTime readTime(ByteReader reader) throws IOException {
+        int length = reader.readNullableLength();
+        if (length < 0)
+            return null;
+        LectureTime time = new LectureTime();
+        for (int i = 0; i < length; i++) {
+            int dayOfWeek = reader.readVarInt();
+            int start = reader.readVarInt();
+            int end = reader.readVarInt();
+            time.addTimeSet(dayOfWeek, new LectureTime.Time(start / 60, start % 60), new LectureTime.Time(end / 60, end % 60));
+        }
+        return time;
+    }
+
+    private static void writeLecture(ByteWriter writer, Lecture lecture) {
+        writer.writeString(lecture.lectureNum);
+        writer.writeString(lecture.name);
+        writer.writeString(lecture.professor);
+        writer.writeString(lecture.major);
+        writer.writeString(lecture.classRoom);
+        writer.writeInt(lecture.grade);
+        writer.writeInt(lecture.score);
+        writer.writeInt(lecture.max);
+        writer.writeInt(lecture.enrolled);
+        writeTime(writer, lecture.time);
+    }
+
+    private static Lecture readLecture(ByteReader reader) throws IOException {
+        Lecture lecture = new Lecture();
+        lecture.lectureNum = reader.readString();
+        lecture.name = reader.readString();
+        lecture.professor = reader.readString();
+        lecture.major = reader.readString();
+        lecture.classRoom = reader.readString();
+        lecture.grade = reader.readInt();
+        lecture.score = reader.readInt();
+        lecture.max = reader.readInt();
+        lecture.enrolled = reader.readInt();
+        lecture.time = readTime(reader);
+        return lecture;
+    }
+
+    private static void writePriorities(ByteWriter writer, ObjectIntHash<String> priorities) {
+        if (priorities == null) {
+            writer.writeVarInt(0);
+            return;
+        }
+        writer.writeVarInt(priorities.getLength() + 1);
+        priorities.forEachEntry((key, value) -> {
+            writer.writeString(key);
+            writer.writeInt(value);
+        });
+    }
+
+    private static ObjectIntHash<String> readPriorities(ByteReader reader) throws IOException {
+        int length = reader.readNullableLength();
+        if (length < 0)
+            return null;
+        ObjectIntHash<String> priorities = new ObjectIntHash<>(length);
+        for (int i = 0; i < length; i++)
+            priorities.set(reader.readString(), reader.readInt());
+        return priorities;
+    }
+
+    private static void writeUser(ByteWriter writer, User user) {
+        writer.writeString(user.id);
+        writer.writeString(user.getHashedPassword());
+        writer.writeInt(user.getGrade());
+        writer.writeString(user.getMajor());
+        writeStrings(writer, user.selectedLectures);
+        writeStrings(writer, user.enrolledLectures);
+        writePriorities(writer, user.priorities);
+        writeTime(writer, user.unwantedTime);
+    }
+
+    private static User readUser(ByteReader reader) throws IOException {
+        User user = new User(reader.readString(), reader.readString());
+        user.setGrade(reader.readInt());
+        user.setMajor(reader.readString());
+        readStrings(reader, user.selectedLectures);
+        readStrings(reader, user.enrolledLectures);
+        user.priorities = readPriorities(reader);
+        user.unwantedTime = readTime(reader);
+        return user;
+    }
+}
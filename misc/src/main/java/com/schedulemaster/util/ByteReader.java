@@ -0,0 +1,85 @@
+package com.schedulemaster.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads what ByteWriter wrote, straight from a buffer. Position of buffer moves as it reads.
+ *
+ * @author lalaalal
+ */
+public class ByteReader {
+    private final ByteBuffer buffer;
+
+    public ByteReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readByte() throws EOFException {
+        try {
+            return buffer.get() & 0xFF;
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Unexpected end of message");
+        }
+    }
+
+    public int readVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return result;
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    public int readInt() throws IOException {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Read length of a list, which can't be longer than remaining bytes since each element takes a byte at least.
+     */
+    public int readLength() throws IOException {
+        int length = readVarInt();
+        if (length < 0 || length > buffer.remaining())
+            throw new StreamCorruptedException("Invalid length " + length);
+        return length;
+    }
+
+    /**
+     * Read length of a list which may be null, written as length + 1 and 0 for null.
+     *
+     * @return Length, -1 for null.
+     */
+    public int readNullableLength() throws IOException {
+        int length = readVarInt() - 1;
+        if (length < -1 || length > buffer.remaining())
+            throw new StreamCorruptedException("Invalid length " + length);
+        return length;
+    }
+
+    public String readString() throws IOException {
+        int length = readVarInt() - 1;
+        if (length < 0)
+            return null;
+        if (length > buffer.remaining())
+            throw new EOFException("Unexpected end of message");
+        String result;
+        if (buffer.hasArray()) {
+            result = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            result = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+}
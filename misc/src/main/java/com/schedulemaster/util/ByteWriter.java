@@ -0,0 +1,100 @@
+package com.schedulemaster.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte array written with varints. Also an OutputStream, so Java serialization can write into it.
+ * Reuse with reset, keeping its array, so a connection encodes every message into the same array.
+ *
+ * @author lalaalal
+ */
+public class ByteWriter extends java.io.OutputStream {
+    private byte[] bytes;
+    private int length = 0;
+
+    public ByteWriter() {
+        this(256);
+    }
+
+    public ByteWriter(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length)
+            bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+    }
+
+    /**
+     * Forget written bytes, keeping array.
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public void write(int value) {
+        writeByte(value);
+    }
+
+    @Override
+    public void write(byte[] source, int offset, int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(source, offset, bytes, length, count);
+        length += count;
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(length + 1);
+        bytes[length++] = (byte) value;
+    }
+
+    /**
+     * Write unsigned int, 7 bits per byte.
+     */
+    public void writeVarInt(int value) {
+        ensureCapacity(length + 5);
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    /**
+     * Write signed int with zigzag, so small negative values are short too.
+     */
+    public void writeInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Write (length + 1) of UTF-8 bytes and the bytes. Null is written as 0.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(encoded.length + 1);
+        write(encoded, 0, encoded.length);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * @return Buffer over written bytes without copying. Valid until next write or reset.
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes, 0, length);
+    }
+}
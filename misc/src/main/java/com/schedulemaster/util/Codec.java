@@ -0,0 +1,47 @@
+package com.schedulemaster.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts Request and Response to bytes and back. Tag of codec is sent in each frame,
+ * so receiver decodes with the codec sender used.
+ *
+ * @author lalaalal
+ */
+public interface Codec {
+    /**
+     * @return Tag written in frame, unique among codecs.
+     */
+    byte getTag();
+
+    /**
+     * Encode message into writer, after bytes already written.
+     *
+     * @param message Request or Response.
+     * @param writer  Writer to write into.
+     * @throws java.io.NotSerializableException If codec can't encode message, then another codec may be used.
+     * @throws IOException                      If an I/O error occurs.
+     */
+    void encode(Object message, ByteWriter writer) throws IOException;
+
+    /**
+     * Decode message from position to limit of buffer.
+     *
+     * @param buffer Encoded bytes.
+     * @param type   Request or Response class.
+     * @return Decoded message.
+     * @throws IOException If bytes are not valid.
+     */
+    <T> T decode(ByteBuffer buffer, Class<T> type) throws IOException;
+
+    default byte[] encode(Object message) throws IOException {
+        ByteWriter writer = new ByteWriter();
+        encode(message, writer);
+        return writer.toByteArray();
+    }
+
+    default <T> T decode(byte[] bytes, Class<T> type) throws IOException {
+        return decode(ByteBuffer.wrap(bytes), type);
+    }
+}
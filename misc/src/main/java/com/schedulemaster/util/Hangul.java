@@ -0,0 +1,121 @@
+package com.schedulemaster.util;
+
+/**
+ * Decomposes Hangul syllables into compatibility jamo.
+ * Compound vowels and final consonants are split into basic jamo (ㅘ -> ㅗㅏ, ㄺ -> ㄹㄱ),
+ * so text being typed with IME matches text already composed.
+ */
+public class Hangul {
+    private static final char SYLLABLE_BASE = 0xAC00;
+    private static final char SYLLABLE_LAST = 0xD7A3;
+    private static final int JUNGSUNG_COUNT = 21;
+    private static final int JONGSUNG_COUNT = 28;
+
+    private static final char COMPAT_FIRST = 0x3131;
+    private static final char COMPAT_CONSONANT_LAST = 0x314E;
+    private static final char COMPAT_LAST = 0x3163;
+
+    private static final String CHOSUNG = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+    private static final String[] JUNGSUNG = {
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ",
+            "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"
+    };
+    private static final String[] JONGSUNG = {
+            "", "ㄱ", "ㄲ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ",
+            "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ", "ㅆ", "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"
+    };
+    // compatibility jamo (ㄱ ~ ㅣ) -> basic jamo, splitting compound ones
+    private static final String[] COMPAT = new String[COMPAT_LAST - COMPAT_FIRST + 1];
+
+    static {
+        for (char c = COMPAT_FIRST; c <= COMPAT_LAST; c++)
+            COMPAT[c - COMPAT_FIRST] = String.valueOf(c);
+        for (String jamo : JUNGSUNG) {
+            if (jamo.length() == 2)
+                COMPAT[compose(jamo) - COMPAT_FIRST] = jamo;
+        }
+        String compoundFinals = "ㄳㄵㄶㄺㄻㄼㄽㄾㄿㅀㅄ";
+        String[] splits = {"ㄱㅅ", "ㄴㅈ", "ㄴㅎ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅂㅅ"};
+        for (int i = 0; i < splits.length; i++)
+            COMPAT[compoundFinals.charAt(i) - COMPAT_FIRST] = splits[i];
+    }
+
+    // compound vowel of two basic vowels
+    private static char compose(String jamo) {
+        return switch (jamo) {
+            case "ㅗㅏ" -> 'ㅘ';
+            case "ㅗㅐ" -> 'ㅙ';
+            case "ㅗㅣ" -> 'ㅚ';
+            case "ㅜㅓ" -> 'ㅝ';
+            case "ㅜㅔ" -> 'ㅞ';
+            case "ㅜㅣ" -> 'ㅟ';
+            default -> 'ㅢ';
+        };
+    }
+
+    public static boolean isSyllable(char c) {
+        return SYLLABLE_BASE <= c && c <= SYLLABLE_LAST;
+    }
+
+    public static boolean isConsonant(char c) {
+        return COMPAT_FIRST <= c && c <= COMPAT_CONSONANT_LAST;
+    }
+
+    /**
+     * Split syllables and compound jamo into basic jamo. Other characters are lowercased.
+     *
+     * @param text Text to decompose.
+     * @return Decomposed text.
+     */
+    public static String decompose(String text) {
+        StringBuilder builder = new StringBuilder(text.length() * 3);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isSyllable(c)) {
+                int offset = c - SYLLABLE_BASE;
+                int jongsung = offset % JONGSUNG_COUNT;
+                int jungsung = (offset / JONGSUNG_COUNT) % JUNGSUNG_COUNT;
+                int chosung = offset / (JONGSUNG_COUNT * JUNGSUNG_COUNT);
+                builder.append(CHOSUNG.charAt(chosung)).append(JUNGSUNG[jungsung]).append(JONGSUNG[jongsung]);
+            } else if (COMPAT_FIRST <= c && c <= COMPAT_LAST) {
+                builder.append(COMPAT[c - COMPAT_FIRST]);
+            } else {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Replace each syllable with its initial consonant (chosung). Other characters are lowercased.
+     *
+     * @param text Text to convert.
+     * @return Chosung text.
+     */
+    public static String chosung(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isSyllable(c))
+                builder.append(CHOSUNG.charAt((c - SYLLABLE_BASE) / (JONGSUNG_COUNT * JUNGSUNG_COUNT)));
+            else
+                builder.append(Character.toLowerCase(c));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return True if text has at least one consonant and no syllable or vowel, like "ㅈㄹㄱㅈ".
+     */
+    public static boolean isChosungOnly(String text) {
+        boolean hasConsonant = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isConsonant(c))
+                hasConsonant = true;
+            else if (isSyllable(c) || (COMPAT_FIRST <= c && c <= COMPAT_LAST))
+                return false;
+        }
+        return hasConsonant;
+    }
+}
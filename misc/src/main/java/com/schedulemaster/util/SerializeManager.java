@@ -1,13 +1,60 @@
 package com.schedulemaster.util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 
 /**
- * Provides serialize and deserialize api.
+ * Provides serialize and deserialize api, and codecs used in communication.
+ * Java serialization is kept as a codec, used when binary codec can't encode a message.
  *
  * @author lalaalal
  */
 public class SerializeManager {
+    public static final Codec JAVA = new Codec() {
+        @Override
+        public byte getTag() {
+            return 0;
+        }
+
+        @Override
+        public void encode(Object message, ByteWriter writer) throws IOException {
+            try (ObjectOutputStream oos = new ObjectOutputStream(writer)) {
+                oos.writeObject(message);
+            }
+        }
+
+        @Override
+        public <T> T decode(ByteBuffer buffer, Class<T> type) throws IOException {
+            if (!buffer.hasArray()) {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                return deserialize(bytes, type);
+            }
+            int offset = buffer.arrayOffset() + buffer.position();
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(buffer.array(), offset, buffer.remaining()))) {
+                buffer.position(buffer.limit());
+                return type.cast(ois.readObject());
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+        }
+    };
+
+    public static final Codec BINARY = new BinaryCodec();
+
+    /**
+     * @param tag Tag of codec written in frame.
+     * @return Codec of tag.
+     * @throws StreamCorruptedException If no codec has tag.
+     */
+    public static Codec getCodec(byte tag) throws StreamCorruptedException {
+        if (tag == JAVA.getTag())
+            return JAVA;
+        if (tag == BINARY.getTag())
+            return BINARY;
+        throw new StreamCorruptedException("Unknown codec " + tag);
+    }
+
     public static <T> T deserialize(byte[] bytes, Class<T> type) throws IOException {
         try (ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
              ObjectInputStream ois = new ObjectInputStream(bis)) {
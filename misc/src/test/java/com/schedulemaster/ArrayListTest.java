@@ -0,0 +1,77 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+public class ArrayListTest {
+    @Test
+    public void testList() {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.push(i);
+        }
+
+        Assertions.assertEquals(100, list.getLength());
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertEquals(i, list.at(i));
+        }
+
+        list.remove(0);
+        Assertions.assertEquals(99, list.getLength());
+        Assertions.assertEquals(1, list.at(0));
+
+        Assertions.assertEquals(50, list.removeAt(49));
+        Assertions.assertEquals(51, list.at(49));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> list.at(98));
+    }
+
+    @Test
+    public void testInsertInOrder() {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int value : new int[]{5, 1, 3, 9, 3, 0})
+            list.insertInOrder(value, Integer::intValue);
+
+        int[] expected = {0, 1, 3, 3, 5, 9};
+        Assertions.assertEquals(expected.length, list.getLength());
+        for (int i = 0; i < expected.length; i++)
+            Assertions.assertEquals(expected[i], list.at(i));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerialize() throws IOException, ClassNotFoundException {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            list.push(i);
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(list);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            ArrayList<Integer> read = (ArrayList<Integer>) ois.readObject();
+            Assertions.assertEquals(list, read);
+            read.push(5);
+            Assertions.assertEquals(6, read.getLength());
+        }
+    }
+
+    @Test
+    public void testParallelStream() {
+        ArrayList<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            list.push(i);
+        }
+
+        ArrayList<Integer> even = list.parallelStream().filter(i -> i % 2 == 0).collect(ArrayList.collector());
+        Assertions.assertEquals(50000, even.getLength());
+        for (int i = 0; i < even.getLength(); i++) {
+            Assertions.assertEquals(i * 2, even.at(i));
+        }
+        Assertions.assertEquals(100000L, list.parallelStream().count());
+    }
+}
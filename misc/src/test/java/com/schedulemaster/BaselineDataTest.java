@@ -0,0 +1,96 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.Hash;
+import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+import com.schedulemaster.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+/**
+ * Data files in resources/baseline were saved by server before the collections were reworked,
+ * with chained Hash and node written LinkedList.
+ */
+public class BaselineDataTest {
+    private static Object read(String name) throws IOException, ClassNotFoundException {
+        try (InputStream is = BaselineDataTest.class.getResourceAsStream("/baseline/" + name);
+             ObjectInputStream ois = new ObjectInputStream(is)) {
+            return ois.readObject();
+        }
+    }
+
+    private static Object writeAndRead(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(object);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return ois.readObject();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLectures() throws IOException, ClassNotFoundException {
+        Hash<String, Lecture> lectures = (Hash<String, Lecture>) read("lectures");
+
+        Assertions.assertEquals(3, lectures.getLength());
+        Assertions.assertEquals("00001", lectures.getKeys().at(0));
+        Assertions.assertEquals("00003", lectures.getKeys().at(2));
+
+        Lecture lecture = lectures.get("00001");
+        Assertions.assertEquals("자료구조", lecture.name);
+        Assertions.assertEquals(40, lecture.max);
+        Assertions.assertEquals(1, lecture.enrolled);
+        LinkedList<LectureTime.TimeSet> timeSets = lecture.time.getTimeSets();
+        Assertions.assertEquals(2, timeSets.getLength());
+        Assertions.assertEquals(2, timeSets.at(1).dayOfWeek());
+        Assertions.assertEquals(25, lectures.get("00003").enrolled);
+
+        // still usable, and written again in current form
+        lectures.put("00004", new Lecture());
+        Hash<String, Lecture> read = (Hash<String, Lecture>) writeAndRead(lectures);
+        Assertions.assertEquals(lectures, read);
+        Assertions.assertEquals(lecture.time, read.get("00001").time);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUsers() throws IOException, ClassNotFoundException {
+        Hash<String, User> users = (Hash<String, User>) read("users");
+
+        Assertions.assertTrue(users.hasKey("alice"));
+        Assertions.assertTrue(users.hasKey("bob"));
+        User alice = users.get("alice");
+        Assertions.assertTrue(alice.verifyPassword("hashed-alice"));
+        Assertions.assertEquals(2, alice.getGrade());
+        Assertions.assertEquals("컴퓨터공학", alice.getMajor());
+        Assertions.assertEquals(2, alice.selectedLectures.getLength());
+        Assertions.assertEquals("00002", alice.selectedLectures.at(1));
+        Assertions.assertTrue(alice.enrolledLectures.has("00001"));
+        Assertions.assertEquals(3, alice.priorities.get("00001"));
+        Assertions.assertEquals(1, alice.priorities.get("00002"));
+        Assertions.assertTrue(alice.unwantedTime.hasTimeSet(0, new LectureTime.Time(9, 0), new LectureTime.Time(10, 30)));
+        Assertions.assertEquals(0, users.get("bob").enrolledLectures.getLength());
+
+        User read = ((Hash<String, User>) writeAndRead(users)).get("alice");
+        Assertions.assertEquals(alice, read);
+        Assertions.assertEquals(alice.selectedLectures, read.selectedLectures);
+        Assertions.assertEquals(alice.priorities, read.priorities);
+        Assertions.assertEquals(alice.unwantedTime, read.unwantedTime);
+    }
+
+    @Test
+    public void testUserWithoutLists() throws IOException, ClassNotFoundException {
+        User user = new User("carol", "hashed-carol");
+        user.priorities = null;
+        user.unwantedTime = null;
+
+        User read = (User) writeAndRead(user);
+        Assertions.assertEquals(0, read.priorities.getLength());
+        Assertions.assertEquals(0, read.unwantedTime.getTimeSets().getLength());
+    }
+}
@@ -0,0 +1,123 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.ObjectIntHash;
+import com.schedulemaster.misc.Request;
+import com.schedulemaster.misc.Response;
+import com.schedulemaster.misc.Status;
+import com.schedulemaster.model.EncodedLectures;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+import com.schedulemaster.model.User;
+import com.schedulemaster.util.Codec;
+import com.schedulemaster.util.SerializeManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+
+public class BinaryCodecTest {
+    private final Codec codec = SerializeManager.BINARY;
+
+    private static Lecture createLecture(int i) {
+        Lecture lecture = new Lecture();
+        lecture.lectureNum = String.format("%05d", i);
+        lecture.name = "자료구조" + (i % 50);
+        lecture.professor = "교수" + (i % 30);
+        lecture.major = "컴퓨터공학과";
+        lecture.classRoom = i % 7 == 0 ? null : "공학관 " + (i % 40);
+        lecture.grade = i % 4 + 1;
+        lecture.score = 3;
+        lecture.max = 40;
+        lecture.enrolled = i % 41;
+        lecture.time = new LectureTime();
+        lecture.time.addTimeSet(i % 6, new LectureTime.Time(9 + i % 8, 0), new LectureTime.Time(10 + i % 8, 15));
+        return lecture;
+    }
+
+    private Request roundTrip(Request request) throws IOException {
+        return codec.decode(codec.encode(request), Request.class);
+    }
+
+    private Response roundTrip(Response response) throws IOException {
+        return codec.decode(codec.encode(response), Response.class);
+    }
+
+    @Test
+    public void testRequest() throws IOException {
+        Request login = roundTrip(new Request(Request.LOGIN, new String[]{"id", "비밀번호"}));
+        Assertions.assertEquals(Request.LOGIN, login.command());
+        Assertions.assertEquals("비밀번호", ((String[]) login.data())[1]);
+
+        Lecture lecture = createLecture(7);
+        Request enroll = roundTrip(new Request(Request.ENROLL, lecture));
+        Lecture decoded = (Lecture) enroll.data();
+        Assertions.assertEquals(lecture.hashCode(), decoded.hashCode());
+        Assertions.assertNull(decoded.classRoom);
+
+        Assertions.assertNull(roundTrip(new Request(Request.BYE, null)).data());
+        Assertions.assertEquals(lecture.time, roundTrip(new Request(Request.SET_UNWANTED_TIME, lecture.time)).data());
+
+        ObjectIntHash<String> priorities = new ObjectIntHash<>();
+        priorities.put("00001", 3);
+        priorities.put("00002", -1);
+        Assertions.assertEquals(priorities, roundTrip(new Request(Request.SET_PRIORITIES, priorities)).data());
+    }
+
+    @Test
+    public void testResponse() throws IOException {
+        User user = new User("id", "hash");
+        user.setGrade(3);
+        user.setMajor("컴퓨터공학과");
+        user.enrolledLectures.push("00001");
+        user.selectedLectures.push("00002");
+        user.priorities.put("00002", 1);
+        user.unwantedTime.addTimeSet(4, new LectureTime.Time(9, 0), new LectureTime.Time(21, 0));
+        Response response = roundTrip(new Response(Status.SUCCEED, user));
+        User decoded = (User) response.data();
+        Assertions.assertEquals(Status.SUCCEED, response.status());
+        Assertions.assertEquals(user, decoded);
+        Assertions.assertEquals(3, decoded.getGrade());
+        Assertions.assertEquals("00001", decoded.enrolledLectures.at(0));
+        Assertions.assertEquals(user.priorities, decoded.priorities);
+        Assertions.assertEquals(user.unwantedTime, decoded.unwantedTime);
+
+        Assertions.assertEquals(Response.LOGIN_REQUIRED, roundTrip(new Response(Status.FAILED, Response.LOGIN_REQUIRED)).data());
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        User user = (User) roundTrip(new Request(Request.SIGNUP, new User("x", "p"))).data();
+        Assertions.assertEquals(0, user.priorities.getLength());
+        Assertions.assertEquals(0, user.unwantedTime.getTimeSets().getLength());
+        Assertions.assertEquals(new User("x", "p"), roundTrip(new Response(Status.SUCCEED, new User("x", "p"))).data());
+
+        Assertions.assertEquals(new LectureTime(), roundTrip(new Request(Request.SET_UNWANTED_TIME, new LectureTime())).data());
+        Assertions.assertEquals(new ObjectIntHash<String>(), roundTrip(new Request(Request.SET_PRIORITIES, new ObjectIntHash<String>())).data());
+    }
+
+    @Test
+    public void testLectures() throws IOException {
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            lectures.push(createLecture(i));
+
+        Response response = new Response(Status.SUCCEED, EncodedLectures.encode(lectures));
+        byte[] binary = codec.encode(response);
+        ArrayList<Lecture> decoded = ((EncodedLectures) codec.decode(binary, Response.class).data()).decode();
+        Assertions.assertEquals(lectures.getLength(), decoded.getLength());
+        for (int i = 0; i < lectures.getLength(); i++)
+            Assertions.assertEquals(lectures.at(i).hashCode(), decoded.at(i).hashCode());
+        Assertions.assertTrue(binary.length * 2 < SerializeManager.JAVA.encode(response).length);
+
+        ArrayList<?> list = (ArrayList<?>) roundTrip(new Response(Status.SUCCEED, lectures)).data();
+        Assertions.assertEquals(lectures.at(5).hashCode(), list.at(5).hashCode());
+    }
+
+    @Test
+    public void testUnsupported() {
+        Assertions.assertThrows(NotSerializableException.class, () -> codec.encode(new Request("unknown", null)));
+        Assertions.assertThrows(NotSerializableException.class, () -> codec.encode(new Response(Status.SUCCEED, 1.5)));
+    }
+}
@@ -0,0 +1,213 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.BufferPool;
+import com.schedulemaster.misc.Communicator;
+import com.schedulemaster.misc.Request;
+import com.schedulemaster.misc.Response;
+import com.schedulemaster.misc.Status;
+import com.schedulemaster.model.EncodedLectures;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+import com.schedulemaster.util.SerializeManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.Inflater;
+
+public class CommunicatorTest {
+    // answers data of request back, and BYE for bye
+    private static class EchoCommunicator extends Communicator {
+        public EchoCommunicator(SocketChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        protected Response createResponse(Request request) {
+            if (request.command().equals(Request.BYE))
+                return new Response(Status.BYE, null);
+            return new Response(Status.SUCCEED, request.data());
+        }
+    }
+
+    private static ArrayList<Lecture> createLectures(int length) {
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            Lecture lecture = new Lecture();
+            lecture.lectureNum = String.format("%05d", i);
+            lecture.name = "강의" + i;
+            lecture.time = new LectureTime();
+            lecture.time.addTimeSet(i % 5, new LectureTime.Time(9, 0), new LectureTime.Time(10, 30));
+            lectures.push(lecture);
+        }
+        return lectures;
+    }
+
+    @Test
+    public void testFrames() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0))) {
+            Thread serverThread = new Thread(() -> {
+                try (EchoCommunicator handler = new EchoCommunicator(server.accept())) {
+                    Status status = Status.SUCCEED;
+                    while (status != Status.BYE)
+                        status = handler.receiveAndSend();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            serverThread.start();
+
+            try (EchoCommunicator client = new EchoCommunicator(SocketChannel.open(server.getLocalAddress()))) {
+                Assertions.assertEquals("hello", client.send(new Request(Request.SELECT, "hello")).data());
+
+                // large frame needs several reads
+                ArrayList<Lecture> lectures = createLectures(20000);
+                Response response = client.send(new Request(Request.REQ_LECTURES, EncodedLectures.encode(lectures)));
+                ArrayList<Lecture> decoded = ((EncodedLectures) response.data()).decode();
+                Assertions.assertEquals(lectures.getLength(), decoded.getLength());
+                Assertions.assertEquals(lectures.at(19999).hashCode(), decoded.at(19999).hashCode());
+
+                // unknown command falls back to Java serialization
+                Assertions.assertEquals("fallback", client.send(new Request("unknown", "fallback")).data());
+                Assertions.assertEquals(Status.BYE, client.send(new Request(Request.BYE, null)).status());
+            }
+            serverThread.join();
+        }
+    }
+
+    private static final int HEADER_LENGTH = Integer.BYTES + 2 + Integer.BYTES;
+
+    private static void writeFrame(SocketChannel channel, Request request, int flags, int id) throws IOException {
+        byte[] body = SerializeManager.BINARY.encode(request);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + body.length);
+        frame.putInt(HEADER_LENGTH - Integer.BYTES + body.length).put(SerializeManager.BINARY.getTag()).put((byte) flags)
+                .putInt(id).put(body).flip();
+        while (frame.hasRemaining())
+            channel.write(frame);
+    }
+
+    private static ByteBuffer readFully(SocketChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new IOException("Connection closed");
+        }
+        return buffer.flip();
+    }
+
+    @Test
+    public void testCompression() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0))) {
+            Thread serverThread = new Thread(() -> {
+                try (EchoCommunicator handler = new EchoCommunicator(server.accept())) {
+                    Status status = Status.SUCCEED;
+                    while (status != Status.BYE)
+                        status = handler.receiveAndSend();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            serverThread.start();
+
+            final int compressed = 1;
+            final int accepts = 1 << 1;
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress())) {
+                // small response is not compressed
+                writeFrame(client, new Request(Request.SELECT, "hello"), accepts, 0);
+                ByteBuffer header = readFully(client, HEADER_LENGTH);
+                int length = header.getInt() - (HEADER_LENGTH - Integer.BYTES);
+                header.get();
+                Assertions.assertEquals(accepts, header.get());
+                Assertions.assertEquals(0, header.getInt());
+                readFully(client, length);
+
+                Request request = new Request(Request.REQ_LECTURES, EncodedLectures.encode(createLectures(20000)));
+                int encodedLength = SerializeManager.BINARY.encode(new Response(Status.SUCCEED, request.data())).length;
+                writeFrame(client, request, accepts, 1);
+                header = readFully(client, HEADER_LENGTH);
+                length = header.getInt() - (HEADER_LENGTH - Integer.BYTES);
+                header.get();
+                Assertions.assertEquals(accepts | compressed, header.get());
+                Assertions.assertEquals(1, header.getInt());
+                Assertions.assertTrue(length * 3 < encodedLength);
+
+                ByteBuffer payload = readFully(client, length);
+                Assertions.assertEquals(encodedLength, payload.getInt());
+                ByteBuffer inflated = ByteBuffer.allocate(encodedLength);
+                Inflater inflater = new Inflater();
+                inflater.setInput(payload);
+                inflater.inflate(inflated);
+                inflater.end();
+                Response response = SerializeManager.BINARY.decode(inflated.flip(), Response.class);
+                Assertions.assertEquals(20000, ((EncodedLectures) response.data()).decode().getLength());
+
+                // not compressed for peer not accepting
+                writeFrame(client, request, 0, 2);
+                header = readFully(client, HEADER_LENGTH);
+                length = header.getInt() - (HEADER_LENGTH - Integer.BYTES);
+                header.get();
+                Assertions.assertEquals(accepts, header.get());
+                Assertions.assertEquals(2, header.getInt());
+                Assertions.assertEquals(encodedLength, length);
+                readFully(client, length);
+
+                writeFrame(client, new Request(Request.BYE, null), accepts, 3);
+            }
+            serverThread.join();
+        }
+    }
+
+    @Test
+    public void testPipelining() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("127.0.0.1", 0))) {
+            Thread serverThread = new Thread(() -> {
+                try (EchoCommunicator handler = new EchoCommunicator(server.accept())) {
+                    Status status = Status.SUCCEED;
+                    while (status != Status.BYE)
+                        status = handler.receiveAndSend();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            serverThread.start();
+
+            try (EchoCommunicator client = new EchoCommunicator(SocketChannel.open(server.getLocalAddress()))) {
+                // all written before any response is read
+                ArrayList<CompletableFuture<Response>> futures = new ArrayList<>();
+                for (int i = 0; i < 100; i++)
+                    futures.push(client.sendAsync(new Request(Request.SELECT, Integer.toString(i))));
+                EncodedLectures encoded = EncodedLectures.encode(createLectures(5000));
+                CompletableFuture<Response> lectures = client.sendAsync(new Request(Request.REQ_LECTURES, encoded));
+
+                for (int i = 0; i < 100; i++)
+                    Assertions.assertEquals(Integer.toString(i), Communicator.await(futures.at(i)).data());
+                Assertions.assertEquals(5000, ((EncodedLectures) Communicator.await(lectures).data()).decode().getLength());
+                Assertions.assertEquals(Status.BYE, client.send(new Request(Request.BYE, null)).status());
+            }
+            serverThread.join();
+
+            // requests after connection is closed fail instead of waiting
+            EchoCommunicator closed = new EchoCommunicator(SocketChannel.open(server.getLocalAddress()));
+            closed.close();
+            Assertions.assertThrows(IOException.class, () -> closed.send(new Request(Request.SELECT, "closed")));
+        }
+    }
+
+    @Test
+    public void testBufferPool() {
+        BufferPool pool = new BufferPool(2);
+        ByteBuffer buffer = pool.acquire(3000);
+        Assertions.assertEquals(3000, buffer.limit());
+        pool.release(buffer);
+        ByteBuffer reused = pool.acquire(100);
+        Assertions.assertSame(buffer, reused);
+        Assertions.assertEquals(100, reused.limit());
+        Assertions.assertEquals(0, reused.position());
+    }
+}
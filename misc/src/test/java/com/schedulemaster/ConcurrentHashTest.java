@@ -0,0 +1,60 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.ConcurrentHash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentHashTest {
+    @Test
+    public void testConcurrentHash() {
+        ConcurrentHash<String, Integer> hash = new ConcurrentHash<>();
+
+        for (int i = 0; i < 1000; i++)
+            hash.put("key" + i, i);
+        Assertions.assertThrows(RuntimeException.class, () -> hash.put("key0", 0));
+        Assertions.assertEquals(0, hash.putIfAbsent("key0", 1));
+
+        for (int i = 0; i < 1000; i += 2)
+            hash.remove("key" + i);
+        Assertions.assertEquals(500, hash.getLength());
+        Assertions.assertFalse(hash.hasKey("key0"));
+
+        int expected = 1;
+        for (Integer value : hash) {
+            Assertions.assertEquals(expected, value);
+            expected += 2;
+        }
+    }
+
+    @Test
+    public void testPutIfAbsentFromThreads() throws InterruptedException {
+        ConcurrentHash<Integer, String> hash = new ConcurrentHash<>();
+        int threadCount = 8;
+        int[] won = new int[threadCount];
+
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    if (hash.putIfAbsent(i, "thread" + id) == null)
+                        won[id] += 1;
+                    hash.get(i / 2);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        int sum = 0;
+        for (int count : won)
+            sum += count;
+        Assertions.assertEquals(10000, sum);
+        Assertions.assertEquals(10000, hash.getLength());
+
+        ArrayList<Integer> keys = hash.getKeys();
+        Assertions.assertEquals(10000, keys.getLength());
+    }
+}
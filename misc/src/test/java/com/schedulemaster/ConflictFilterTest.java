@@ -0,0 +1,61 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.model.ConflictFilter;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class ConflictFilterTest {
+    private static LectureTime.Time time(int minutes) {
+        return new LectureTime.Time(minutes / 60, minutes % 60);
+    }
+
+    private static Lecture createLecture(int number, Random random) {
+        Lecture lecture = new Lecture();
+        lecture.lectureNum = String.valueOf(number);
+        lecture.time = new LectureTime();
+        int timeSets = 1 + random.nextInt(3);
+        for (int i = 0; i < timeSets; i++) {
+            int start = 8 * 60 + random.nextInt(10 * 60);
+            // some times are not on 5 minute boundary
+            if (random.nextBoolean())
+                start -= start % 5;
+            lecture.time.addTimeSet(random.nextInt(6), time(start), time(start + 50 + random.nextInt(100)));
+        }
+        return lecture;
+    }
+
+    @Test
+    public void testFindFitting() {
+        Random random = new Random(14);
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            lectures.push(createLecture(i, random));
+        ConflictFilter filter = new ConflictFilter(lectures);
+
+        for (int round = 0; round < 20; round++) {
+            LectureTime used = new LectureTime();
+            for (int i = 0; i < 4; i++)
+                used.addAll(createLecture(-1, random).time);
+
+            BitSet fitting = filter.findFitting(used);
+            for (int id = 0; id < lectures.getLength(); id++)
+                Assertions.assertEquals(!lectures.at(id).time.conflictWith(used), fitting.get(id));
+            Assertions.assertEquals(fitting.cardinality(), filter.findFittingLectures(used).getLength());
+        }
+    }
+
+    @Test
+    public void testEmptyTime() {
+        Random random = new Random(7);
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            lectures.push(createLecture(i, random));
+        Assertions.assertEquals(100, new ConflictFilter(lectures).findFitting(new LectureTime()).cardinality());
+    }
+}
@@ -0,0 +1,130 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.model.ConflictGraph;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class ConflictGraphTest {
+    private static LectureTime.Time time(int minutes) {
+        return new LectureTime.Time(minutes / 60, minutes % 60);
+    }
+
+    private static void addRandomTime(Lecture lecture, Random random) {
+        int start = 8 * 60 + random.nextInt(10 * 60);
+        lecture.time.addTimeSet(random.nextInt(6), time(start), time(start + 50 + random.nextInt(100)));
+    }
+
+    private static Lecture createLecture(int number, Random random) {
+        Lecture lecture = new Lecture();
+        lecture.lectureNum = String.valueOf(number);
+        lecture.time = new LectureTime();
+        int timeSets = 1 + random.nextInt(3);
+        for (int i = 0; i < timeSets; i++)
+            addRandomTime(lecture, random);
+        return lecture;
+    }
+
+    private static void assertGraph(ArrayList<Lecture> lectures, ConflictGraph graph) {
+        Assertions.assertEquals(lectures.getLength(), graph.getLength());
+        for (int a = 0; a < lectures.getLength(); a++) {
+            for (int b = 0; b < lectures.getLength(); b++) {
+                boolean expected = a != b && lectures.at(a).time.conflictWith(lectures.at(b).time);
+                Assertions.assertEquals(expected, graph.conflict(a, b));
+            }
+        }
+    }
+
+    @Test
+    public void testBuild() {
+        Random random = new Random(15);
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < 300; i++)
+            lectures.push(createLecture(i, random));
+        ConflictGraph graph = new ConflictGraph(lectures);
+        assertGraph(lectures, graph);
+
+        BitSet enrolled = new BitSet();
+        enrolled.set(graph.getNeighbors(0)[0]);
+        Assertions.assertTrue(graph.conflictWithAny(0, enrolled));
+        enrolled.clear();
+        enrolled.set(0);
+        Assertions.assertFalse(graph.conflictWithAny(0, enrolled));
+    }
+
+    @Test
+    public void testUpdate() {
+        Random random = new Random(51);
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            lectures.push(createLecture(i, random));
+        ConflictGraph graph = new ConflictGraph(lectures);
+
+        ArrayList<Lecture> appended = new ArrayList<>();
+        appended.addAll(lectures);
+        for (int i = 200; i < 250; i++)
+            appended.push(createLecture(i, random));
+        addRandomTime(appended.at(3), random);
+        addRandomTime(appended.at(77), random);
+
+        ConflictGraph updated = graph.update(appended, new int[]{3, 77});
+        assertGraph(appended, updated);
+        assertGraph(appended, new ConflictGraph(appended));
+    }
+
+    @Test
+    public void testUpdateRepeated() {
+        Random random = new Random(7);
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < 150; i++)
+            lectures.push(createLecture(i, random));
+        ConflictGraph graph = new ConflictGraph(lectures);
+
+        for (int round = 0; round < 5; round++) {
+            ArrayList<Lecture> next = new ArrayList<>();
+            next.addAll(lectures);
+            int[] changed = new int[10];
+            for (int i = 0; i < changed.length; i++) {
+                changed[i] = random.nextInt(next.getLength());
+                Lecture lecture = next.at(changed[i]).copy();
+                lecture.time = new LectureTime();
+                addRandomTime(lecture, random);
+                next.set(changed[i], lecture);
+            }
+            for (int i = 0; i < 20; i++)
+                next.push(createLecture(next.getLength(), random));
+            graph = graph.update(next, changed);
+            assertGraph(next, graph);
+            lectures = next;
+        }
+
+        // most lectures appended, built again
+        ArrayList<Lecture> appended = new ArrayList<>();
+        appended.addAll(lectures);
+        for (int i = 0; i < 400; i++)
+            appended.push(createLecture(appended.getLength(), random));
+        assertGraph(appended, graph.update(appended, new int[0]));
+    }
+
+    @Test
+    public void testEmptyTimeSet() {
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        int[][] times = {{640, 747}, {733, 733}, {735, 735}, {700, 700}};
+        for (int i = 0; i < times.length; i++) {
+            Lecture lecture = new Lecture();
+            lecture.lectureNum = String.valueOf(i);
+            lecture.time = new LectureTime();
+            lecture.time.addTimeSet(0, time(times[i][0]), time(times[i][1]));
+            lectures.push(lecture);
+        }
+        ConflictGraph graph = new ConflictGraph(lectures);
+        assertGraph(lectures, graph);
+        Assertions.assertEquals(0, graph.getNeighbors(0).length);
+        assertGraph(lectures, graph.update(lectures, new int[]{0, 1, 2}));
+    }
+}
@@ -0,0 +1,71 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.SymbolTable;
+import com.schedulemaster.model.EncodedLectures;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+import com.schedulemaster.util.SerializeManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+public class EncodedLecturesTest {
+    private static ArrayList<Lecture> createLectures(int length) {
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            Lecture lecture = new Lecture();
+            lecture.lectureNum = String.format("%05d", i);
+            lecture.name = "자료구조" + (i % 50);
+            lecture.professor = new String("교수" + (i % 30));
+            lecture.major = new String("컴퓨터공학과");
+            lecture.classRoom = i % 7 == 0 ? null : "공학관 " + (i % 40);
+            lecture.grade = i % 4 + 1;
+            lecture.score = 3;
+            lecture.max = 40;
+            lecture.enrolled = i % 41;
+            lecture.time = new LectureTime();
+            lecture.time.addTimeSet(i % 6, new LectureTime.Time(9 + i % 8, 0), new LectureTime.Time(10 + i % 8, 15));
+            if (i % 2 == 0)
+                lecture.time.addTimeSet((i + 2) % 6, new LectureTime.Time(13, 30), new LectureTime.Time(14, 45));
+            lectures.push(lecture);
+        }
+        return lectures;
+    }
+
+    @Test
+    public void testSymbolTable() {
+        SymbolTable symbols = new SymbolTable();
+        Assertions.assertEquals(0, symbols.intern("a"));
+        Assertions.assertEquals(1, symbols.intern("b"));
+        Assertions.assertEquals(0, symbols.intern(new String("a")));
+        Assertions.assertSame(symbols.get(0), symbols.canonical(new String("a")));
+        Assertions.assertEquals(-1, symbols.indexOf("c"));
+        Assertions.assertNull(symbols.canonical(null));
+        Assertions.assertEquals(2, symbols.getLength());
+    }
+
+    @Test
+    public void testEncode() throws IOException {
+        ArrayList<Lecture> lectures = createLectures(2000);
+        EncodedLectures encoded = SerializeManager.deserialize(SerializeManager.serialize(EncodedLectures.encode(lectures)), EncodedLectures.class);
+        ArrayList<Lecture> decoded = encoded.decode();
+
+        Assertions.assertEquals(lectures.getLength(), decoded.getLength());
+        for (int i = 0; i < lectures.getLength(); i++) {
+            Lecture expected = lectures.at(i);
+            Lecture actual = decoded.at(i);
+            Assertions.assertEquals(expected.hashCode(), actual.hashCode());
+            Assertions.assertEquals(expected.time, actual.time);
+            Assertions.assertEquals(expected.classRoom, actual.classRoom);
+        }
+        // repeated values share one instance
+        Assertions.assertSame(decoded.at(0).major, decoded.at(1).major);
+        Assertions.assertSame(decoded.at(0).professor, decoded.at(30).professor);
+
+        int encodedSize = SerializeManager.serialize(EncodedLectures.encode(lectures)).length;
+        int serializedSize = SerializeManager.serialize(lectures).length;
+        Assertions.assertTrue(encodedSize * 2 < serializedSize);
+    }
+}
@@ -4,6 +4,8 @@ import com.schedulemaster.misc.Hash;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.*;
+
 public class HashTest {
 
     @Test
@@ -31,4 +33,71 @@ public class HashTest {
         }
 
     }
+
+    @Test
+    public void testGrowAndRemove() {
+        Hash<String, Integer> hash = new Hash<>();
+
+        for (int i = 0; i < 20000; i++) {
+            hash.put("key" + i, i);
+        }
+        Assertions.assertEquals(20000, hash.getLength());
+
+        for (int i = 0; i < 20000; i += 2) {
+            hash.remove("key" + i);
+        }
+        Assertions.assertEquals(10000, hash.getLength());
+
+        for (int i = 0; i < 20000; i++) {
+            Assertions.assertEquals(i % 2 == 1, hash.hasKey("key" + i));
+        }
+
+        int expected = 1;
+        for (Integer value : hash) {
+            Assertions.assertEquals(expected, value);
+            expected += 2;
+        }
+
+        hash.set("key1", -1);
+        hash.set("key0", 0);
+        Assertions.assertEquals(-1, hash.get("key1"));
+        Assertions.assertEquals("key0", hash.getKeys().at(hash.getLength() - 1));
+        Assertions.assertThrows(RuntimeException.class, () -> hash.put("key0", 1));
+    }
+
+    @Test
+    public void testStream() {
+        Hash<Integer, Integer> hash = new Hash<>();
+        for (int i = 0; i < 10000; i++) {
+            hash.put(i, i);
+        }
+        for (int i = 0; i < 10000; i += 3) {
+            hash.remove(i);
+        }
+
+        Assertions.assertEquals(hash.getLength(), (int) hash.parallelStream().count());
+        Assertions.assertEquals(0L, hash.parallelStream().filter(i -> i % 3 == 0).count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerialize() throws IOException, ClassNotFoundException {
+        Hash<String, Integer> hash = new Hash<>();
+        for (int i = 0; i < 1000; i++)
+            hash.put("key" + i, i);
+        for (int i = 0; i < 1000; i += 3)
+            hash.remove("key" + i);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(hash);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Hash<String, Integer> read = (Hash<String, Integer>) ois.readObject();
+            Assertions.assertEquals(hash, read);
+            Assertions.assertEquals(hash.getKeys(), read.getKeys());
+            read.put("key0", 0);
+            Assertions.assertEquals(0, read.get("key0"));
+        }
+    }
 }
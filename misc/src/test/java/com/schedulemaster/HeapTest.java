@@ -1,8 +1,11 @@
 package com.schedulemaster;
 
 import com.schedulemaster.misc.Heap;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.*;
+
 public class HeapTest {
     @Test
     public void testHeap() {
@@ -15,4 +18,24 @@ public class HeapTest {
             System.out.println(heap.pop());
         }
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerialize() throws IOException, ClassNotFoundException {
+        Heap<Integer> heap = new Heap<>((a, b) -> a < b);
+        for (int i = 100; i > 0; i--)
+            heap.insert(i);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(heap);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Heap<Integer> read = (Heap<Integer>) ois.readObject();
+            Assertions.assertEquals(100, read.getLength());
+            read.insert(0);
+            for (int i = 0; i <= 100; i++)
+                Assertions.assertEquals(i, read.pop());
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.IntHeap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IntHeapTest {
+    @Test
+    public void testIntHeap() {
+        IntHeap<String> heap = new IntHeap<>(true);
+
+        for (int i = 0; i < 100; i++)
+            heap.insert("lecture" + i, i);
+        Assertions.assertEquals(100, heap.getLength());
+        Assertions.assertThrows(RuntimeException.class, () -> heap.insert("lecture0", 0));
+
+        heap.updatePriority("lecture0", 1000);
+        heap.updatePriority("lecture99", -1);
+        heap.remove("lecture50");
+        Assertions.assertEquals(99, heap.getLength());
+        Assertions.assertEquals("lecture0", heap.top());
+
+        ArrayList<String> sorted = heap.toSortedList();
+        Assertions.assertEquals(99, heap.getLength());
+        Assertions.assertEquals("lecture99", sorted.at(sorted.getLength() - 1));
+
+        int last = Integer.MAX_VALUE;
+        while (!heap.isEmpty()) {
+            int priority = heap.topPriority();
+            Assertions.assertTrue(priority <= last);
+            last = priority;
+            heap.pop();
+        }
+        Assertions.assertNull(heap.pop());
+    }
+
+    @Test
+    public void testHeapify() {
+        ArrayList<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            source.push((i * 37) % 50);
+
+        IntHeap<Integer> heap = IntHeap.heapify(source, Integer::intValue, false);
+        for (int i = 0; i < 50; i++)
+            Assertions.assertEquals(i, heap.pop());
+    }
+}
@@ -0,0 +1,122 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.IntervalIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class IntervalIndexTest {
+    private static boolean overlaps(int[] intervals, int[] ranges) {
+        for (int i = 0; i < intervals.length; i += 2) {
+            for (int r = 0; r < ranges.length; r += 2) {
+                if (intervals[i] < ranges[r + 1] && ranges[r] < intervals[i + 1])
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    // ranges here don't overlap or touch each other
+    private static boolean within(int[] intervals, int[] ranges) {
+        if (intervals.length == 0)
+            return false;
+        for (int i = 0; i < intervals.length; i += 2) {
+            boolean contained = false;
+            for (int r = 0; r < ranges.length; r += 2) {
+                if (ranges[r] <= intervals[i] && intervals[i + 1] <= ranges[r + 1])
+                    contained = true;
+            }
+            if (!contained)
+                return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(16);
+        ArrayList<int[]> table = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int[] intervals = new int[random.nextInt(4) * 2];
+            for (int j = 0; j < intervals.length; j += 2) {
+                intervals[j] = random.nextInt(1000);
+                intervals[j + 1] = intervals[j] + 1 + random.nextInt(60);
+            }
+            table.push(intervals);
+        }
+        IntervalIndex<int[]> index = new IntervalIndex<>(table, intervals -> intervals);
+
+        for (int round = 0; round < 100; round++) {
+            int start = random.nextInt(1000);
+            int[] ranges = {start, start + random.nextInt(200), start + 300, start + 300 + random.nextInt(200)};
+
+            int[] overlapping = index.overlappingIds(ranges);
+            int[] within = index.withinIds(ranges);
+            int o = 0;
+            int w = 0;
+            for (int id = 0; id < table.getLength(); id++) {
+                if (overlaps(table.at(id), ranges))
+                    Assertions.assertEquals(id, overlapping[o++]);
+                if (within(table.at(id), ranges))
+                    Assertions.assertEquals(id, within[w++]);
+            }
+            Assertions.assertEquals(o, overlapping.length);
+            Assertions.assertEquals(w, within.length);
+        }
+    }
+
+    @Test
+    public void testUpdate() {
+        Random random = new Random(20);
+        ArrayList<int[]> table = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            table.push(new int[]{random.nextInt(1000), 1000 + random.nextInt(100)});
+        IntervalIndex<int[]> index = new IntervalIndex<>(table, intervals -> intervals);
+
+        int[] changed = {3, 50, 50, 199};
+        table.set(3, new int[0]);
+        table.set(50, new int[]{-5, 10, 2000, 2010});
+        table.set(199, new int[]{500, 501});
+        index.update(changed);
+
+        IntervalIndex<int[]> rebuilt = new IntervalIndex<>(table, intervals -> intervals);
+        Assertions.assertEquals(rebuilt.getLength(), index.getLength());
+        for (int start = -10; start < 2100; start += 7) {
+            int[] ranges = {start, start + 30};
+            Assertions.assertArrayEquals(rebuilt.overlappingIds(ranges), index.overlappingIds(ranges));
+            Assertions.assertArrayEquals(rebuilt.withinIds(ranges), index.withinIds(ranges));
+        }
+        Assertions.assertArrayEquals(new int[]{50}, index.withinIds(new int[]{-10, 11, 2000, 2010}));
+    }
+
+    @Test
+    public void testAdjacentRanges() {
+        ArrayList<int[]> table = new ArrayList<>();
+        table.push(new int[]{10, 30});
+        table.push(new int[]{10, 20, 40, 50});
+        table.push(new int[]{25, 45});
+        IntervalIndex<int[]> index = new IntervalIndex<>(table, intervals -> intervals);
+
+        // [10, 20) and [20, 30) together contain [10, 30)
+        Assertions.assertEquals(1, index.findWithin(new int[]{20, 30, 10, 20}).getLength());
+        Assertions.assertEquals(2, index.findWithin(new int[]{10, 30, 40, 50}).getLength());
+        // end is exclusive
+        Assertions.assertEquals(1, index.findOverlapping(30, 40).getLength());
+        Assertions.assertEquals(2, index.findOverlapping(10, 11).getLength());
+    }
+
+    @Test
+    public void testNegativeStart() {
+        ArrayList<int[]> table = new ArrayList<>();
+        table.push(new int[]{5, 15});
+        table.push(new int[]{-20, -10, 0, 10});
+        table.push(new int[]{-5, 3});
+        IntervalIndex<int[]> index = new IntervalIndex<>(table, intervals -> intervals);
+
+        Assertions.assertArrayEquals(new int[]{1, 2}, index.overlappingIds(new int[]{-12, -2}));
+        Assertions.assertArrayEquals(new int[]{0, 1, 2}, index.overlappingIds(new int[]{2, 6}));
+        Assertions.assertArrayEquals(new int[]{1, 2}, index.withinIds(new int[]{0, 10, -30, -5, -5, 0}));
+    }
+}
@@ -0,0 +1,39 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.JamoIndex;
+import com.schedulemaster.util.Hangul;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JamoIndexTest {
+    @Test
+    public void testHangul() {
+        Assertions.assertEquals("ㅈㄹㄱㅈ", Hangul.chosung("자료구조"));
+        Assertions.assertEquals("ㄷㅏㄹㄱ", Hangul.decompose("닭"));
+        Assertions.assertEquals("ㄱㅗㅏ", Hangul.decompose("과"));
+        Assertions.assertEquals("ㄱㅗㅏ", Hangul.decompose("고ㅏ"));
+        Assertions.assertTrue(Hangul.isChosungOnly("ㅈㄹ"));
+        Assertions.assertFalse(Hangul.isChosungOnly("자ㄹ"));
+    }
+
+    @Test
+    public void testSearch() {
+        ArrayList<String> table = new ArrayList<>();
+        table.push("자료구조");
+        table.push("알고리즘");
+        table.push("컴퓨터과학개론");
+
+        JamoIndex<String> index = new JamoIndex<>(table, value -> value);
+        Assertions.assertEquals("자료구조", index.search("ㅈㄹㄱㅈ").at(0));
+        Assertions.assertEquals("자료구조", index.search("잘").at(0));
+        Assertions.assertEquals("컴퓨터과학개론", index.search("괗").at(0));
+        Assertions.assertEquals("알고리즘", index.search("고리").at(0));
+        Assertions.assertEquals(0, index.search("ㅋㄱ").getLength());
+
+        table.push("자바프로그래밍");
+        index.changeTable(table);
+        Assertions.assertEquals(3, index.search("ㅈ").getLength());
+        Assertions.assertEquals("자바프로그래밍", index.search("ㅈㅂ").at(0));
+    }
+}
@@ -1,14 +1,17 @@
 package com.schedulemaster;
 
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.SortedIndex;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureBook;
+import com.schedulemaster.model.LectureColumns;
+import com.schedulemaster.model.LectureTime;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class LectureBookTest {
-    public static LinkedList<Lecture> getSampleList() {
-        LinkedList<Lecture> lectures = new LinkedList<>();
+    public static ArrayList<Lecture> getSampleList() {
+        ArrayList<Lecture> lectures = new ArrayList<>();
 
         Lecture lecture1 = new Lecture();
         lecture1.professor = "A";
@@ -33,12 +36,114 @@ public class LectureBookTest {
 
     @Test
     public void testLectureBook() {
-        LinkedList<Lecture> lectures = getSampleList();
+        ArrayList<Lecture> lectures = getSampleList();
 
         LectureBook lectureBook = new LectureBook(lectures);
         lectureBook.addIndex("professor", Lecture::getProfessor);
 
-        LinkedList<Lecture> findByProfessor = lectureBook.findLectures("professor", "A");
+        ArrayList<Lecture> findByProfessor = lectureBook.findLectures("professor", "A");
         Assertions.assertEquals(3, findByProfessor.getLength());
     }
+
+    @Test
+    public void testRangeIndex() {
+        ArrayList<Lecture> lectures = getSampleList();
+        int grade = 1;
+        for (Lecture lecture : lectures)
+            lecture.grade = grade++;
+
+        LectureBook lectureBook = new LectureBook(lectures);
+        lectureBook.addRangeIndex("grade", SortedIndex.KeySelector.of(Lecture::getGrade));
+
+        Assertions.assertEquals(2, lectureBook.findLecturesInRange("grade", 1, 2).getLength());
+        Assertions.assertEquals("0003", lectureBook.findLecturesInRange("grade", 4, 4).at(0).lectureNum);
+    }
+
+    @Test
+    public void testStartTimeRange() {
+        ArrayList<Lecture> lectures = getSampleList();
+        for (Lecture lecture : lectures)
+            lecture.time = new LectureTime();
+        lectures.at(0).time.addTimeSet(0, new LectureTime.Time(9, 0), new LectureTime.Time(10, 30));
+        lectures.at(1).time.addTimeSet(1, new LectureTime.Time(13, 0), new LectureTime.Time(14, 30));
+        lectures.at(2).time.addTimeSet(0, new LectureTime.Time(10, 30), new LectureTime.Time(12, 0));
+        lectures.at(2).time.addTimeSet(4, new LectureTime.Time(15, 0), new LectureTime.Time(16, 30));
+        lectures.at(3).time.addTimeSet(3, new LectureTime.Time(12, 0), new LectureTime.Time(13, 30));
+
+        LectureBook lectureBook = new LectureBook(lectures);
+        lectureBook.addRangeIndex("start", lecture -> lecture.time.getStartMinutes());
+
+        // starts after 13:00 on any day, a lecture is found once even if several of its days match
+        ArrayList<Lecture> afternoon = lectureBook.findLecturesInRange("start", 13 * 60, LectureTime.MINUTES_OF_DAY - 1);
+        Assertions.assertEquals(2, afternoon.getLength());
+        Assertions.assertEquals("0001", afternoon.at(0).lectureNum);
+        Assertions.assertEquals("0002", afternoon.at(1).lectureNum);
+        Assertions.assertEquals(3, lectureBook.findLecturesInRange("start", 10 * 60, 13 * 60).getLength());
+    }
+
+    private static ArrayList<Lecture> copyOf(ArrayList<Lecture> lectures) {
+        ArrayList<Lecture> result = new ArrayList<>();
+        for (Lecture lecture : lectures) {
+            Lecture copy = new Lecture();
+            copy.professor = lecture.professor;
+            copy.lectureNum = lecture.lectureNum;
+            copy.grade = lecture.grade;
+            copy.enrolled = lecture.enrolled;
+            copy.max = lecture.max;
+            result.push(copy);
+        }
+        return result;
+    }
+
+    @Test
+    public void testUpdateLectures() {
+        ArrayList<Lecture> lectures = getSampleList();
+        LectureBook lectureBook = new LectureBook(lectures);
+        lectureBook.addIndex("professor", Lecture::getProfessor);
+        lectureBook.addRangeIndex("grade", SortedIndex.KeySelector.of(Lecture::getGrade));
+        Lecture first = lectures.at(0);
+
+        ArrayList<Lecture> incoming = copyOf(lectures);
+        incoming.at(0).enrolled = 1;
+        incoming.at(2).professor = "A";
+        incoming.at(3).grade = 2;
+        ArrayList<Lecture> changed = lectureBook.updateLectures(incoming);
+
+        Assertions.assertEquals(3, changed.getLength());
+        Assertions.assertSame(first, lectureBook.findLecture("0000"));
+        Assertions.assertEquals(1, first.enrolled);
+        Assertions.assertEquals(4, lectureBook.findLectures("professor", "A").getLength());
+        Assertions.assertEquals(0, lectureBook.findLectures("professor", "B").getLength());
+        Assertions.assertEquals("0003", lectureBook.findLecturesInRange("grade", 2, 2).at(0).lectureNum);
+        // changed lectures keep order of lectures
+        Assertions.assertEquals("0002", lectureBook.findLectures("professor", "A").at(2).lectureNum);
+
+        Assertions.assertEquals(0, lectureBook.updateLectures(copyOf(lectures)).getLength());
+        incoming = copyOf(lectures);
+        incoming.at(0).grade = 2;
+        lectureBook.updateLectures(incoming);
+        Assertions.assertEquals("0000", lectureBook.findLecturesInRange("grade", 2, 2).at(0).lectureNum);
+        Assertions.assertEquals("0003", lectureBook.findLecturesInRange("grade", 2, 2).at(1).lectureNum);
+
+        // text index and columns follow changed lectures, keeping ids
+        lectures = lectureBook.getLectures();
+        for (Lecture lecture : lectures)
+            lecture.time = new LectureTime();
+        lectureBook.addTextIndex("professor", Lecture::getProfessor);
+        lectureBook.getColumns();
+        incoming = copyOf(lectures);
+        for (Lecture lecture : incoming)
+            lecture.time = new LectureTime();
+        incoming.at(1).professor = "C";
+        lectureBook.updateLectures(incoming);
+        Assertions.assertEquals("0001", lectureBook.searchLectures("professor", "c").at(0).lectureNum);
+        Assertions.assertEquals(3, lectureBook.searchLectures("professor", "A").getLength());
+        Assertions.assertEquals("C", lectureBook.getColumns().getText(LectureColumns.TextColumn.Professor, 1));
+
+        // different lecture numbers replace entire lectures
+        incoming = copyOf(lectures);
+        incoming.removeAt(3);
+        Assertions.assertSame(incoming, lectureBook.updateLectures(incoming));
+        Assertions.assertEquals(3, lectureBook.getLectures().getLength());
+    }
 }
@@ -0,0 +1,46 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureColumns;
+import com.schedulemaster.model.LectureTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+public class LectureColumnsTest {
+    @Test
+    public void testScan() {
+        ArrayList<Lecture> lectures = LectureBookTest.getSampleList();
+        int grade = 1;
+        for (Lecture lecture : lectures) {
+            lecture.grade = grade++;
+            lecture.max = 10;
+            lecture.enrolled = grade * 2;
+            lecture.major = grade % 2 == 0 ? "컴퓨터공학과" : "수학과";
+            lecture.time = new LectureTime();
+        }
+        LectureColumns columns = new LectureColumns(lectures);
+
+        Assertions.assertEquals(4, columns.getLength());
+        Assertions.assertEquals(2, columns.inRange(LectureColumns.IntColumn.Grade, 2, 3).cardinality());
+        Assertions.assertEquals(3, columns.equalTo(LectureColumns.TextColumn.Professor, "A").cardinality());
+        Assertions.assertEquals(0, columns.equalTo(LectureColumns.TextColumn.Professor, "C").cardinality());
+        // class room is not set
+        Assertions.assertEquals(4, columns.equalTo(LectureColumns.TextColumn.ClassRoom, null).cardinality());
+
+        // enrolled 4, 6, 8, 10 of max 10
+        BitSet notFull = columns.notFull();
+        Assertions.assertEquals(3, notFull.cardinality());
+        Assertions.assertFalse(notFull.get(3));
+
+        BitSet computerScience = columns.equalTo(LectureColumns.TextColumn.Major, "컴퓨터공학과");
+        computerScience.and(notFull);
+        ArrayList<Lecture> result = columns.materialize(computerScience);
+        Assertions.assertEquals(2, result.getLength());
+        Assertions.assertEquals("0000", result.at(0).lectureNum);
+        Assertions.assertEquals("0002", result.at(1).lectureNum);
+        Assertions.assertEquals("B", columns.getText(LectureColumns.TextColumn.Professor, 2));
+    }
+}
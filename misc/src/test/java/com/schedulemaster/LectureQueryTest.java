@@ -0,0 +1,93 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.SortedIndex;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureBook;
+import com.schedulemaster.model.LectureQuery;
+import com.schedulemaster.model.LectureTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class LectureQueryTest {
+    private static final String[] MAJORS = {"컴퓨터공학과", "전자공학과", "기계공학과", "수학과"};
+
+    private static LectureBook createLectureBook() {
+        Random random = new Random(19);
+        ArrayList<Lecture> lectures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Lecture lecture = new Lecture();
+            lecture.lectureNum = String.format("%05d", i);
+            lecture.name = "자료구조" + random.nextInt(40);
+            lecture.professor = "교수" + random.nextInt(30);
+            lecture.major = MAJORS[random.nextInt(MAJORS.length)];
+            lecture.grade = random.nextInt(4) + 1;
+            lecture.time = new LectureTime();
+            int start = 9 + random.nextInt(8);
+            lecture.time.addTimeSet(random.nextInt(5), new LectureTime.Time(start, 0), new LectureTime.Time(start + 1, 15));
+            lectures.push(lecture);
+        }
+        LectureBook lectureBook = new LectureBook(lectures);
+        lectureBook.addIndex("Major", Lecture::getMajor);
+        lectureBook.addJamoIndex("Name", Lecture::getName);
+        lectureBook.addRangeIndex("Grade", SortedIndex.KeySelector.of(Lecture::getGrade));
+        lectureBook.addIntervalIndex("Time", lecture -> lecture.time.getIntervals());
+        return lectureBook;
+    }
+
+    private static void assertSame(LectureBook lectureBook, LectureQuery query, LectureBook.Comparator expected) {
+        ArrayList<Lecture> result = lectureBook.query(query);
+        ArrayList<Lecture> scanned = lectureBook.findWithComparator(expected);
+        Assertions.assertEquals(scanned.getLength(), result.getLength());
+        for (int i = 0; i < scanned.getLength(); i++)
+            Assertions.assertSame(scanned.at(i), result.at(i));
+    }
+
+    @Test
+    public void testAnd() {
+        LectureBook lectureBook = createLectureBook();
+        LectureTime time = new LectureTime();
+        time.addTimeSet(2, new LectureTime.Time(10, 0), new LectureTime.Time(12, 0));
+
+        assertSame(lectureBook, LectureQuery.and(
+                LectureQuery.equalTo("Major", "수학과"),
+                LectureQuery.inRange("Grade", 2, 3),
+                LectureQuery.contains("Name", "구조1")
+        ), lecture -> lecture.major.equals("수학과") && lecture.grade >= 2 && lecture.grade <= 3 && lecture.name.contains("구조1"));
+
+        assertSame(lectureBook, LectureQuery.and(
+                LectureQuery.overlapping("Time", time),
+                LectureQuery.inRange("Grade", 1, 1),
+                LectureQuery.where(lecture -> lecture.professor.endsWith("7"))
+        ), lecture -> lecture.time.conflictWith(time) && lecture.grade == 1 && lecture.professor.endsWith("7"));
+
+        assertSame(lectureBook, LectureQuery.and(
+                LectureQuery.fitting(time),
+                LectureQuery.equalTo("Major", "없는학과")
+        ), lecture -> false);
+
+        // no index at all scans every lecture
+        assertSame(lectureBook, LectureQuery.and(
+                LectureQuery.where(lecture -> lecture.grade == 4)
+        ), lecture -> lecture.grade == 4);
+    }
+
+    @Test
+    public void testOr() {
+        LectureBook lectureBook = createLectureBook();
+        LectureTime time = new LectureTime();
+        time.addTimeSet(0, new LectureTime.Time(9, 0), new LectureTime.Time(10, 0));
+
+        assertSame(lectureBook, LectureQuery.or(
+                LectureQuery.equalTo("Major", "전자공학과"),
+                LectureQuery.and(LectureQuery.inRange("Grade", 4, 4), LectureQuery.fitting(time))
+        ), lecture -> lecture.major.equals("전자공학과") || (lecture.grade == 4 && !lecture.time.conflictWith(time)));
+
+        assertSame(lectureBook, LectureQuery.or(
+                LectureQuery.contains("Name", "ㅈㄹㄱㅈ3"),
+                LectureQuery.where(lecture -> lecture.professor.equals("교수1"))
+        ), lecture -> lecture.name.startsWith("자료구조3") || lecture.professor.equals("교수1"));
+    }
+}
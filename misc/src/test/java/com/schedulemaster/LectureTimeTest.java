@@ -1,5 +1,81 @@
 package com.schedulemaster;
 
+import com.schedulemaster.model.LectureTime;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
 public class LectureTimeTest {
-    
+    private static LectureTime create(int dayOfWeek, String start, String end) {
+        LectureTime lectureTime = new LectureTime();
+        lectureTime.addTimeSet(dayOfWeek, LectureTime.Time.parseTime(start), LectureTime.Time.parseTime(end));
+        return lectureTime;
+    }
+
+    @Test
+    public void testConflict() {
+        LectureTime a = create(0, "09:00", "10:15");
+        Assertions.assertTrue(a.getMask().isExact());
+        Assertions.assertTrue(a.conflictWith(create(0, "10:00", "11:00")));
+        Assertions.assertFalse(a.conflictWith(create(0, "10:15", "11:00")));
+        Assertions.assertFalse(a.conflictWith(create(1, "09:00", "10:15")));
+        Assertions.assertTrue(a.conflictWith(create(0, "09:30", "09:45")));
+
+        a.addTimeSet(2, LectureTime.Time.parseTime("13:00"), LectureTime.Time.parseTime("14:00"));
+        Assertions.assertTrue(a.conflictWith(create(2, "13:55", "15:00")));
+        a.removeTimeSet(2, LectureTime.Time.parseTime("13:00"), LectureTime.Time.parseTime("14:00"));
+        Assertions.assertFalse(a.conflictWith(create(2, "13:55", "15:00")));
+    }
+
+    @Test
+    public void testInexactConflict() {
+        // 10:12 and 10:13 share a slot, but don't overlap
+        LectureTime a = create(3, "09:00", "10:12");
+        Assertions.assertFalse(a.getMask().isExact());
+        Assertions.assertFalse(a.conflictWith(create(3, "10:13", "11:00")));
+        Assertions.assertTrue(a.conflictWith(create(3, "10:11", "11:00")));
+    }
+
+    @Test
+    public void testEmptyTimeSet() {
+        LectureTime a = create(0, "10:40", "12:27");
+        LectureTime unaligned = create(0, "12:13", "12:13");
+        LectureTime aligned = create(0, "12:15", "12:15");
+        Assertions.assertFalse(a.conflictWith(unaligned));
+        Assertions.assertFalse(a.conflictWith(aligned));
+        Assertions.assertFalse(unaligned.conflictWith(a));
+        Assertions.assertTrue(unaligned.getMask().isEmpty());
+        Assertions.assertTrue(unaligned.getMask().isExact());
+
+        // empty time set doesn't hide other time sets
+        unaligned.addTimeSet(0, LectureTime.Time.parseTime("12:20"), LectureTime.Time.parseTime("12:30"));
+        Assertions.assertTrue(a.conflictWith(unaligned));
+    }
+
+    @Test
+    public void testInclude() {
+        LectureTime a = create(4, "09:00", "10:00");
+        a.addTimeSet(4, LectureTime.Time.parseTime("10:00"), LectureTime.Time.parseTime("12:00"));
+        Assertions.assertTrue(a.include(create(4, "09:30", "11:30")));
+        Assertions.assertFalse(a.include(create(4, "11:30", "12:30")));
+        Assertions.assertFalse(a.include(create(5, "09:30", "10:00")));
+
+        LectureTime b = create(4, "09:01", "10:07");
+        b.addTimeSet(4, LectureTime.Time.parseTime("10:07"), LectureTime.Time.parseTime("10:11"));
+        Assertions.assertTrue(b.include(create(4, "09:03", "10:10")));
+        Assertions.assertFalse(b.include(create(4, "09:03", "10:12")));
+    }
+
+    @Test
+    public void testAddAll() {
+        LectureTime used = new LectureTime();
+        used.addAll(create(0, "09:00", "10:00"));
+        used.addAll(create(1, "13:00", "14:00"));
+        Assertions.assertEquals(2, used.getTimeSets().getLength());
+        Assertions.assertTrue(used.conflictWith(create(1, "13:30", "15:00")));
+        Assertions.assertFalse(used.conflictWith(create(0, "10:00", "11:00")));
+
+        LectureTime built = create(0, "09:00", "10:00");
+        built.addTimeSet(1, LectureTime.Time.parseTime("13:00"), LectureTime.Time.parseTime("14:00"));
+        Assertions.assertEquals(built.getMask(), used.getMask());
+    }
 }
@@ -0,0 +1,61 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.NGramIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class NGramIndexTest {
+    @Test
+    public void testSearch() {
+        ArrayList<String> table = new ArrayList<>();
+        table.push("자료구조");
+        table.push("알고리즘");
+        table.push("Data Structure");
+        table.push("자료구조설계");
+        table.push("구조자료");
+
+        NGramIndex<String> index = new NGramIndex<>(table, value -> value);
+        Assertions.assertEquals(2, index.search("자료구조").getLength());
+        Assertions.assertEquals("구조자료", index.search("조자").at(0));
+        Assertions.assertEquals(1, index.search("STRUCT").getLength());
+        Assertions.assertEquals(3, index.search("료").getLength());
+        Assertions.assertEquals(0, index.search("없는강의").getLength());
+        Assertions.assertEquals(5, index.search("").getLength());
+
+        index.remove("자료구조");
+        Assertions.assertEquals("자료구조설계", index.search("자료구조").at(0));
+        Assertions.assertEquals(4, index.getLength());
+    }
+
+    @Test
+    public void testUpdate() {
+        ArrayList<String> table = new ArrayList<>();
+        table.push("자료구조");
+        table.push("알고리즘");
+        table.push("자료구조설계");
+
+        NGramIndex<String> index = new NGramIndex<>(table, value -> value);
+        index.update(0, "운영체제");
+        Assertions.assertEquals(1, index.search("자료").getLength());
+        Assertions.assertEquals(0, index.searchIds("체제")[0]);
+        index.update(1, "자료실습");
+        Assertions.assertArrayEquals(new int[]{1, 2}, index.searchIds("자료"));
+
+        index.remove("자료구조설계");
+        index.update(2, "설계");
+        Assertions.assertEquals(3, index.getLength());
+        Assertions.assertArrayEquals(new int[]{2}, index.searchIds("설"));
+    }
+
+    @Test
+    public void testLargeTable() {
+        ArrayList<String> table = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+            table.push("lecture" + i);
+
+        NGramIndex<String> index = new NGramIndex<>(table, value -> value);
+        Assertions.assertEquals(11, index.search("ture1999").getLength());
+        Assertions.assertEquals(1, index.search("lecture19999").getLength());
+    }
+}
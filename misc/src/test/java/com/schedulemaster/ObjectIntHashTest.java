@@ -0,0 +1,51 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ObjectIntHash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+public class ObjectIntHashTest {
+    @Test
+    public void testObjectIntHash() {
+        ObjectIntHash<String> hash = new ObjectIntHash<>();
+
+        for (int i = 0; i < 1000; i++)
+            hash.put("key" + i, i);
+        Assertions.assertThrows(RuntimeException.class, () -> hash.put("key0", 0));
+
+        for (int i = 0; i < 1000; i += 2)
+            hash.remove("key" + i);
+        Assertions.assertEquals(500, hash.getLength());
+        Assertions.assertEquals(-1, hash.getOrDefault("key0", -1));
+        Assertions.assertEquals(1, hash.get("key1"));
+
+        Assertions.assertEquals(4, hash.addTo("key1", 3));
+        Assertions.assertEquals(5, hash.addTo("new", 5));
+        Assertions.assertEquals("new", hash.getKeys().at(hash.getLength() - 1));
+
+        int[] sum = {0};
+        hash.forEachEntry((key, value) -> sum[0] += value);
+        Assertions.assertEquals(250000 + 3 + 5, sum[0]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerialize() throws IOException, ClassNotFoundException {
+        ObjectIntHash<String> hash = new ObjectIntHash<>();
+        for (int i = 0; i < 100; i++)
+            hash.put("key" + i, i);
+        hash.remove("key50");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(hash);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ObjectIntHash<String> read = (ObjectIntHash<String>) ois.readObject();
+            Assertions.assertEquals(hash, read);
+            Assertions.assertEquals(99, read.get("key99"));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.PerfectHash;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PerfectHashTest {
+    @Test
+    public void testPerfectHash() {
+        ArrayList<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+            keys.push(String.format("%06d-%02d", i * 13, i % 7));
+
+        PerfectHash<String> hash = new PerfectHash<>(keys);
+        for (int i = 0; i < keys.getLength(); i++)
+            Assertions.assertEquals(i, hash.indexOf(keys.at(i)));
+        Assertions.assertEquals(-1, hash.indexOf("none"));
+    }
+
+    @Test
+    public void testSmall() {
+        Assertions.assertEquals(-1, new PerfectHash<String>(new ArrayList<>()).indexOf("a"));
+
+        ArrayList<Integer> keys = new ArrayList<>();
+        keys.push(3);
+        Assertions.assertEquals(0, new PerfectHash<>(keys).indexOf(3));
+
+        keys.push(3);
+        Assertions.assertThrows(RuntimeException.class, () -> new PerfectHash<>(keys));
+    }
+}
@@ -0,0 +1,39 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.PersistentArray;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PersistentArrayTest {
+    @Test
+    public void testSet() {
+        for (int length : new int[]{0, 1, 32, 33, 1025, 5000}) {
+            ArrayList<Integer> list = new ArrayList<>();
+            for (int i = 0; i < length; i++)
+                list.push(i);
+            PersistentArray<Integer> array = new PersistentArray<>(list);
+            Assertions.assertEquals(length, array.getLength());
+
+            PersistentArray<Integer> changed = array;
+            for (int i = 0; i < length; i += 7)
+                changed = changed.set(i, -i);
+            int index = 0;
+            for (Integer value : changed) {
+                Assertions.assertEquals(index % 7 == 0 ? -index : index, (int) value);
+                Assertions.assertEquals(index, (int) array.at(index));
+                index++;
+            }
+            Assertions.assertEquals(length, index);
+        }
+    }
+
+    @Test
+    public void testOutOfBounds() {
+        ArrayList<String> list = new ArrayList<>();
+        list.push("a");
+        PersistentArray<String> array = new PersistentArray<>(list);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> array.at(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> array.set(-1, "b"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.schedulemaster;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.SortedIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SortedIndexTest {
+    @Test
+    public void testRange() {
+        ArrayList<Integer> table = new ArrayList<>();
+        for (int i = 0; i < 10000; i++)
+            table.push((i * 7919) % 10000);
+
+        SortedIndex<Integer> index = new SortedIndex<>(table, SortedIndex.KeySelector.of(value -> value / 10));
+        ArrayList<Integer> result = index.range(100, 199);
+        Assertions.assertEquals(1000, result.getLength());
+        for (Integer value : result)
+            Assertions.assertTrue(1000 <= value && value < 2000);
+
+        Assertions.assertEquals(10, index.get(5).getLength());
+        Assertions.assertEquals(0, index.range(2000, 3000).getLength());
+        Assertions.assertEquals(10000, index.atLeast(0).getLength());
+
+        for (int i = 0; i < 10; i++)
+            index.remove(i);
+        Assertions.assertEquals(0, index.get(0).getLength());
+        Assertions.assertEquals(999, index.getKeys().getLength());
+    }
+
+    @Test
+    public void testMultiKey() {
+        ArrayList<String> table = new ArrayList<>();
+        table.push("a");
+        table.push("b");
+
+        SortedIndex<String> index = new SortedIndex<>(table, value -> value.equals("a") ? new int[]{1, 5, 5} : new int[]{3});
+        ArrayList<String> result = index.range(0, 10);
+        Assertions.assertEquals(2, result.getLength());
+        Assertions.assertEquals("a", result.at(0));
+        Assertions.assertEquals("b", index.range(2, 4).at(0));
+    }
+}
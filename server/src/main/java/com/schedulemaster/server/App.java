@@ -114,6 +114,8 @@ public class App implements AutoCloseable {
 
     @Override
     public void close() throws IOException {
+        // enrollments are saved in background, write the latest once more
+        lectureHandler.save();
         if (logFileOutputStream != null)
             logFileOutputStream.close();
     }
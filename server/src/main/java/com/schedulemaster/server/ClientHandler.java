@@ -1,15 +1,17 @@
 package com.schedulemaster.server;
 
 import com.schedulemaster.misc.*;
+import com.schedulemaster.model.EncodedLectures;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureTime;
 import com.schedulemaster.model.User;
 
 import java.io.IOException;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
 
 /**
  * Handling client. Saves current login user to prevent multi login.
+ * Requests of a connection are handled one at a time in order of arrival, so pipelined requests are answered in order.
  *
  * @author lalaalal
  */
@@ -26,12 +28,11 @@ public class ClientHandler extends Communicator implements Runnable {
     /**
      * Initialize ClientHandler.
      *
-     * @param client         Client socket.
+     * @param client         Client channel.
      * @param lectureHandler LectureHandler.
      * @param userHandler    UserHandler.
-     * @throws IOException If getting stream is not fine.
      */
-    public ClientHandler(Socket client, LectureHandler lectureHandler, UserHandler userHandler) throws IOException {
+    public ClientHandler(SocketChannel client, LectureHandler lectureHandler, UserHandler userHandler) {
         super(client);
         this.lectureHandler = lectureHandler;
         this.userHandler = userHandler;
@@ -78,6 +79,7 @@ public class ClientHandler extends Communicator implements Runnable {
                 case Request.SIGNUP -> signupResponse(request);
                 case Request.REQ_USER -> userDataResponse();
                 case Request.REQ_LECTURES -> lectureResponse();
+                case Request.REQ_FITTING_LECTURES -> fittingLectureResponse(request);
                 case Request.ENROLL, Request.SELECT,
                         Request.CANCEL, Request.UNSELECT -> lectureCommandResponse(request);
                 case Request.SET_PRIORITIES -> setPrioritiesResponse(request);
@@ -117,18 +119,17 @@ public class ClientHandler extends Communicator implements Runnable {
         }
 
         public Response signupResponse(Request request) {
-            if (!(request.data() instanceof User newUser))
+            if (!(request.data() instanceof User newUser) || newUser.id == null || newUser.getHashedPassword() == null)
                 return new Response(Status.FAILED, Response.WRONG_REQUEST);
 
             if (newUser.id.length() == 0)
                 return new Response(Status.FAILED, "id_is_empty");
 
-            if (userHandler.hasId(newUser.id)) {
+            if (!userHandler.addUser(newUser)) {
                 logger.log("\"" + newUser.id + "\" signup failed", Logger.INFO);
                 return new Response(Status.FAILED, "id_exists");
             }
 
-            userHandler.addUser(newUser);
             logger.log("\"" + newUser.id + "\" signup succeed", Logger.INFO);
             return new Response(Status.SUCCEED, Response.SUCCEED);
         }
@@ -141,7 +142,14 @@ public class ClientHandler extends Communicator implements Runnable {
         }
 
         public Response lectureResponse() {
-            return new Response(Status.SUCCEED, lectureHandler.getLectures());
+            logger.log("Get all Lectures", Logger.INFO);
+            return new Response(Status.SUCCEED, lectureHandler.getCatalog().getEncoded());
+        }
+
+        public Response fittingLectureResponse(Request request) {
+            if (!(request.data() instanceof LectureTime time))
+                return new Response(Status.FAILED, Response.WRONG_REQUEST);
+            return new Response(Status.SUCCEED, EncodedLectures.encode(lectureHandler.getFittingLectures(time)));
         }
 
         public Response lectureCommandResponse(Request request) {
@@ -165,11 +173,11 @@ public class ClientHandler extends Communicator implements Runnable {
             if (user == null)
                 return new Response(Status.FAILED, Response.LOGIN_REQUIRED);
 
-            if (!(request.data() instanceof Hash<?, ?> priorities))
+            if (!(request.data() instanceof ObjectIntHash<?> priorities))
                 return new Response(Status.FAILED, Response.WRONG_REQUEST);
 
             logger.log("Update \"" + user.id + "\"'s priorities", Logger.INFO);
-            user.priorities = (Hash<String, Integer>) priorities;
+            user.priorities = (ObjectIntHash<String>) priorities;
             userHandler.save();
 
             return new Response(Status.SUCCEED, Response.SUCCEED);
@@ -0,0 +1,57 @@
+package com.schedulemaster.server;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Helper for data files of handlers.
+ *
+ * @author lalaalal
+ */
+class DataFiles {
+    private DataFiles() {
+    }
+
+    public interface Writer {
+        void write(OutputStream os) throws IOException;
+    }
+
+    /**
+     * Write data file to "filePath.tmp" and move it over filePath, so file is never seen half written.
+     *
+     * @param filePath Path of data file.
+     * @param writer   Writes content of file.
+     */
+    static void write(String filePath, Writer writer) throws IOException {
+        File temporary = new File(filePath + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temporary)) {
+            writer.write(fos);
+        }
+        Files.move(temporary.toPath(), new File(filePath).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Move a data file which couldn't be read to "filePath.unreadable", so it is not overwritten by next save.
+     * Handler may start empty after this, old data stays in moved file.
+     *
+     * @param filePath Path of data file.
+     * @return Path the file was moved to.
+     * @throws UncheckedIOException If file can't be moved. Handler must not start, or old data would be lost.
+     */
+    static String setAside(String filePath) {
+        File target = new File(filePath + ".unreadable");
+        for (int i = 1; target.exists(); i++)
+            target = new File(filePath + ".unreadable." + i);
+        try {
+            Files.move(new File(filePath).toPath(), target.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't move unreadable \"" + filePath + "\" aside", e);
+        }
+        return target.getPath();
+    }
+}
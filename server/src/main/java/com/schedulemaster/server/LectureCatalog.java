@@ -0,0 +1,105 @@
+package com.schedulemaster.server;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.PerfectHash;
+import com.schedulemaster.misc.PersistentArray;
+import com.schedulemaster.model.ConflictFilter;
+import com.schedulemaster.model.ConflictGraph;
+import com.schedulemaster.model.EncodedLectures;
+import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.LectureTime;
+
+import java.util.BitSet;
+
+/**
+ * Immutable version of lecture catalog. Lecture of id is at same position in lectures.
+ * Lectures in a catalog are never changed. A change of a lecture makes a new version holding a copy of it,
+ * and sharing the others, ids, conflict filter and conflict graph, since those depend only on time.
+ * So readers holding a catalog see a consistent state without locking.
+ *
+ * @author lalaalal
+ */
+public class LectureCatalog {
+    private final long version;
+    private final PerfectHash<String> ids;
+    private final PersistentArray<Lecture> lectures;
+    private final ConflictFilter filter;
+    private final ConflictGraph graph;
+    // encoded on first request of this version
+    private volatile EncodedLectures encoded = null;
+
+    LectureCatalog(long version, PerfectHash<String> ids, PersistentArray<Lecture> lectures,
+                   ConflictFilter filter, ConflictGraph graph) {
+        this.version = version;
+        this.ids = ids;
+        this.lectures = lectures;
+        this.filter = filter;
+        this.graph = graph;
+    }
+
+    /**
+     * Make next version with lecture of id replaced. Time of lecture should not be changed.
+     *
+     * @param id      Id of lecture.
+     * @param lecture Changed copy of lecture.
+     * @return New catalog.
+     */
+    LectureCatalog with(int id, Lecture lecture) {
+        return new LectureCatalog(version + 1, ids, lectures.set(id, lecture), filter, graph);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getLength() {
+        return lectures.getLength();
+    }
+
+    /**
+     * @return Id of lecture, -1 if not found.
+     */
+    public int getId(String lectureNum) {
+        return ids.indexOf(lectureNum);
+    }
+
+    public Lecture at(int id) {
+        return lectures.at(id);
+    }
+
+    public Lecture find(String lectureNum) {
+        int id = ids.indexOf(lectureNum);
+        return id < 0 ? null : lectures.at(id);
+    }
+
+    public ConflictGraph getGraph() {
+        return graph;
+    }
+
+    public ArrayList<Lecture> getLectures() {
+        return lectures.toArrayList();
+    }
+
+    /**
+     * @return Lectures of this version not conflicting with time, in order of ids.
+     */
+    public ArrayList<Lecture> findFitting(LectureTime time) {
+        BitSet fitting = filter.findFitting(time);
+        ArrayList<Lecture> result = new ArrayList<>(fitting.cardinality());
+        for (int id = fitting.nextSetBit(0); id >= 0; id = fitting.nextSetBit(id + 1))
+            result.push(lectures.at(id));
+        return result;
+    }
+
+    /**
+     * @return All lectures encoded, shared by every request of this version.
+     */
+    public EncodedLectures getEncoded() {
+        EncodedLectures result = encoded;
+        if (result == null) {
+            result = EncodedLectures.encode(getLectures());
+            encoded = result;
+        }
+        return result;
+    }
+}
@@ -1,9 +1,15 @@
 package com.schedulemaster.server;
 
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.ConcurrentHash;
 import com.schedulemaster.misc.Hash;
-import com.schedulemaster.misc.LinkedList;
+import com.schedulemaster.misc.PerfectHash;
+import com.schedulemaster.misc.PersistentArray;
 import com.schedulemaster.misc.Request;
 import com.schedulemaster.misc.Response;
+import com.schedulemaster.misc.SymbolTable;
+import com.schedulemaster.model.ConflictFilter;
+import com.schedulemaster.model.ConflictGraph;
 import com.schedulemaster.model.Lecture;
 import com.schedulemaster.model.LectureTime;
 import com.schedulemaster.model.User;
@@ -11,47 +17,156 @@ import com.schedulemaster.util.CSVReader;
 
 import java.io.*;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * LectureHandler.
+ * LectureHandler. Client threads read lectures from current LectureCatalog, published behind one atomic reference,
+ * so reads never lock or copy. Writers (enroll, cancel, freeze) build a new version from the current one and publish it
+ * with compareAndSet, retrying if another version was published meanwhile. So enrollments never wait for each other.
+ * Added lectures wait in a ConcurrentHash until freeze. Saving writes latest version in background, outside of writers.
  *
  * @author lalaalal
  */
 public class LectureHandler {
-    private Hash<String, Lecture> lectures;
+    // lectures added or with time merged by addLecture, not yet in catalog
+    private final ConcurrentHash<String, Lecture> added = new ConcurrentHash<>();
+    // shared strings of lectures, so repeated professor, major and so on are kept once
+    private final SymbolTable symbols = new SymbolTable();
+    private final AtomicReference<LectureCatalog> catalog = new AtomicReference<>();
+    // kept across freeze and updated with lectures changed since last freeze, guarded by this
+    private ConflictGraph conflictGraph = null;
     private final String lectureDataPath;
 
+    private final Object saveLock = new Object();
+    // true while a save is waiting to start, so requests during it are merged into it
+    private final AtomicBoolean saveRequested = new AtomicBoolean(false);
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Lecture saver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final Logger logger = Logger.getInstance();
 
+    /**
+     * Load lectures. File saved with Hash is converted, and saved as ConcurrentHash on next save.
+     * A file which can't be read is moved aside instead of being overwritten by empty lectures.
+     *
+     * @param lectureDataPath Path of lecture data.
+     * @throws java.io.UncheckedIOException If unreadable file can't be moved aside.
+     */
     @SuppressWarnings("unchecked")
     public LectureHandler(String lectureDataPath) {
         this.lectureDataPath = lectureDataPath;
+        ConcurrentHash<String, Lecture> lectures;
         logger.log("Reading lecture data from \"" + lectureDataPath + "\"", Logger.INFO);
         try (FileInputStream fis = new FileInputStream(lectureDataPath);
              ObjectInputStream ois = new ObjectInputStream(fis)) {
             Object object = ois.readObject();
-            lectures = (Hash<String, Lecture>) object;
+            if (object instanceof Hash<?, ?> hash)
+                lectures = toConcurrentHash((Hash<String, Lecture>) hash);
+            else
+                lectures = (ConcurrentHash<String, Lecture>) object;
         } catch (FileNotFoundException e) {
-            lectures = new Hash<>();
+            lectures = new ConcurrentHash<>();
             logger.log("No such file : \"" + lectureDataPath + "\"", Logger.ERROR);
-        } catch (ClassNotFoundException e) {
-            lectures = new Hash<>();
-            logger.log("Class not found while reading data from \"" + lectureDataPath + "\"", Logger.ERROR);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            logger.log("Unknown data while reading data from \"" + lectureDataPath + "\"", Logger.ERROR);
+            lectures = unreadable(lectureDataPath);
         } catch (IOException e) {
-            lectures = new Hash<>();
-            logger.log("Something went wrong while load lectures from \"" + lectures + "\"", Logger.ERROR);
+            logger.log("Something went wrong while load lectures from \"" + lectureDataPath + "\"", Logger.ERROR);
+            lectures = unreadable(lectureDataPath);
+        }
+        for (Lecture lecture : lectures) {
+            lecture.share(symbols);
+            added.put(lecture.lectureNum, lecture);
+        }
+        logger.log(symbols.getLength() + " distinct strings in lectures", Logger.DEBUG);
+        freeze();
+    }
+
+    /**
+     * Publish added lectures as a new catalog version, with perfect hash of current lecture numbers.
+     * Conflict graph is updated only for lectures added or changed since last freeze.
+     * Lectures are never removed and keep insertion order, so id of a lecture doesn't change.
+     * Called when lectures are loaded, and after appending csv.
+     */
+    public synchronized void freeze() {
+        ArrayList<String> addedNums = added.getKeys();
+        while (true) {
+            LectureCatalog current = catalog.get();
+            ArrayList<Lecture> frozen = current == null ? new ArrayList<>() : current.getLectures();
+            ArrayList<String> lectureNums = new ArrayList<>(frozen.getLength() + addedNums.getLength());
+            for (Lecture lecture : frozen)
+                lectureNums.push(lecture.lectureNum);
+
+            int[] changed = new int[addedNums.getLength()];
+            int changedLength = 0;
+            for (String lectureNum : addedNums) {
+                int id = current == null ? -1 : current.getId(lectureNum);
+                if (id >= 0) {
+                    frozen.set(id, merge(frozen.at(id), added.get(lectureNum)));
+                    changed[changedLength++] = id;
+                } else {
+                    frozen.push(added.get(lectureNum));
+                    lectureNums.push(lectureNum);
+                }
+            }
+            PerfectHash<String> ids = new PerfectHash<>(lectureNums);
+            ConflictGraph graph = conflictGraph == null
+                    ? new ConflictGraph(frozen)
+                    : conflictGraph.update(frozen, Arrays.copyOf(changed, changedLength));
+
+            long version = current == null ? 0 : current.getVersion() + 1;
+            LectureCatalog next = new LectureCatalog(version, ids, new PersistentArray<>(frozen), new ConflictFilter(frozen), graph);
+            // enrollment published meanwhile, build again with its counts
+            if (catalog.compareAndSet(current, next)) {
+                conflictGraph = graph;
+                for (String lectureNum : addedNums)
+                    added.remove(lectureNum);
+                logger.log("Froze " + frozen.getLength() + " lectures", Logger.DEBUG);
+                return;
+            }
         }
     }
 
+    /**
+     * @return Copy of published lecture with time of added lecture, keeping current enrolled count.
+     */
+    private static Lecture merge(Lecture published, Lecture added) {
+        Lecture merged = published.copy();
+        merged.time = added.time;
+        return merged;
+    }
+
+    private ConcurrentHash<String, Lecture> unreadable(String lectureDataPath) {
+        String movedPath = DataFiles.setAside(lectureDataPath);
+        logger.log("Moved unreadable lecture data to \"" + movedPath + "\"", Logger.ERROR);
+        return new ConcurrentHash<>();
+    }
+
+    // lecture data saved before ConcurrentHash
+    private static ConcurrentHash<String, Lecture> toConcurrentHash(Hash<String, Lecture> hash) {
+        ConcurrentHash<String, Lecture> result = new ConcurrentHash<>();
+        for (Lecture lecture : hash)
+            result.put(lecture.lectureNum, lecture);
+        return result;
+    }
+
     public void appendFromCSV(String csvPath) {
         logger.log("Appending lectures from csv : \"" + csvPath + "\"", Logger.INFO);
         try (CSVReader csvReader = new CSVReader(csvPath)) {
             String[] tuple = csvReader.read();
             while ((tuple = csvReader.read()) != null) {
                 logger.log("Read : " + Arrays.toString(tuple) + "", Logger.VERBOSE);
-                Lecture lecture = Lecture.createLecture(tuple);
+                Lecture lecture = Lecture.createLecture(tuple, symbols);
                 addLecture(lecture);
             }
+            freeze();
             save();
         } catch (FileNotFoundException e) {
             logger.log("No such file : \"" + csvPath + "\"", Logger.ERROR);
@@ -60,26 +175,51 @@ public class LectureHandler {
         }
     }
 
+    /**
+     * @return Current version of catalog. Never changes after returned.
+     */
+    public LectureCatalog getCatalog() {
+        return catalog.get();
+    }
+
     public Lecture findLecture(String lectureNumber) {
-        return lectures.get(lectureNumber);
+        return catalog.get().find(lectureNumber);
     }
 
+    /**
+     * Add lecture. Added lectures are not visible in catalog until freeze is called.
+     * Lectures in catalog are not changed, a copy with merged time is kept instead.
+     */
     public synchronized void addLecture(Lecture lecture) {
-        Lecture sameLecture = findLecture(lecture.lectureNum);
+        Lecture sameLecture = added.get(lecture.lectureNum);
+        if (sameLecture == null)
+            sameLecture = findLecture(lecture.lectureNum);
         if (sameLecture == null) {
-            lectures.put(lecture.lectureNum, lecture);
+            added.put(lecture.lectureNum, lecture);
         } else {
-            LinkedList<LectureTime.TimeSet> timeSets = lecture.time.getTimeSets();
-            sameLecture.time.addTimeSets(timeSets);
+            Lecture merged = sameLecture.copy();
+            merged.time = new LectureTime();
+            merged.time.addAll(sameLecture.time);
+            merged.time.addTimeSets(lecture.time.getTimeSets());
+            added.set(merged.lectureNum, merged);
         }
         logger.log("Add Lecture (" + lecture + ")", Logger.DEBUG);
     }
 
-    public LinkedList<Lecture> getLectures() {
-        LinkedList<Lecture> list = new LinkedList<>();
-        list.addAll(lectures);
+    public ArrayList<Lecture> getLectures() {
         logger.log("Get all Lectures", Logger.INFO);
-        return list;
+        return catalog.get().getLectures();
+    }
+
+    /**
+     * Find every lecture not conflicting with time.
+     *
+     * @param time Used time of user.
+     * @return Fitting lectures.
+     */
+    public ArrayList<Lecture> getFittingLectures(LectureTime time) {
+        logger.log("Get fitting Lectures", Logger.INFO);
+        return catalog.get().findFitting(time);
     }
 
     public String doLectureCommand(String command, String lectureNum, User user) {
@@ -92,70 +232,117 @@ public class LectureHandler {
         };
     }
 
-    public synchronized String enrollLecture(String lectureNum, User user) {
+    public String enrollLecture(String lectureNum, User user) {
         logger.log("\"" + user.id + "\" enroll " + lectureNum, Logger.INFO);
-        Lecture enrollLecture = lectures.get(lectureNum);
+        Lecture enrollLecture = findLecture(lectureNum);
         if (user.enrolledLectures.has(lectureNum))
             return "already_enrolled";
 
-        for (String enrolledLectureNum : user.enrolledLectures) {
-            Lecture enrolledLecture = lectures.get(enrolledLectureNum);
-            if (enrolledLecture.time.conflictWith(enrollLecture.time)) {
-                logger.log(enrolledLecture.lectureNum + " conflict with " + enrollLecture.lectureNum, Logger.INFO);
-                return "conflict";
+        if (conflictWithEnrolled(enrollLecture, user)) {
+            logger.log(enrollLecture.lectureNum + " conflict with enrolled lectures", Logger.INFO);
+            return "conflict";
+        }
+
+        while (true) {
+            LectureCatalog current = catalog.get();
+            int id = current.getId(lectureNum);
+            Lecture lecture = current.at(id);
+            if (lecture.enrolled >= lecture.max) {
+                logger.log("Lecture " + lectureNum + "is already full", Logger.INFO);
+                return "lecture_full";
             }
+            Lecture changed = lecture.copy();
+            changed.enrolled += 1;
+            if (catalog.compareAndSet(current, current.with(id, changed)))
+                break;
         }
+        user.enrolledLectures.push(lectureNum);
+        requestSave();
+        return Response.SUCCEED;
+    }
 
-        if (enrollLecture.enrolled < enrollLecture.max) {
-            enrollLecture.enrolled += 1;
-            user.enrolledLectures.push(lectureNum);
-            save();
-            return Response.SUCCEED;
+    private boolean conflictWithEnrolled(Lecture lecture, User user) {
+        LectureCatalog current = catalog.get();
+        BitSet enrolledIds = new BitSet(current.getGraph().getLength());
+        for (String enrolledLectureNum : user.enrolledLectures) {
+            int id = current.getId(enrolledLectureNum);
+            if (id >= 0)
+                enrolledIds.set(id);
         }
-        logger.log("Lecture " + lectureNum + "is already full", Logger.INFO);
-        return "lecture_full";
+        return current.getGraph().conflictWithAny(current.getId(lecture.lectureNum), enrolledIds);
     }
 
-    public synchronized String selectLecture(String lectureNum, User user) {
+    public String selectLecture(String lectureNum, User user) {
         logger.log("\"" + user.id + "\" select " + lectureNum, Logger.INFO);
         if (user.selectedLectures.has(lectureNum))
             return "already_selected";
 
         user.selectedLectures.push(lectureNum);
-        save();
         return Response.SUCCEED;
     }
 
-    public synchronized String cancelLecture(String lectureNum, User user) {
+    public String cancelLecture(String lectureNum, User user) {
         logger.log("\"" + user.id + "\" cancel " + lectureNum, Logger.INFO);
-        Lecture lecture = lectures.get(lectureNum);
         if (!user.enrolledLectures.has(lectureNum))
             return "not_enrolled";
 
-        lecture.enrolled -= 1;
+        while (true) {
+            LectureCatalog current = catalog.get();
+            int id = current.getId(lectureNum);
+            Lecture canceled = current.at(id).copy();
+            canceled.enrolled -= 1;
+            if (catalog.compareAndSet(current, current.with(id, canceled)))
+                break;
+        }
         user.enrolledLectures.remove(lectureNum);
-        save();
+        requestSave();
         return Response.SUCCEED;
     }
 
-    public synchronized String unselectLecture(String lectureNum, User user) {
+    public String unselectLecture(String lectureNum, User user) {
         logger.log("\"" + user.id + "\" unselect " + lectureNum, Logger.INFO);
         if (!user.selectedLectures.has(lectureNum))
             return "not_selected";
 
         user.selectedLectures.remove(lectureNum);
-        save();
         return Response.SUCCEED;
     }
 
-    public synchronized void save() {
-        logger.log("Saving lectures to \"" + lectureDataPath + "\"", Logger.DEBUG);
-        try (FileOutputStream fos = new FileOutputStream(lectureDataPath)) {
-            try (ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-                oos.writeObject(lectures);
+    /**
+     * Save latest catalog in background. A request while another save is waiting is merged into it.
+     */
+    private void requestSave() {
+        if (saveRequested.compareAndSet(false, true)) {
+            saver.execute(() -> {
+                saveRequested.set(false);
+                save();
+            });
+        }
+    }
+
+    /**
+     * Save lectures of latest catalog and lectures waiting for freeze. Doesn't block writers.
+     */
+    public void save() {
+        synchronized (saveLock) {
+            ConcurrentHash<String, Lecture> lectures = new ConcurrentHash<>();
+            for (Lecture lecture : catalog.get().getLectures())
+                lectures.put(lecture.lectureNum, lecture);
+            for (Lecture lecture : added) {
+                Lecture published = lectures.get(lecture.lectureNum);
+                lectures.set(lecture.lectureNum, published == null ? lecture : merge(published, lecture));
+            }
+
+            logger.log("Saving lectures to \"" + lectureDataPath + "\"", Logger.DEBUG);
+            try {
+                DataFiles.write(lectureDataPath, os -> {
+                    ObjectOutputStream oos = new ObjectOutputStream(os);
+                    oos.writeObject(lectures);
+                    oos.flush();
+                });
+            } catch (IOException e) {
+                logger.log(e.getMessage(), Logger.ERROR);
             }
-        } catch (IOException e) {
-            logger.log(e.getMessage(), Logger.ERROR);
         }
     }
 }
@@ -1,9 +1,10 @@
 package com.schedulemaster.server;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 
 /**
  * Server able to run in thread.
@@ -14,7 +15,7 @@ import java.net.SocketException;
 public class Server implements AutoCloseable, Runnable {
     private static final int PORT = 5678;
 
-    private final ServerSocket serverSocket;
+    private final ServerSocketChannel serverSocket;
     private final LectureHandler lectureHandler;
     private final UserHandler userHandler;
     private final Logger logger = Logger.getInstance();
@@ -22,7 +23,7 @@ public class Server implements AutoCloseable, Runnable {
     private boolean run = true;
 
     public Server(LectureHandler lectureHandler, UserHandler userHandler) throws IOException {
-        serverSocket = new ServerSocket(PORT);
+        serverSocket = ServerSocketChannel.open().bind(new InetSocketAddress(PORT));
         this.lectureHandler = lectureHandler;
         this.userHandler = userHandler;
     }
@@ -39,15 +40,15 @@ public class Server implements AutoCloseable, Runnable {
         int clientId = 0;
         while (run) {
             try {
-                Socket client = serverSocket.accept();
+                SocketChannel client = serverSocket.accept();
                 ClientHandler clientHandler = new ClientHandler(client, lectureHandler, userHandler);
                 Thread clientHandlerThread = new Thread(clientHandler);
                 clientHandlerThread.setName("Client-" + clientId);
-                logger.log("New connection from " + client.getInetAddress()
+                logger.log("New connection from " + client.getRemoteAddress()
                         + " -> " + clientHandlerThread.getName(), Logger.INFO);
                 clientHandlerThread.start();
                 clientId += 1;
-            } catch (SocketException e) {
+            } catch (ClosedChannelException e) {
                 logger.log(e.getMessage(), Logger.INFO);
             } catch (IOException e) {
                 logger.log(e.getMessage(), Logger.ERROR);
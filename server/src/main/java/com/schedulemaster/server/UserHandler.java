@@ -1,103 +1,157 @@
 package com.schedulemaster.server;
 
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.ConcurrentHash;
 import com.schedulemaster.misc.Hash;
-import com.schedulemaster.misc.LinkedList;
 import com.schedulemaster.model.User;
 
 import java.io.*;
 
 /**
  * UserHandler. Saves login users.
+ * Registered users are kept in off-heap UserStore, and only users with login session live on heap.
  *
  * @author lalaalal
  */
 public class UserHandler {
-    private Hash<String, User> users;
-    private final LinkedList<User> loginUsers = new LinkedList<>();
+    private UserStore users;
+    // id -> user who has login session
+    private final ConcurrentHash<String, User> loginUsers = new ConcurrentHash<>();
 
     private final String filePath;
 
     private final Logger logger = Logger.getInstance();
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Load users. File saved as serialized hash is converted, and saved as UserStore on next save.
+     * A file which can't be read is moved aside instead of being overwritten by an empty store.
+     *
+     * @param filePath Path of user data.
+     * @throws java.io.UncheckedIOException If unreadable file can't be moved aside.
+     */
     public UserHandler(String filePath) {
         this.filePath = filePath;
         logger.log("Reading user data from \"" + filePath + "\"", Logger.INFO);
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath)))) {
+            users = UserStore.readFrom(dis);
+        } catch (FileNotFoundException e) {
+            users = new UserStore();
+            logger.log("No such file : \"" + filePath + "\"", Logger.ERROR);
+        } catch (StreamCorruptedException e) {
+            users = readSerializedUsers(filePath);
+        } catch (IOException e) {
+            logger.log("Something went wrong while load users from \"" + filePath + "\"", Logger.ERROR);
+            users = unreadable(filePath);
+        }
+    }
+
+    // user data saved as serialized hash, before UserStore
+    @SuppressWarnings("unchecked")
+    private UserStore readSerializedUsers(String filePath) {
         try (FileInputStream fis = new FileInputStream(filePath);
              ObjectInputStream ois = new ObjectInputStream(fis)) {
             Object object = ois.readObject();
-            users = (Hash<String, User>) object;
-        } catch (FileNotFoundException e) {
-            users = new Hash<>();
-            logger.log("No such file : \"" + filePath + "\"", Logger.ERROR);
-        } catch (ClassNotFoundException e) {
-            users = new Hash<>();
-            logger.log("Class not found while reading data from \"" + filePath + "\"", Logger.ERROR);
+            Iterable<User> serialized;
+            if (object instanceof Hash<?, ?> hash)
+                serialized = (Hash<String, User>) hash;
+            else
+                serialized = (ConcurrentHash<String, User>) object;
+            UserStore store = new UserStore();
+            for (User user : serialized)
+                store.add(user);
+            logger.log("Converted " + store.getLength() + " serialized users", Logger.INFO);
+            return store;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            logger.log("Unknown data while reading data from \"" + filePath + "\"", Logger.ERROR);
         } catch (IOException e) {
-            users = new Hash<>();
             logger.log("Something went wrong while load users from \"" + filePath + "\"", Logger.ERROR);
         }
+        return unreadable(filePath);
+    }
+
+    private UserStore unreadable(String filePath) {
+        String movedPath = DataFiles.setAside(filePath);
+        logger.log("Moved unreadable user data to \"" + movedPath + "\"", Logger.ERROR);
+        return new UserStore();
     }
 
+    /**
+     * Write users with login session back to store, and save store to file.
+     */
     public synchronized void save() {
+        for (User user : loginUsers)
+            users.store(user);
+
         logger.log("Saving users to \"" + filePath + "\"", Logger.DEBUG);
-        try (FileOutputStream fos = new FileOutputStream(filePath);
-             ObjectOutputStream oos = new ObjectOutputStream(fos)) {
-            oos.writeObject(users);
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            users.writeTo(dos);
         } catch (IOException e) {
             System.out.println("Failed to save Lectures");
             logger.log("Something went wrong while saving users to \"" + filePath + "\"", Logger.ERROR);
         }
     }
 
-    public synchronized void addUser(String id, String pw) {
-        User user = new User(id, pw);
-        users.put(id, user);
-        logger.log("New user \"" + id + "\" signup", Logger.INFO);
-        save();
+    public boolean addUser(String id, String pw) {
+        return addUser(new User(id, pw));
     }
 
-    public synchronized void addUser(User user) {
-        users.put(user.id, user);
+    /**
+     * Add user if id is not taken. Checking and adding is atomic.
+     *
+     * @param user New user.
+     * @return False if id already exists.
+     */
+    public boolean addUser(User user) {
+        if (!users.add(user))
+            return false;
         logger.log("New user \"" + user.id + "\" signup", Logger.INFO);
         save();
+        return true;
     }
 
     public boolean hasId(String id) {
-        return users.get(id) != null;
+        return users.hasId(id);
     }
 
-    public Hash<String, User> getUsers() {
-        return users;
+    /**
+     * Decode every registered user. For maintenance only.
+     */
+    public ArrayList<User> getUsers() {
+        return users.loadAll();
     }
 
+    /**
+     * Get user of login session, or decode user from store.
+     */
     public User getUser(String id) {
         logger.log("Get \"" + id + "\"'s user data", Logger.DEBUG);
-        return users.get(id);
+        User user = loginUsers.get(id);
+        if (user != null)
+            return user;
+        return users.load(id);
     }
 
     public boolean verifyUser(String id, String hashedPassword) {
-        User user = users.get(id);
         logger.log("\"" + id + "\" is trying login", Logger.DEBUG);
-        if (user == null)
-            return false;
-
-        return user.verifyPassword(hashedPassword);
+        return users.verifyPassword(id, hashedPassword);
     }
 
-    public synchronized boolean login(User user) {
-        if (loginUsers.has(user)) {
+    public boolean login(User user) {
+        if (loginUsers.putIfAbsent(user.id, user) != null) {
             logger.log("\"" + user.id + "\" is already in loginUsers", Logger.VERBOSE);
             return false;
         }
 
-        loginUsers.push(user);
         logger.log("\"" + user.id + "\" was added to loginUsers", Logger.VERBOSE);
         return true;
     }
 
-    public synchronized void logout(User user) {
-        loginUsers.remove(user);
+    /**
+     * Write user back to store and drop login session.
+     */
+    public void logout(User user) {
+        users.store(user);
+        loginUsers.remove(user.id);
         logger.log("\"" + user.id + "\" was removed from loginUsers", Logger.VERBOSE);
     }
 }
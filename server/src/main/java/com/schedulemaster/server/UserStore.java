@@ -0,0 +1,354 @@
+package com.schedulemaster.server;
+
+import com.schedulemaster.misc.ArrayList;
+import com.schedulemaster.misc.ObjectIntHash;
+import com.schedulemaster.model.LectureTime;
+import com.schedulemaster.model.User;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Off-heap store of users. Each user is a fixed size record in a direct buffer,
+ * pointing at length prefixed blobs (strings and encoded lists) in a direct arena buffer.
+ * Only user id -> record number stays on heap, so password check decodes only password,
+ * and User objects exist only for the users being loaded.
+ * Changed users are appended to arena again, and arena is compacted when more than half is garbage.
+ *
+ * @author lalaalal
+ */
+public class UserStore {
+    private static final int MAGIC = 0x53554652; // "SUFR"
+    private static final int VERSION = 1;
+
+    // record layout
+    private static final int ID = 0;
+    private static final int PASSWORD = 4;
+    private static final int GRADE = 8;
+    private static final int MAJOR = 12;
+    private static final int BODY = 16;
+    private static final int RECORD_SIZE = 20;
+
+    private static final int DEFAULT_RECORDS = 64;
+    private static final int DEFAULT_ARENA = 16 * 1024;
+    private static final int MIN_COMPACT_GARBAGE = 1024 * 1024;
+
+    private ByteBuffer records;
+    private ByteBuffer arena;
+    private int recordCount = 0;
+    private int garbage = 0;
+    private final ObjectIntHash<String> index = new ObjectIntHash<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public UserStore() {
+        records = ByteBuffer.allocateDirect(DEFAULT_RECORDS * RECORD_SIZE);
+        arena = ByteBuffer.allocateDirect(DEFAULT_ARENA);
+    }
+
+    public int getLength() {
+        lock.readLock().lock();
+        try {
+            return recordCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasId(String id) {
+        lock.readLock().lock();
+        try {
+            return index.hasKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check password of user, decoding only password.
+     *
+     * @return False if user doesn't exist or password doesn't match.
+     */
+    public boolean verifyPassword(String id, String hashedPassword) {
+        lock.readLock().lock();
+        try {
+            int record = index.getOrDefault(id, -1);
+            if (record < 0)
+                return false;
+            return readString(records.getInt(record * RECORD_SIZE + PASSWORD)).equals(hashedPassword);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Decode user into a new User object.
+     *
+     * @return User, null if not found.
+     */
+    public User load(String id) {
+        lock.readLock().lock();
+        try {
+            int record = index.getOrDefault(id, -1);
+            if (record < 0)
+                return null;
+            return decode(record * RECORD_SIZE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add user if id is not taken.
+     *
+     * @return False if id already exists.
+     */
+    public boolean add(User user) {
+        lock.writeLock().lock();
+        try {
+            if (index.hasKey(user.id))
+                return false;
+            // encoded before any blob is written, so a bad user leaves arena as it was
+            byte[] body = encodeBody(user);
+            if ((recordCount + 1) * RECORD_SIZE > records.capacity())
+                records = grow(records, recordCount * RECORD_SIZE, (recordCount + 1) * RECORD_SIZE);
+
+            int base = recordCount * RECORD_SIZE;
+            records.putInt(base + ID, writeBlob(user.id.getBytes(StandardCharsets.UTF_8)));
+            records.putInt(base + PASSWORD, writeBlob(user.getHashedPassword().getBytes(StandardCharsets.UTF_8)));
+            writeChangeable(base, user, body);
+            index.put(user.id, recordCount);
+            recordCount += 1;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Write changed user back to store. Id and password don't change.
+     */
+    public void store(User user) {
+        lock.writeLock().lock();
+        try {
+            int record = index.getOrDefault(user.id, -1);
+            if (record < 0)
+                throw new RuntimeException("No such user " + user.id);
+            byte[] body = encodeBody(user);
+            int base = record * RECORD_SIZE;
+            garbage += blobSize(records.getInt(base + MAJOR)) + blobSize(records.getInt(base + BODY));
+            writeChangeable(base, user, body);
+            if (garbage > MIN_COMPACT_GARBAGE && garbage > arena.position() / 2)
+                compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decode every user. For maintenance only, as it brings all users into heap.
+     */
+    public ArrayList<User> loadAll() {
+        lock.readLock().lock();
+        try {
+            ArrayList<User> result = new ArrayList<>(recordCount);
+            for (int record = 0; record < recordCount; record++)
+                result.push(decode(record * RECORD_SIZE));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void writeChangeable(int base, User user, byte[] body) {
+        records.putInt(base + GRADE, user.getGrade());
+        records.putInt(base + MAJOR, writeBlob(Objects.requireNonNullElse(user.getMajor(), "").getBytes(StandardCharsets.UTF_8)));
+        records.putInt(base + BODY, writeBlob(body));
+    }
+
+    /**
+     * Copy used bytes into a new direct buffer of at least required capacity.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int used, int required) {
+        int capacity = buffer.capacity();
+        while (capacity < required)
+            capacity *= 2;
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        grown.put(0, buffer, 0, used);
+        grown.position(buffer.position());
+        return grown;
+    }
+
+    /**
+     * Append length prefixed blob to arena.
+     *
+     * @return Offset of blob.
+     */
+    private int writeBlob(byte[] bytes) {
+        if (arena.remaining() < bytes.length + 4)
+            arena = grow(arena, arena.position(), arena.position() + bytes.length + 4);
+        int offset = arena.position();
+        arena.putInt(bytes.length);
+        arena.put(bytes);
+        return offset;
+    }
+
+    private int blobSize(int offset) {
+        return arena.getInt(offset) + 4;
+    }
+
+    private byte[] readBlob(int offset) {
+        byte[] bytes = new byte[arena.getInt(offset)];
+        arena.get(offset + 4, bytes);
+        return bytes;
+    }
+
+    private String readString(int offset) {
+        return new String(readBlob(offset), StandardCharsets.UTF_8);
+    }
+
+    private User decode(int base) {
+        User user = new User(readString(records.getInt(base + ID)), readString(records.getInt(base + PASSWORD)));
+        user.setGrade(records.getInt(base + GRADE));
+        user.setMajor(readString(records.getInt(base + MAJOR)));
+        decodeBody(user, readBlob(records.getInt(base + BODY)));
+        return user;
+    }
+
+    // null lists of user are written as empty ones
+    private static byte[] encodeBody(User user) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeStrings(out, user.selectedLectures);
+            writeStrings(out, user.enrolledLectures);
+            ObjectIntHash<String> priorities = Objects.requireNonNullElseGet(user.priorities, ObjectIntHash::new);
+            out.writeInt(priorities.getLength());
+            priorities.forEachEntry((lectureNum, priority) -> {
+                try {
+                    out.writeUTF(lectureNum);
+                    out.writeInt(priority);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            LectureTime unwantedTime = Objects.requireNonNullElseGet(user.unwantedTime, LectureTime::new);
+            out.writeInt(unwantedTime.getTimeSets().getLength());
+            for (LectureTime.TimeSet timeSet : unwantedTime.getTimeSets()) {
+                out.writeByte(timeSet.dayOfWeek());
+                out.writeShort(timeSet.start().toMinutes());
+                out.writeShort(timeSet.end().toMinutes());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeStrings(DataOutputStream out, ArrayList<String> strings) throws IOException {
+        if (strings == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(strings.getLength());
+        for (String string : strings)
+            out.writeUTF(string);
+    }
+
+    private static void decodeBody(User user, byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            int selected = in.readInt();
+            for (int i = 0; i < selected; i++)
+                user.selectedLectures.push(in.readUTF());
+            int enrolled = in.readInt();
+            for (int i = 0; i < enrolled; i++)
+                user.enrolledLectures.push(in.readUTF());
+            int priorities = in.readInt();
+            for (int i = 0; i < priorities; i++)
+                user.priorities.set(in.readUTF(), in.readInt());
+            int timeSets = in.readInt();
+            for (int i = 0; i < timeSets; i++) {
+                int dayOfWeek = in.readByte();
+                int start = in.readShort();
+                int end = in.readShort();
+                user.unwantedTime.addTimeSet(dayOfWeek, toTime(start), toTime(end));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LectureTime.Time toTime(int minutes) {
+        return new LectureTime.Time(minutes / 60, minutes % 60);
+    }
+
+    // call with write lock. copies live blobs into new arena.
+    private void compact() {
+        ByteBuffer old = arena;
+        arena = ByteBuffer.allocateDirect(Math.max(DEFAULT_ARENA, old.position() - garbage));
+        for (int record = 0; record < recordCount; record++) {
+            int base = record * RECORD_SIZE;
+            for (int field = 0; field < RECORD_SIZE; field += 4) {
+                if (field == GRADE)
+                    continue;
+                int offset = records.getInt(base + field);
+                byte[] bytes = new byte[old.getInt(offset)];
+                old.get(offset + 4, bytes);
+                records.putInt(base + field, writeBlob(bytes));
+            }
+        }
+        garbage = 0;
+    }
+
+    /**
+     * Write all users in store format.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(recordCount);
+            for (int record = 0; record < recordCount; record++) {
+                int base = record * RECORD_SIZE;
+                out.writeInt(records.getInt(base + GRADE));
+                for (int field : new int[]{ID, PASSWORD, MAJOR, BODY}) {
+                    byte[] bytes = readBlob(records.getInt(base + field));
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read users written by writeTo.
+     *
+     * @throws StreamCorruptedException If stream is not in store format.
+     */
+    public static UserStore readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION)
+            throw new StreamCorruptedException("Not a user store");
+        UserStore store = new UserStore();
+        int count = in.readInt();
+        if (count < 0)
+            throw new StreamCorruptedException("Negative length " + count);
+        store.records = grow(store.records, 0, count * RECORD_SIZE);
+        for (int record = 0; record < count; record++) {
+            int base = record * RECORD_SIZE;
+            store.records.putInt(base + GRADE, in.readInt());
+            for (int field : new int[]{ID, PASSWORD, MAJOR, BODY}) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                store.records.putInt(base + field, store.writeBlob(bytes));
+            }
+            store.index.put(store.readString(store.records.getInt(base + ID)), record);
+            store.recordCount += 1;
+        }
+        return store;
+    }
+}
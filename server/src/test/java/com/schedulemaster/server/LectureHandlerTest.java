@@ -1,9 +1,16 @@
 package com.schedulemaster.server;
 
+import com.schedulemaster.misc.Response;
 import com.schedulemaster.model.Lecture;
+import com.schedulemaster.model.User;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LectureHandlerTest {
     @Test
@@ -16,4 +23,74 @@ public class LectureHandlerTest {
             System.out.println(lecture);
         }
     }
+
+    @Test
+    public void testConvertBaselineLectures() throws IOException {
+        Path path = Files.createTempDirectory("lectures").resolve("lectures");
+        try (InputStream is = LectureHandlerTest.class.getResourceAsStream("/baseline/lectures")) {
+            Files.copy(is, path);
+        }
+
+        LectureHandler lectureHandler = new LectureHandler(path.toString());
+        Assertions.assertEquals(3, lectureHandler.getLectures().getLength());
+        Assertions.assertEquals("자료구조", lectureHandler.findLecture("00001").name);
+        Assertions.assertEquals(2, lectureHandler.findLecture("00001").time.getTimeSets().getLength());
+
+        User user = new User("alice", "hashed-alice");
+        Assertions.assertEquals(Response.SUCCEED, lectureHandler.enrollLecture("00002", user));
+        Assertions.assertEquals("lecture_full", lectureHandler.enrollLecture("00003", user));
+
+        // saved as ConcurrentHash, and read back
+        lectureHandler.save();
+        LectureHandler reloaded = new LectureHandler(path.toString());
+        Assertions.assertEquals(3, reloaded.getLectures().getLength());
+        Assertions.assertEquals(1, reloaded.findLecture("00002").enrolled);
+        Assertions.assertEquals(1, reloaded.findLecture("00001").enrolled);
+    }
+
+    @Test
+    public void testUnreadableLectures() throws IOException {
+        Path directory = Files.createTempDirectory("lectures");
+        Path path = directory.resolve("lectures");
+        byte[] unreadable = "not a lecture file".getBytes();
+        Files.write(path, unreadable);
+
+        LectureHandler lectureHandler = new LectureHandler(path.toString());
+        Assertions.assertEquals(0, lectureHandler.getLectures().getLength());
+        Path moved = directory.resolve("lectures.unreadable");
+        Assertions.assertArrayEquals(unreadable, Files.readAllBytes(moved));
+
+        lectureHandler.selectLecture("00001", new User("alice", "hashed-alice"));
+        lectureHandler.save();
+        Assertions.assertArrayEquals(unreadable, Files.readAllBytes(moved));
+    }
+
+    @Test
+    public void testConcurrentEnroll() throws IOException, InterruptedException {
+        Path path = Files.createTempDirectory("lectures").resolve("lectures");
+        try (InputStream is = LectureHandlerTest.class.getResourceAsStream("/baseline/lectures")) {
+            Files.copy(is, path);
+        }
+        LectureHandler lectureHandler = new LectureHandler(path.toString());
+        Lecture lecture = lectureHandler.findLecture("00001");
+        int seats = lecture.max - lecture.enrolled;
+
+        AtomicInteger succeeded = new AtomicInteger();
+        Thread[] threads = new Thread[seats * 2];
+        for (int i = 0; i < threads.length; i++) {
+            User user = new User("user" + i, "hashed");
+            threads[i] = new Thread(() -> {
+                if (lectureHandler.enrollLecture("00001", user).equals(Response.SUCCEED))
+                    succeeded.incrementAndGet();
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        Assertions.assertEquals(seats, succeeded.get());
+        Assertions.assertEquals(lecture.max, lectureHandler.findLecture("00001").enrolled);
+        lectureHandler.save();
+        Assertions.assertEquals(lecture.max, new LectureHandler(path.toString()).findLecture("00001").enrolled);
+    }
 }
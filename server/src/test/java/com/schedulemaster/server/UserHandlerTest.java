@@ -1,9 +1,13 @@
 package com.schedulemaster.server;
 
 import com.schedulemaster.model.User;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class UserHandlerTest {
     @Test
@@ -14,4 +18,42 @@ public class UserHandlerTest {
         }
     }
 
+    @Test
+    public void testConvertBaselineUsers() throws IOException {
+        Path directory = Files.createTempDirectory("users");
+        Path path = directory.resolve("users");
+        try (InputStream is = UserHandlerTest.class.getResourceAsStream("/baseline/users")) {
+            Files.copy(is, path);
+        }
+
+        UserHandler userHandler = new UserHandler(path.toString());
+        Assertions.assertTrue(userHandler.hasId("alice"));
+        Assertions.assertTrue(userHandler.verifyUser("alice", "hashed-alice"));
+        Assertions.assertEquals(2, userHandler.getUser("alice").selectedLectures.getLength());
+        Assertions.assertTrue(userHandler.addUser("carol", "hashed-carol"));
+
+        // saved as user store, and read back
+        UserHandler reloaded = new UserHandler(path.toString());
+        Assertions.assertTrue(reloaded.hasId("alice"));
+        Assertions.assertTrue(reloaded.hasId("bob"));
+        Assertions.assertTrue(reloaded.hasId("carol"));
+        Assertions.assertEquals(3, reloaded.getUser("alice").priorities.get("00001"));
+    }
+
+    @Test
+    public void testUnreadableUsers() throws IOException {
+        Path directory = Files.createTempDirectory("users");
+        Path path = directory.resolve("users");
+        byte[] unreadable = "not a user file".getBytes();
+        Files.write(path, unreadable);
+
+        UserHandler userHandler = new UserHandler(path.toString());
+        Assertions.assertFalse(userHandler.hasId("alice"));
+        Path moved = directory.resolve("users.unreadable");
+        Assertions.assertArrayEquals(unreadable, Files.readAllBytes(moved));
+
+        userHandler.addUser("carol", "hashed-carol");
+        Assertions.assertArrayEquals(unreadable, Files.readAllBytes(moved));
+        Assertions.assertTrue(new UserHandler(path.toString()).hasId("carol"));
+    }
 }
@@ -0,0 +1,64 @@
+package com.schedulemaster.server;
+
+import com.schedulemaster.model.LectureTime;
+import com.schedulemaster.model.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+public class UserStoreTest {
+    @Test
+    public void testUserStore() throws IOException {
+        UserStore store = new UserStore();
+        for (int i = 0; i < 1000; i++) {
+            User user = new User("user" + i, "pw" + i);
+            user.setGrade(i % 4 + 1);
+            user.selectedLectures.push("0000-" + i);
+            user.priorities.set("0000-" + i, i);
+            Assertions.assertTrue(store.add(user));
+        }
+        Assertions.assertFalse(store.add(new User("user0", "other")));
+        Assertions.assertTrue(store.verifyPassword("user7", "pw7"));
+        Assertions.assertFalse(store.verifyPassword("user7", "pw8"));
+        Assertions.assertFalse(store.verifyPassword("none", "pw"));
+
+        User user = store.load("user3");
+        Assertions.assertEquals(4, user.getGrade());
+        Assertions.assertEquals("0000-3", user.selectedLectures.at(0));
+        Assertions.assertEquals(3, user.priorities.get("0000-3"));
+
+        for (int i = 0; i < 5000; i++) {
+            user.enrolledLectures.push("lecture" + i);
+            user.unwantedTime.clear();
+            user.unwantedTime.addTimeSet(i % 6, new LectureTime.Time(9, 0), new LectureTime.Time(10, 30));
+            store.store(user);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        store.writeTo(new DataOutputStream(bytes));
+        UserStore read = UserStore.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assertions.assertEquals(1000, read.getLength());
+
+        User loaded = read.load("user3");
+        Assertions.assertEquals(5000, loaded.enrolledLectures.getLength());
+        Assertions.assertEquals("lecture4999", loaded.enrolledLectures.at(4999));
+        Assertions.assertTrue(loaded.unwantedTime.hasTimeSet(4999 % 6, new LectureTime.Time(9, 0), new LectureTime.Time(10, 30)));
+        Assertions.assertTrue(read.verifyPassword("user999", "pw999"));
+    }
+
+    @Test
+    public void testNullLists() {
+        UserStore store = new UserStore();
+        User user = new User("user", "pw");
+        user.priorities = null;
+        user.unwantedTime = null;
+        Assertions.assertTrue(store.add(user));
+
+        User loaded = store.load("user");
+        Assertions.assertEquals(0, loaded.priorities.getLength());
+        Assertions.assertEquals(0, loaded.unwantedTime.getTimeSets().getLength());
+        store.store(user);
+        Assertions.assertEquals(1, store.getLength());
+    }
+}